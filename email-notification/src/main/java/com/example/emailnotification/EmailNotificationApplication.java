@@ -2,11 +2,9 @@ package com.example.emailnotification;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EnableScheduling
-@EntityScan("com.example.emailnotification")
 @SpringBootApplication
 public class EmailNotificationApplication {
 
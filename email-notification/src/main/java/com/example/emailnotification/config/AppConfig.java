@@ -4,9 +4,106 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Data
 @Component
 @ConfigurationProperties("app")
 public class AppConfig {
     private String serverEmail;
+
+    /** Настройки чтения очереди напоминаний */
+    private Consumer consumer = new Consumer();
+
+    /** Настройки отправки писем через SMTP */
+    private Mail mail = new Mail();
+
+    /** Настройки защиты от повторной отправки */
+    private Delivery delivery = new Delivery();
+
+    /** Настройки шаблонов писем */
+    private Templates templates = new Templates();
+
+    @Data
+    public static class Consumer {
+        /** Режим чтения: batch — пачками, single — по одному сообщению */
+        private String mode = "batch";
+
+        /** Число параллельных потребителей, 0 — по числу ядер процессора */
+        private int concurrency = 0;
+
+        /** Максимальное число потребителей при росте очереди, 0 — как concurrency */
+        private int maxConcurrency = 0;
+
+        /** Количество сообщений, выдаваемых брокером потребителю без подтверждения */
+        private int prefetch = 250;
+
+        /** Количество писем в одной пачке */
+        private int batchSize = 50;
+
+        /** Время ожидания, после которого неполная пачка обрабатывается */
+        private Duration receiveTimeout = Duration.ofSeconds(1);
+
+        public int getConcurrency() {
+            return concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors();
+        }
+
+        public int getMaxConcurrency() {
+            return Math.max(maxConcurrency, getConcurrency());
+        }
+    }
+
+    @Data
+    public static class Mail {
+        /** Отправлять письма; если false — текст писем только пишется в лог */
+        private boolean enabled = false;
+
+        /** Количество писем, отправляемых через одно SMTP-соединение */
+        private int batchSize = 20;
+
+        /** Максимальное число одновременно открытых SMTP-соединений */
+        private int connections = 4;
+
+        /** Средняя частота отправки писем через SMTP-сервер, 0 — без ограничения */
+        private double maxPerSecond = 10;
+
+        /** Допустимый всплеск количества писем */
+        private int burst = 20;
+
+        /** Количество попыток отправки, после которых письмо считается недоставленным */
+        private int maxAttempts = 5;
+
+        /** Пауза перед первым повтором */
+        private Duration initialBackoff = Duration.ofSeconds(1);
+
+        /** Множитель паузы для каждого следующего повтора */
+        private double backoffMultiplier = 2;
+
+        /** Максимальная пауза между повторами */
+        private Duration maxBackoff = Duration.ofMinutes(1);
+
+        /** Очередь недоставленных писем */
+        private String deadLetterQueue = "repeat-notifications-dlq";
+    }
+
+    @Data
+    public static class Delivery {
+        /** Максимальное число отправленных ключей, хранимых в памяти */
+        private int seenCacheSize = 100000;
+
+        /** Время хранения отправленного ключа в памяти */
+        private Duration seenTtl = Duration.ofHours(24);
+
+        /** Время, после которого незавершённый захват письма считается брошенным */
+        private Duration claimTimeout = Duration.ofMinutes(10);
+
+        /** Срок хранения журнала отправленных писем */
+        private Duration retention = Duration.ofDays(30);
+    }
+
+    @Data
+    public static class Templates {
+        /** Язык писем, если в письме он не указан или для него нет шаблона */
+        private String defaultLocale = "ru";
+    }
 }
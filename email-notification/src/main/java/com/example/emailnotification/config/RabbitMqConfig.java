@@ -1,9 +1,14 @@
 package com.example.emailnotification.config;
 
+import org.springframework.amqp.core.AcknowledgeMode;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -15,6 +20,11 @@ public class RabbitMqConfig {
         return new Queue("repeat-notifications-queue");
     }
 
+    @Bean
+    public Queue repeatNotificationDeadLetterQueue(AppConfig appConfig) {
+        return new Queue(appConfig.getMail().getDeadLetterQueue());
+    }
+
     //not using now
     @Bean
     public TopicExchange topicExchange(){
@@ -28,4 +38,45 @@ public class RabbitMqConfig {
           .with("notification.repeat");
 
     }
+
+    /**
+     * Фабрика потребителей, читающих очередь пачками.
+     * Пачка подтверждается брокеру целиком после успешной обработки listener'ом.
+     * Сообщения разбирает listener, чтобы повреждённое сообщение не отклонило всю пачку.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory batchListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            MessageConverter messageConverter, AppConfig appConfig) {
+        AppConfig.Consumer consumer = appConfig.getConsumer();
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setMessageConverter(messageConverter);
+        factory.setConcurrentConsumers(consumer.getConcurrency());
+        factory.setMaxConcurrentConsumers(consumer.getMaxConcurrency());
+        factory.setPrefetchCount(Math.max(consumer.getPrefetch(), consumer.getBatchSize()));
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(consumer.getBatchSize());
+        factory.setReceiveTimeout(consumer.getReceiveTimeout().toMillis());
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        return factory;
+    }
+
+    /**
+     * Фабрика потребителей, читающих очередь по одному сообщению.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory singleListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            MessageConverter messageConverter, AppConfig appConfig) {
+        AppConfig.Consumer consumer = appConfig.getConsumer();
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setMessageConverter(messageConverter);
+        factory.setConcurrentConsumers(consumer.getConcurrency());
+        factory.setMaxConcurrentConsumers(consumer.getMaxConcurrency());
+        factory.setPrefetchCount(consumer.getPrefetch());
+        return factory;
+    }
 }
@@ -0,0 +1,120 @@
+package com.example.emailnotification.message_mappers;
+
+import com.example.lettermodels.DictionaryForRepeat;
+import com.example.lettermodels.RepeatWordsLetter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Скомпилированный шаблон письма-напоминания.
+ * <p>
+ * Синтаксис — подмножество Mustache: {@code {{email}}} — почта получателя,
+ * {@code {{#dictionaries}}...{{/dictionaries}}} — блок, повторяемый для каждого словаря,
+ * внутри блока доступны {@code {{name}}} и {@code {{wordsCount}}}. Текст шаблона разбирается
+ * один раз при загрузке, при отрисовке только дописываются готовые фрагменты и значения.
+ * В HTML-шаблонах значения экранируются.
+ */
+final class LetterTemplate {
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final Segment[] segments;
+
+    private LetterTemplate(Segment[] segments) {
+        this.segments = segments;
+    }
+
+    /**
+     * @param source текст шаблона
+     * @param html экранировать ли значения для HTML
+     * @throws IllegalArgumentException если в шаблоне неизвестный или незакрытый тег
+     */
+    static LetterTemplate compile(String source, boolean html) {
+        List<Segment> top = new ArrayList<>();
+        List<Segment> section = null;
+        int position = 0;
+        while (position < source.length()) {
+            int open = source.indexOf(OPEN, position);
+            if (open < 0) {
+                addLiteral(section != null ? section : top, source.substring(position));
+                break;
+            }
+            int close = source.indexOf(CLOSE, open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed template tag at " + open);
+            }
+            addLiteral(section != null ? section : top, source.substring(position, open));
+            String tag = source.substring(open + OPEN.length(), close).trim();
+            position = close + CLOSE.length();
+            switch (tag) {
+                case "#dictionaries" -> {
+                    if (section != null) throw new IllegalArgumentException("Nested dictionaries section at " + open);
+                    section = new ArrayList<>();
+                }
+                case "/dictionaries" -> {
+                    if (section == null) throw new IllegalArgumentException("Unexpected section end at " + open);
+                    Segment[] body = section.toArray(new Segment[0]);
+                    top.add((letter, dictionary, out) -> {
+                        if (letter.getRepeatDictionaries() == null) return;
+                        for (DictionaryForRepeat item : letter.getRepeatDictionaries()) {
+                            for (Segment segment : body) {
+                                segment.render(letter, item, out);
+                            }
+                        }
+                    });
+                    section = null;
+                }
+                case "email" -> (section != null ? section : top).add((letter, dictionary, out) ->
+                        append(out, letter.getEmail(), html));
+                case "name", "wordsCount" -> {
+                    if (section == null) throw new IllegalArgumentException("Tag " + tag + " outside dictionaries section");
+                    section.add(tag.equals("name")
+                            ? (letter, dictionary, out) -> append(out, dictionary.getName(), html)
+                            : (letter, dictionary, out) -> out.append(dictionary.getWordsCount()));
+                }
+                default -> throw new IllegalArgumentException("Unknown template tag " + tag);
+            }
+        }
+        if (section != null) {
+            throw new IllegalArgumentException("Unclosed dictionaries section");
+        }
+        return new LetterTemplate(top.toArray(new Segment[0]));
+    }
+
+    void render(RepeatWordsLetter letter, StringBuilder out) {
+        for (Segment segment : segments) {
+            segment.render(letter, null, out);
+        }
+    }
+
+    private static void addLiteral(List<Segment> segments, String text) {
+        if (!text.isEmpty()) {
+            segments.add((letter, dictionary, out) -> out.append(text));
+        }
+    }
+
+    private static void append(StringBuilder out, String value, boolean html) {
+        if (value == null) return;
+        if (!html) {
+            out.append(value);
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Segment {
+        void render(RepeatWordsLetter letter, DictionaryForRepeat dictionary, StringBuilder out);
+    }
+}
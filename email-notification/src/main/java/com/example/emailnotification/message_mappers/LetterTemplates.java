@@ -0,0 +1,112 @@
+package com.example.emailnotification.message_mappers;
+
+import com.example.emailnotification.config.AppConfig;
+import com.example.lettermodels.RepeatWordsLetter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Шаблоны писем-напоминаний на разных языках.
+ * <p>
+ * Шаблоны лежат в {@code letter-templates/}: {@code repeat-letter_<язык>.subject} — тема,
+ * {@code .txt} — текст, {@code .html} — HTML-версия. Язык берётся из письма; если шаблона
+ * для него нет, используется язык без страны, затем {@code app.templates.default-locale}.
+ * Шаблоны компилируются при первом обращении и кешируются, письма собираются
+ * в переиспользуемом буфере потока.
+ */
+@Component
+public class LetterTemplates {
+    private static final String LOCATION = "classpath:letter-templates/repeat-letter_";
+    private static final int MAX_BUFFER_CAPACITY = 64 * 1024;
+
+    private final ResourceLoader resourceLoader;
+    private final Locale defaultLocale;
+
+    /** Тег языка из письма → шаблоны */
+    private final Map<String, Localized> cache = new ConcurrentHashMap<>();
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    public LetterTemplates(ResourceLoader resourceLoader, AppConfig appConfig) {
+        this.resourceLoader = resourceLoader;
+        this.defaultLocale = Locale.forLanguageTag(appConfig.getTemplates().getDefaultLocale());
+    }
+
+    /**
+     * Загружает шаблоны языка по умолчанию при старте, чтобы ошибка в них была видна сразу.
+     */
+    @PostConstruct
+    public void init() {
+        forLocale(null);
+    }
+
+    public RenderedLetter render(RepeatWordsLetter letter) {
+        Localized templates = forLocale(letter.getLocale());
+        return new RenderedLetter(render(templates.subject(), letter).strip(),
+                render(templates.text(), letter), render(templates.html(), letter));
+    }
+
+    private String render(LetterTemplate template, RepeatWordsLetter letter) {
+        StringBuilder buffer = buffers.get();
+        buffer.setLength(0);
+        template.render(letter, buffer);
+        String result = buffer.toString();
+        //не держим в потоке буфер, разросшийся на необычно большом письме
+        if (buffer.capacity() > MAX_BUFFER_CAPACITY) {
+            buffers.remove();
+        }
+        return result;
+    }
+
+    private Localized forLocale(String languageTag) {
+        return cache.computeIfAbsent(languageTag != null ? languageTag : "", tag -> {
+            for (String suffix : candidates(tag)) {
+                Resource text = resourceLoader.getResource(LOCATION + suffix + ".txt");
+                if (text.exists()) {
+                    return new Localized(
+                            LetterTemplate.compile(read(LOCATION + suffix + ".subject"), false),
+                            LetterTemplate.compile(read(LOCATION + suffix + ".txt"), false),
+                            LetterTemplate.compile(read(LOCATION + suffix + ".html"), true));
+                }
+            }
+            throw new IllegalStateException("No letter templates for locale " + tag + " or " + defaultLocale);
+        });
+    }
+
+    private List<String> candidates(String languageTag) {
+        List<String> candidates = new ArrayList<>();
+        if (!languageTag.isEmpty()) {
+            Locale locale = Locale.forLanguageTag(languageTag);
+            if (!locale.getCountry().isEmpty()) {
+                candidates.add(locale.getLanguage() + "_" + locale.getCountry());
+            }
+            if (!locale.getLanguage().isEmpty()) {
+                candidates.add(locale.getLanguage());
+            }
+        }
+        candidates.add(defaultLocale.getLanguage());
+        return candidates;
+    }
+
+    private String read(String location) {
+        try {
+            return StreamUtils.copyToString(resourceLoader.getResource(location).getInputStream(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read letter template " + location, e);
+        }
+    }
+
+    private record Localized(LetterTemplate subject, LetterTemplate text, LetterTemplate html) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.emailnotification.message_mappers;
+
+import lombok.Value;
+
+/**
+ * Готовое письмо: тема, текстовая и HTML-версии.
+ */
+@Value
+public class RenderedLetter {
+    String subject;
+    String text;
+    String html;
+}
@@ -0,0 +1,59 @@
+package com.example.emailnotification.message_mappers;
+
+import com.example.lettermodels.RepeatWordsLetter;
+import com.example.lettermodels.RepeatWordsLetterCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Преобразует сообщения очереди напоминаний в {@link RepeatWordsLetter} и обратно.
+ * <p>
+ * Формат тела выбирается по типу содержимого: {@link RepeatWordsLetterCodec#CONTENT_TYPE} —
+ * компактный двоичный формат, остальные — JSON в UTF-8. Читатель и писатель Jackson
+ * создаются один раз и разбирают байты сообщения напрямую, без промежуточной строки.
+ */
+@Component
+public class RepeatWordsLetterConverter implements MessageConverter {
+    private final ObjectReader letterReader;
+    private final ObjectWriter letterWriter;
+
+    public RepeatWordsLetterConverter(ObjectMapper objectMapper) {
+        this.letterReader = objectMapper.readerFor(RepeatWordsLetter.class);
+        this.letterWriter = objectMapper.writerFor(RepeatWordsLetter.class);
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) throws MessageConversionException {
+        try {
+            if (RepeatWordsLetterCodec.supports(messageProperties.getContentType())) {
+                return new Message(RepeatWordsLetterCodec.encode((RepeatWordsLetter) object), messageProperties);
+            }
+            messageProperties.setContentType(MessageProperties.CONTENT_TYPE_TEXT_PLAIN);
+            messageProperties.setContentEncoding(StandardCharsets.UTF_8.name());
+            return new Message(letterWriter.writeValueAsBytes(object), messageProperties);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to write repeat letter", e);
+        }
+    }
+
+    @Override
+    public Object fromMessage(Message message) throws MessageConversionException {
+        try {
+            if (RepeatWordsLetterCodec.supports(message.getMessageProperties().getContentType())) {
+                return RepeatWordsLetterCodec.decode(message.getBody());
+            }
+            return letterReader.readValue(message.getBody());
+        } catch (IOException | IllegalArgumentException e) {
+            throw new MessageConversionException("Failed to read repeat letter", e);
+        }
+    }
+}
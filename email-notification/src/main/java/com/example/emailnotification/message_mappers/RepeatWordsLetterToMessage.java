@@ -1,8 +1,8 @@
 package com.example.emailnotification.message_mappers;
 
 import com.example.lettermodels.RepeatWordsLetter;
-import org.springframework.mail.SimpleMailMessage;
+import jakarta.mail.internet.MimeMessage;
 
 public interface RepeatWordsLetterToMessage {
-    SimpleMailMessage fromRepeatWordsLetterToMessage(RepeatWordsLetter letter);
+    MimeMessage fromRepeatWordsLetterToMessage(RepeatWordsLetter letter);
 }
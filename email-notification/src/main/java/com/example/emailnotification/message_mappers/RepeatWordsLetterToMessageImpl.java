@@ -1,32 +1,38 @@
 package com.example.emailnotification.message_mappers;
 
 import com.example.emailnotification.config.AppConfig;
-import com.example.lettermodels.DictionaryForRepeat;
 import com.example.lettermodels.RepeatWordsLetter;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
-import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+
 @Service
 @RequiredArgsConstructor
 public class RepeatWordsLetterToMessageImpl implements RepeatWordsLetterToMessage{
     private final AppConfig appConfig;
+    private final JavaMailSender mailSender;
+    private final LetterTemplates letterTemplates;
 
     @Override
-    public SimpleMailMessage fromRepeatWordsLetterToMessage(RepeatWordsLetter letter) {
-        String newLine ="\n";
-        String tab = "\t";
+    public MimeMessage fromRepeatWordsLetterToMessage(RepeatWordsLetter letter) {
+        RenderedLetter rendered = letterTemplates.render(letter);
 
-        SimpleMailMessage mailMessage = new SimpleMailMessage();
-        mailMessage.setTo(letter.getEmail());
-        mailMessage.setFrom(appConfig.getServerEmail());
-        mailMessage.setSubject("Пора повторить слова");
-        StringBuilder messageText = new StringBuilder("Пора повторить слова в словарях:");
-        messageText.append(newLine);
-        for (DictionaryForRepeat dict: letter.getRepeatDictionaries()) {
-            messageText.append(dict.getName()).append(tab).append(dict.getWordsCount()).append(newLine);
+        MimeMessage mailMessage = mailSender.createMimeMessage();
+        try {
+            MimeMessageHelper helper = new MimeMessageHelper(mailMessage, true, StandardCharsets.UTF_8.name());
+            helper.setTo(letter.getEmail());
+            helper.setFrom(appConfig.getServerEmail());
+            helper.setSubject(rendered.getSubject());
+            helper.setText(rendered.getText(), rendered.getHtml());
+        } catch (MessagingException e) {
+            throw new MailPreparationException("Failed to prepare repeat letter", e);
         }
-        mailMessage.setText(messageText.toString());
         return mailMessage;
     }
 }
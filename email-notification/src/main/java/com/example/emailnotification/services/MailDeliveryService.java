@@ -0,0 +1,208 @@
+package com.example.emailnotification.services;
+
+import com.example.emailnotification.config.AppConfig;
+import com.example.emailnotification.message_mappers.LetterTemplates;
+import com.example.emailnotification.message_mappers.RepeatWordsLetterToMessage;
+import com.example.lettermodels.RepeatWordsLetter;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.log4j.Log4j2;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSenderFailedException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отправка писем через SMTP-сервер.
+ * <p>
+ * Письма отправляются пачками по {@code app.mail.batch-size}: вся пачка уходит через одно
+ * SMTP-соединение. Число одновременно открытых соединений ограничено {@code app.mail.connections},
+ * частота отправки — корзиной токенов ({@code app.mail.max-per-second}, {@code app.mail.burst}).
+ * Временные ошибки, в том числе ответы SMTP-сервера 4xx, повторяются с экспоненциально растущей паузой;
+ * письмо, которое не удалось отправить за {@code app.mail.max-attempts} попыток или с постоянной ошибкой
+ * (ответ 5xx, неверный адрес), отправляется в очередь недоставленных {@code app.mail.dead-letter-queue}.
+ * Повторно доставленные брокером письма отсекаются {@link SentLetterStore}.
+ */
+@Service
+@Log4j2
+public class MailDeliveryService {
+    private static final String REASON_HEADER = "x-delivery-error";
+    private static final String ATTEMPTS_HEADER = "x-delivery-attempts";
+
+    private final JavaMailSender mailSender;
+    private final RepeatWordsLetterToMessage messageMapper;
+    private final LetterTemplates letterTemplates;
+    private final RabbitTemplate rabbitTemplate;
+    private final AppConfig.Mail config;
+    private final Semaphore connections;
+    private final TokenBucket relayLimiter;
+    private final SentLetterStore sentLetterStore;
+
+    @Autowired
+    public MailDeliveryService(JavaMailSender mailSender, RepeatWordsLetterToMessage messageMapper, LetterTemplates letterTemplates, RabbitTemplate rabbitTemplate, SentLetterStore sentLetterStore, AppConfig appConfig) {
+        this.mailSender = mailSender;
+        this.messageMapper = messageMapper;
+        this.letterTemplates = letterTemplates;
+        this.rabbitTemplate = rabbitTemplate;
+        this.config = appConfig.getMail();
+        this.connections = new Semaphore(config.getConnections());
+        this.relayLimiter = new TokenBucket(config.getMaxPerSecond(), config.getBurst());
+        this.sentLetterStore = sentLetterStore;
+    }
+
+    /**
+     * Отправляет письма и возвращает управление, когда каждое письмо отправлено
+     * или передано в очередь недоставленных.
+     *
+     * @param letters письма
+     * @throws InterruptedException если поток прерван во время ожидания
+     */
+    public void deliver(List<RepeatWordsLetter> letters) throws InterruptedException {
+        for (int from = 0; from < letters.size(); from += config.getBatchSize()) {
+            deliverBatch(letters.subList(from, Math.min(from + config.getBatchSize(), letters.size())));
+        }
+    }
+
+    private void deliverBatch(List<RepeatWordsLetter> letters) throws InterruptedException {
+        if (!config.isEnabled()) {
+            letters.forEach(letter -> log.info("Текст письма " + letterTemplates.render(letter).getText()));
+            return;
+        }
+        List<RepeatWordsLetter> claimed = sentLetterStore.claim(letters);
+        if (claimed.isEmpty()) return;
+        //одинаковые письма различаются по ссылке, а не по содержимому
+        Map<MimeMessage, RepeatWordsLetter> pending = new IdentityHashMap<>();
+        Set<RepeatWordsLetter> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (RepeatWordsLetter letter : claimed) {
+            try {
+                pending.put(messageMapper.fromRepeatWordsLetterToMessage(letter), letter);
+            } catch (MailException e) {
+                deadLetter(List.of(letter), e.getMessage(), 1, failed);
+            }
+        }
+        if (!pending.isEmpty()) {
+            sendWithRetries(pending, failed);
+        }
+        sentLetterStore.release(failed);
+        sentLetterStore.markSent(claimed.stream().filter(letter -> !failed.contains(letter)).toList());
+    }
+
+    private void sendWithRetries(Map<MimeMessage, RepeatWordsLetter> pending, Set<RepeatWordsLetter> failed) throws InterruptedException {
+        long backoff = config.getInitialBackoff().toMillis();
+        for (int attempt = 1; ; attempt++) {
+            String error = send(pending, failed);
+            if (pending.isEmpty()) return;
+            if (attempt >= config.getMaxAttempts()) {
+                deadLetter(pending.values(), error, attempt, failed);
+                return;
+            }
+            log.warn("Failed to send " + pending.size() + " mails, attempt " + attempt + ", retry in " + backoff + " ms: " + error);
+            TimeUnit.MILLISECONDS.sleep(backoff);
+            backoff = Math.min((long) (backoff * config.getBackoffMultiplier()), config.getMaxBackoff().toMillis());
+        }
+    }
+
+    /**
+     * Отправляет письма через одно соединение. Отправленные письма и письма с постоянной
+     * ошибкой удаляются из {@code pending}, в нём остаются только письма для повтора.
+     *
+     * @return текст ошибки или null
+     */
+    private String send(Map<MimeMessage, RepeatWordsLetter> pending, Set<RepeatWordsLetter> failed) throws InterruptedException {
+        relayLimiter.acquire(pending.size());
+        connections.acquire();
+        try {
+            mailSender.send(pending.keySet().toArray(new MimeMessage[0]));
+            pending.clear();
+            return null;
+        } catch (MailParseException | MailPreparationException e) {
+            deadLetter(pending.values(), e.getMessage(), 1, failed);
+            pending.clear();
+            return null;
+        } catch (MailSendException e) {
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            if (!failedMessages.isEmpty()) {
+                pending.keySet().removeIf(message -> !failedMessages.containsKey(message));
+                List<RepeatWordsLetter> rejected = new ArrayList<>();
+                failedMessages.forEach((message, cause) -> {
+                    if (cause instanceof SendFailedException sendFailed && isPermanent(sendFailed)) {
+                        rejected.add(pending.remove(message));
+                    }
+                });
+                if (!rejected.isEmpty()) {
+                    deadLetter(rejected, "recipient rejected", 1, failed);
+                }
+            }
+            return e.getMessage();
+        } catch (MailException e) {
+            return e.getMessage();
+        } finally {
+            connections.release();
+        }
+    }
+
+    /**
+     * Определяет, постоянна ли ошибка отправки, по кодам ответа SMTP-сервера в цепочке исключений:
+     * 4xx — временная ошибка (ящик переполнен, превышен лимит, greylisting), письмо отправляется повторно;
+     * 5xx — постоянная (адрес не существует). Ошибка без кода ответа считается постоянной.
+     *
+     * @param e ошибка отправки письма
+     * @return true, если письмо нужно сразу передать в очередь недоставленных
+     */
+    static boolean isPermanent(SendFailedException e) {
+        boolean transientFailure = false;
+        for (Exception next = e; next != null; next = next instanceof MessagingException m ? m.getNextException() : null) {
+            int code = returnCode(next);
+            if (code >= 500) return true;
+            if (code >= 400) transientFailure = true;
+        }
+        return !transientFailure;
+    }
+
+    private static int returnCode(Exception e) {
+        if (e instanceof SMTPSendFailedException failed) return failed.getReturnCode();
+        if (e instanceof SMTPAddressFailedException failed) return failed.getReturnCode();
+        if (e instanceof SMTPSenderFailedException failed) return failed.getReturnCode();
+        return -1;
+    }
+
+    /**
+     * Передаёт в очередь недоставленных сообщение, которое не удалось разобрать, без изменений.
+     *
+     * @param message сообщение очереди напоминаний
+     * @param reason текст ошибки
+     */
+    public void deadLetter(Message message, String reason) {
+        log.error("Moving unreadable message to " + config.getDeadLetterQueue() + ": " + reason);
+        rabbitTemplate.send("", config.getDeadLetterQueue(), MessageBuilder.fromClonedMessage(message)
+                .setHeader(REASON_HEADER, reason)
+                .setHeader(ATTEMPTS_HEADER, 0)
+                .build());
+    }
+
+    private void deadLetter(Collection<RepeatWordsLetter> letters, String reason, int attempts, Set<RepeatWordsLetter> failed) {
+        failed.addAll(letters);
+        log.error("Moving " + letters.size() + " mails to " + config.getDeadLetterQueue() + ": " + reason);
+        for (RepeatWordsLetter letter : letters) {
+            rabbitTemplate.convertAndSend("", config.getDeadLetterQueue(), letter, message -> {
+                message.getMessageProperties().setHeader(REASON_HEADER, reason);
+                message.getMessageProperties().setHeader(ATTEMPTS_HEADER, attempts);
+                return message;
+            });
+        }
+    }
+}
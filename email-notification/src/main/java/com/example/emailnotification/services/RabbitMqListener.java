@@ -1,31 +1,67 @@
 package com.example.emailnotification.services;
 
-import com.example.emailnotification.message_mappers.RepeatWordsLetterToMessage;
+import com.example.emailnotification.message_mappers.RepeatWordsLetterConverter;
 import com.example.lettermodels.RepeatWordsLetter;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.amqp.support.converter.MessageConversionException;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Чтение очереди напоминаний. Режим задаётся {@code app.consumer.mode}:
+ * batch — письма приходят пачками и подтверждаются брокеру всей пачкой,
+ * single — по одному письму. Пачка подтверждается после того, как все письма отправлены
+ * или переданы в очередь недоставленных ({@link MailDeliveryService}).
+ * <p>
+ * Сообщения разбираются здесь, а не контейнером: ошибка разбора в контейнере отклонила бы
+ * всю пачку без возврата в очередь, и вместе с повреждённым сообщением пропали бы корректные.
+ * Сообщение, которое не удалось разобрать, как есть передаётся в очередь недоставленных.
+ */
 @Service
 @RequiredArgsConstructor
 @Log4j2
 public class RabbitMqListener {
-    private final JavaMailSender mailSender;
-    private final ObjectMapper objectMapper;
-    private final RepeatWordsLetterToMessage messageMapper;
+    private final MailDeliveryService mailDeliveryService;
+    private final RepeatWordsLetterConverter letterConverter;
 
-    @RabbitListener(queues = "repeat-notifications-queue")
-    public void processNotifications(String message) throws JsonProcessingException {
-        RepeatWordsLetter letter = objectMapper.readValue(message, RepeatWordsLetter.class);
-        SimpleMailMessage mailMessage = messageMapper.fromRepeatWordsLetterToMessage(letter);
+    @RabbitListener(queues = "repeat-notifications-queue", containerFactory = "batchListenerContainerFactory",
+            autoStartup = "#{'${app.consumer.mode:batch}' == 'batch'}")
+    public void processNotifications(List<Message> messages) throws InterruptedException {
+        log.info("Писем в пачке " + messages.size());
+        List<RepeatWordsLetter> letters = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            RepeatWordsLetter letter = decode(message);
+            if (letter != null) {
+                letters.add(letter);
+            }
+        }
+        mailDeliveryService.deliver(letters);
+    }
 
-        log.info("Текст письма " + mailMessage.getText());
-     //   mailSender.send(mailMessage);
+    @RabbitListener(queues = "repeat-notifications-queue", containerFactory = "singleListenerContainerFactory",
+            autoStartup = "#{'${app.consumer.mode:batch}' == 'single'}")
+    public void processNotification(Message message) throws InterruptedException {
+        RepeatWordsLetter letter = decode(message);
+        if (letter != null) {
+            mailDeliveryService.deliver(List.of(letter));
+        }
+    }
 
+    /**
+     * @return письмо или null, если сообщение повреждено и передано в очередь недоставленных
+     */
+    private RepeatWordsLetter decode(Message message) {
+        try {
+            return (RepeatWordsLetter) letterConverter.fromMessage(message);
+        } catch (MessageConversionException e) {
+            String reason = e.getCause() != null ? e.getMessage() + ": " + e.getCause().getMessage() : e.getMessage();
+            mailDeliveryService.deadLetter(message, reason);
+            return null;
+        }
     }
 }
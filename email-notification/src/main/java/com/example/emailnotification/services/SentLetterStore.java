@@ -0,0 +1,145 @@
+package com.example.emailnotification.services;
+
+import com.example.emailnotification.config.AppConfig;
+import com.example.lettermodels.RepeatWordsLetter;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Защита от повторной отправки напоминаний после перезапуска потребителя или повторной доставки.
+ * <p>
+ * Перед отправкой письмо «захватывается» по ключу «пользователь + дата» в таблице {@code sent_letters}:
+ * захват удаётся, если записи нет или прежний захват не завершился отправкой дольше
+ * {@code app.delivery.claim-timeout} назад (потребитель упал во время отправки). Отправленные ключи
+ * запоминаются в памяти на {@code app.delivery.seen-ttl} (не больше {@code app.delivery.seen-cache-size}
+ * ключей), поэтому при массовой повторной доставке дубликаты отсекаются без обращения к БД.
+ * Таблица одновременно служит журналом отправленных писем.
+ */
+@Service
+@Log4j2
+public class SentLetterStore {
+    private static final String CLAIM_SQL = "insert into sent_letters (user_id, send_date, email, claimed_at) values (?, ?, ?, ?) " +
+            "on conflict (user_id, send_date) do update set claimed_at = excluded.claimed_at, email = excluded.email " +
+            "where sent_letters.sent_at is null and sent_letters.claimed_at < ?";
+    private static final String MARK_SENT_SQL = "update sent_letters set sent_at = ? where user_id = ? and send_date = ?";
+    private static final String RELEASE_SQL = "delete from sent_letters where user_id = ? and send_date = ? and sent_at is null";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AppConfig.Delivery config;
+
+    /** Уже отправленные ключи → момент, после которого запись устаревает */
+    private final Map<String, Long> seen;
+
+    @Autowired
+    public SentLetterStore(JdbcTemplate jdbcTemplate, AppConfig appConfig) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = appConfig.getDelivery();
+        this.seen = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > config.getSeenCacheSize() || eldest.getValue() < System.currentTimeMillis();
+            }
+        });
+    }
+
+    /**
+     * Захватывает письма для отправки.
+     *
+     * @param letters письма
+     * @return письма, которые нужно отправить; письма без ключа идемпотентности возвращаются всегда
+     */
+    public List<RepeatWordsLetter> claim(List<RepeatWordsLetter> letters) {
+        List<RepeatWordsLetter> candidates = new ArrayList<>();
+        List<RepeatWordsLetter> claimed = new ArrayList<>();
+        Set<String> batchKeys = new HashSet<>();
+        long now = System.currentTimeMillis();
+        for (RepeatWordsLetter letter : letters) {
+            String key = letter.getIdempotencyKey();
+            if (key == null) {
+                claimed.add(letter);
+            } else if (isSeen(key, now) || !batchKeys.add(key)) {
+                log.info("Skipping duplicate repeat letter " + key);
+            } else {
+                candidates.add(letter);
+            }
+        }
+        if (candidates.isEmpty()) return claimed;
+
+        LocalDateTime claimedAt = LocalDateTime.now();
+        Timestamp staleBefore = Timestamp.valueOf(claimedAt.minus(config.getClaimTimeout()));
+        List<Object[]> rows = candidates.stream()
+                .map(letter -> new Object[]{letter.getUserId(), Date.valueOf(letter.getDate()), letter.getEmail(),
+                        Timestamp.valueOf(claimedAt), staleBefore})
+                .toList();
+        int[] updated = jdbcTemplate.batchUpdate(CLAIM_SQL, rows);
+        for (int i = 0; i < candidates.size(); i++) {
+            RepeatWordsLetter letter = candidates.get(i);
+            if (updated[i] != 0) {
+                claimed.add(letter);
+            } else {
+                log.info("Skipping duplicate repeat letter " + letter.getIdempotencyKey());
+                remember(letter.getIdempotencyKey(), now);
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Отмечает письма отправленными.
+     */
+    public void markSent(Collection<RepeatWordsLetter> letters) {
+        Timestamp sentAt = Timestamp.valueOf(LocalDateTime.now());
+        long now = System.currentTimeMillis();
+        List<Object[]> rows = new ArrayList<>();
+        for (RepeatWordsLetter letter : letters) {
+            if (letter.getIdempotencyKey() == null) continue;
+            rows.add(new Object[]{sentAt, letter.getUserId(), Date.valueOf(letter.getDate())});
+            remember(letter.getIdempotencyKey(), now);
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(MARK_SENT_SQL, rows);
+        }
+    }
+
+    /**
+     * Снимает захват с неотправленных писем, чтобы их можно было отправить повторно
+     * (например, из очереди недоставленных).
+     */
+    public void release(Collection<RepeatWordsLetter> letters) {
+        List<Object[]> rows = letters.stream()
+                .filter(letter -> letter.getIdempotencyKey() != null)
+                .map(letter -> new Object[]{letter.getUserId(), Date.valueOf(letter.getDate())})
+                .toList();
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(RELEASE_SQL, rows);
+        }
+    }
+
+    /**
+     * Удаляет записи журнала старше {@code app.delivery.retention}.
+     */
+    @Scheduled(cron = "${app.delivery.cleanup-cron:0 0 4 * * ?}")
+    public void deleteExpired() {
+        LocalDate before = LocalDate.now().minusDays(config.getRetention().toDays());
+        int deleted = jdbcTemplate.update("delete from sent_letters where send_date < ?", Date.valueOf(before));
+        log.info("Deleted " + deleted + " sent letters before " + before);
+    }
+
+    private boolean isSeen(String key, long now) {
+        Long expiresAt = seen.get(key);
+        return expiresAt != null && expiresAt >= now;
+    }
+
+    private void remember(String key, long now) {
+        seen.put(key, now + config.getSeenTtl().toMillis());
+    }
+}
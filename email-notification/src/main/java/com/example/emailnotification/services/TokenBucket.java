@@ -0,0 +1,47 @@
+package com.example.emailnotification.services;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничитель частоты «корзина токенов»: допускает всплеск до {@code capacity}
+ * операций, а в среднем — не больше {@code permitsPerSecond} в секунду. Потокобезопасен.
+ */
+public class TokenBucket {
+    private final double capacity;
+    private final double permitsPerNano;
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * @param permitsPerSecond средняя частота; значение не больше нуля отключает ограничение
+     * @param capacity максимальный всплеск
+     */
+    public TokenBucket(double permitsPerSecond, int capacity) {
+        this.capacity = Math.max(capacity, 1);
+        this.permitsPerNano = permitsPerSecond > 0 ? permitsPerSecond / TimeUnit.SECONDS.toNanos(1) : 0;
+        this.tokens = this.capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Ждёт, пока в корзине не наберётся {@code permits} токенов, и забирает их.
+     * Запрос больше ёмкости корзины выполняется в долг: следующие запросы подождут дольше.
+     *
+     * @param permits количество токенов
+     * @throws InterruptedException если поток прерван во время ожидания
+     */
+    public void acquire(int permits) throws InterruptedException {
+        if (permitsPerNano == 0 || permits <= 0) return;
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * permitsPerNano);
+            lastRefillNanos = now;
+            tokens -= permits;
+            waitNanos = tokens < 0 ? (long) (-tokens / permitsPerNano) : 0;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
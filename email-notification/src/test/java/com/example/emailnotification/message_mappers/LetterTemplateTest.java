@@ -0,0 +1,91 @@
+package com.example.emailnotification.message_mappers;
+
+import com.example.emailnotification.config.AppConfig;
+import com.example.lettermodels.DictionaryForRepeat;
+import com.example.lettermodels.RepeatWordsLetter;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class LetterTemplateTest {
+    private static final RepeatWordsLetter LETTER = letter("en", List.of(
+            new DictionaryForRepeat("Verbs", 3), new DictionaryForRepeat("<b>Tom & Jerry's \"quotes\"</b>", 12)));
+
+    @Test
+    void rendersEmailAndDictionarySection() {
+        LetterTemplate template = LetterTemplate.compile("To {{ email }}:\n{{#dictionaries}}- {{name}}: {{wordsCount}}\n{{/dictionaries}}end", false);
+
+        assertThat(render(template, LETTER)).isEqualTo(
+                "To a@b.c:\n- Verbs: 3\n- <b>Tom & Jerry's \"quotes\"</b>: 12\nend");
+    }
+
+    @Test
+    void escapesValuesInHtml() {
+        LetterTemplate template = LetterTemplate.compile("<p>{{email}}</p>{{#dictionaries}}<td>{{name}}</td>{{/dictionaries}}", true);
+        RepeatWordsLetter letter = new RepeatWordsLetter(1L, LocalDate.EPOCH, "<a@b.c>", "en", LETTER.getRepeatDictionaries());
+
+        assertThat(render(template, letter)).isEqualTo("<p>&lt;a@b.c&gt;</p><td>Verbs</td>"
+                + "<td>&lt;b&gt;Tom &amp; Jerry&#39;s &quot;quotes&quot;&lt;/b&gt;</td>");
+    }
+
+    @Test
+    void skipsMissingValues() {
+        LetterTemplate template = LetterTemplate.compile("[{{email}}]{{#dictionaries}}{{name}}{{/dictionaries}}", true);
+
+        assertThat(render(template, new RepeatWordsLetter(null, null, null, null, null))).isEqualTo("[]");
+        assertThat(render(template, letter("en", List.of()))).isEqualTo("[a@b.c]");
+    }
+
+    @Test
+    void textWithoutTagsIsKeptAsIs() {
+        assertThat(render(LetterTemplate.compile("plain { text }", false), LETTER)).isEqualTo("plain { text }");
+        assertThat(render(LetterTemplate.compile("", false), LETTER)).isEmpty();
+    }
+
+    @Test
+    void rejectsInvalidTemplates() {
+        assertThatIllegalArgumentException().isThrownBy(() -> LetterTemplate.compile("{{unknown}}", false))
+                .withMessageContaining("Unknown template tag");
+        assertThatIllegalArgumentException().isThrownBy(() -> LetterTemplate.compile("{{email", false))
+                .withMessageContaining("Unclosed template tag");
+        assertThatIllegalArgumentException().isThrownBy(() -> LetterTemplate.compile("{{#dictionaries}}{{name}}", false))
+                .withMessageContaining("Unclosed dictionaries section");
+        assertThatIllegalArgumentException().isThrownBy(() -> LetterTemplate.compile("{{#dictionaries}}{{#dictionaries}}", false))
+                .withMessageContaining("Nested");
+        assertThatIllegalArgumentException().isThrownBy(() -> LetterTemplate.compile("{{/dictionaries}}", false))
+                .withMessageContaining("Unexpected section end");
+        assertThatIllegalArgumentException().isThrownBy(() -> LetterTemplate.compile("{{wordsCount}}", false))
+                .withMessageContaining("outside dictionaries section");
+    }
+
+    @Test
+    void templatesFallBackToLanguageThenDefaultLocale() {
+        LetterTemplates templates = new LetterTemplates(new DefaultResourceLoader(), new AppConfig());
+        templates.init();
+
+        RenderedLetter english = templates.render(letter("en-GB", LETTER.getRepeatDictionaries()));
+        assertThat(english.getSubject()).isEqualTo("Time to repeat your words");
+        assertThat(english.getText()).contains("Verbs\t3\n");
+        assertThat(english.getHtml()).contains("<td>Verbs</td><td>3</td>").contains("Tom &amp; Jerry");
+
+        RenderedLetter fallback = templates.render(letter("fr", List.of(new DictionaryForRepeat("Verbs", 3))));
+        assertThat(fallback.getSubject()).isEqualTo("Пора повторить слова");
+
+        assertThat(templates.render(letter(null, List.of())).getSubject()).isEqualTo("Пора повторить слова");
+    }
+
+    private static RepeatWordsLetter letter(String locale, List<DictionaryForRepeat> dictionaries) {
+        return new RepeatWordsLetter(1L, LocalDate.EPOCH, "a@b.c", locale, dictionaries);
+    }
+
+    private static String render(LetterTemplate template, RepeatWordsLetter letter) {
+        StringBuilder out = new StringBuilder();
+        template.render(letter, out);
+        return out.toString();
+    }
+}
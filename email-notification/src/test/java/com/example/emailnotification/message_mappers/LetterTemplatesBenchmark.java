@@ -0,0 +1,100 @@
+package com.example.emailnotification.message_mappers;
+
+import com.example.emailnotification.config.AppConfig;
+import com.example.lettermodels.DictionaryForRepeat;
+import com.example.lettermodels.RepeatWordsLetter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время сборки письма-напоминания {@link LetterTemplates#render(RepeatWordsLetter)} из кешированных шаблонов
+ * в сравнении с разбором шаблонов для каждого письма. Язык {@code en-GB} проверяет выбор шаблона
+ * через язык без страны.
+ * <p>
+ * Запуск: {@code mvn -pl email-notification -am test-compile}, затем метод {@link #main(String[])}
+ * с классами и зависимостями тестов в classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LetterTemplatesBenchmark {
+    private static final String LOCATION = "classpath:letter-templates/repeat-letter_";
+
+    @Param({"ru", "en-GB"})
+    public String locale;
+
+    /** Количество словарей в письме */
+    @Param({"3", "50"})
+    public int dictionaries;
+
+    private LetterTemplates letterTemplates;
+    private RepeatWordsLetter letter;
+    private String subject;
+    private String text;
+    private String html;
+
+    @Setup
+    public void setUp() throws IOException {
+        letterTemplates = new LetterTemplates(new DefaultResourceLoader(), new AppConfig());
+        letterTemplates.init();
+        List<DictionaryForRepeat> repeatDictionaries = new ArrayList<>(dictionaries);
+        for (int i = 0; i < dictionaries; i++) {
+            repeatDictionaries.add(new DictionaryForRepeat("Словарь <" + i + "> & фразы", i + 1));
+        }
+        letter = new RepeatWordsLetter(123456L, LocalDate.of(2026, 10, 17), "user@example.com", locale, repeatDictionaries);
+        String language = Locale.forLanguageTag(locale).getLanguage();
+        subject = read(LOCATION + language + ".subject");
+        text = read(LOCATION + language + ".txt");
+        html = read(LOCATION + language + ".html");
+    }
+
+    @Benchmark
+    public RenderedLetter render() {
+        return letterTemplates.render(letter);
+    }
+
+    @Benchmark
+    public RenderedLetter compileAndRender() {
+        return new RenderedLetter(render(LetterTemplate.compile(subject, false)),
+                render(LetterTemplate.compile(text, false)), render(LetterTemplate.compile(html, true)));
+    }
+
+    private String render(LetterTemplate template) {
+        StringBuilder out = new StringBuilder(1024);
+        template.render(letter, out);
+        return out.toString();
+    }
+
+    private static String read(String location) throws IOException {
+        return StreamUtils.copyToString(new DefaultResourceLoader().getResource(location).getInputStream(), StandardCharsets.UTF_8);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LetterTemplatesBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.emailnotification.message_mappers;
+
+import com.example.lettermodels.DictionaryForRepeat;
+import com.example.lettermodels.RepeatWordsLetter;
+import com.example.lettermodels.RepeatWordsLetterCodec;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение двоичного формата {@link RepeatWordsLetterCodec} с JSON: время записи и чтения письма
+ * через {@link RepeatWordsLetterConverter}. Размер сообщений печатается перед запуском.
+ * <p>
+ * Запуск: {@code mvn -pl email-notification -am test-compile}, затем метод {@link #main(String[])}
+ * с классами и зависимостями тестов в classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepeatWordsLetterConverterBenchmark {
+    static final RepeatWordsLetter LETTER = new RepeatWordsLetter(123456L, LocalDate.of(2026, 10, 17),
+            "user@example.com", "ru", List.of(new DictionaryForRepeat("Английский", 42),
+            new DictionaryForRepeat("Немецкий: глаголы", 7), new DictionaryForRepeat("Phrasal verbs", 130)));
+
+    private RepeatWordsLetterConverter converter;
+    private Message binaryMessage;
+    private Message jsonMessage;
+
+    @Setup
+    public void setUp() {
+        converter = new RepeatWordsLetterConverter(JsonMapper.builder().findAndAddModules().build());
+        binaryMessage = converter.toMessage(LETTER, binaryProperties());
+        jsonMessage = converter.toMessage(LETTER, new MessageProperties());
+    }
+
+    @Benchmark
+    public Message encodeBinary() {
+        return converter.toMessage(LETTER, binaryProperties());
+    }
+
+    @Benchmark
+    public Message encodeJson() {
+        return converter.toMessage(LETTER, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object decodeBinary() {
+        return converter.fromMessage(binaryMessage);
+    }
+
+    @Benchmark
+    public Object decodeJson() {
+        return converter.fromMessage(jsonMessage);
+    }
+
+    private static MessageProperties binaryProperties() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(RepeatWordsLetterCodec.CONTENT_TYPE);
+        return properties;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        RepeatWordsLetterConverterBenchmark sizes = new RepeatWordsLetterConverterBenchmark();
+        sizes.setUp();
+        System.out.println("binary: " + sizes.binaryMessage.getBody().length + " bytes, json: "
+                + sizes.jsonMessage.getBody().length + " bytes");
+        new Runner(new OptionsBuilder().include(RepeatWordsLetterConverterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
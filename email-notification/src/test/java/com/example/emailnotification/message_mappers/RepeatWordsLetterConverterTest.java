@@ -0,0 +1,74 @@
+package com.example.emailnotification.message_mappers;
+
+import com.example.lettermodels.DictionaryForRepeat;
+import com.example.lettermodels.RepeatWordsLetter;
+import com.example.lettermodels.RepeatWordsLetterCodec;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RepeatWordsLetterConverterTest {
+    private static final RepeatWordsLetter LETTER = new RepeatWordsLetter(7L, LocalDate.of(2026, 10, 17), "a@b.c", "en",
+            List.of(new DictionaryForRepeat("dict", 3)));
+
+    private final RepeatWordsLetterConverter converter =
+            new RepeatWordsLetterConverter(JsonMapper.builder().findAndAddModules().build());
+
+    @Test
+    void binaryContentTypeUsesCodec() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(RepeatWordsLetterCodec.CONTENT_TYPE);
+
+        Message message = converter.toMessage(LETTER, properties);
+
+        assertThat(message.getBody()).isEqualTo(RepeatWordsLetterCodec.encode(LETTER));
+        assertThat(converter.fromMessage(message)).isEqualTo(LETTER);
+    }
+
+    @Test
+    void otherContentTypesFallBackToJson() {
+        Message message = converter.toMessage(LETTER, new MessageProperties());
+
+        assertThat(message.getMessageProperties().getContentType()).isEqualTo(MessageProperties.CONTENT_TYPE_TEXT_PLAIN);
+        assertThat(new String(message.getBody(), StandardCharsets.UTF_8)).contains("\"email\":\"a@b.c\"");
+        assertThat(converter.fromMessage(message)).isEqualTo(LETTER);
+    }
+
+    @Test
+    void readsJsonOfPreviousFormat() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        Message message = new Message("{\"id\":5,\"email\":\"a@b.c\",\"repeatDictionaries\":[{\"name\":\"dict\",\"wordsCount\":3}]}"
+                .getBytes(StandardCharsets.UTF_8), properties);
+
+        assertThat(converter.fromMessage(message)).isEqualTo(
+                new RepeatWordsLetter(null, null, "a@b.c", null, List.of(new DictionaryForRepeat("dict", 3))));
+    }
+
+    @Test
+    void readsJsonWithoutContentType() {
+        Message message = new Message("{\"email\":\"a@b.c\"}".getBytes(StandardCharsets.UTF_8), new MessageProperties());
+
+        assertThat(converter.fromMessage(message)).isEqualTo(new RepeatWordsLetter(null, null, "a@b.c", null, null));
+    }
+
+    @Test
+    void corruptedMessagesFailConversion() {
+        MessageProperties binary = new MessageProperties();
+        binary.setContentType(RepeatWordsLetterCodec.CONTENT_TYPE);
+
+        assertThatThrownBy(() -> converter.fromMessage(new Message(new byte[]{99}, binary)))
+                .isInstanceOf(MessageConversionException.class);
+        assertThatThrownBy(() -> converter.fromMessage(new Message("{".getBytes(StandardCharsets.UTF_8), new MessageProperties())))
+                .isInstanceOf(MessageConversionException.class);
+    }
+}
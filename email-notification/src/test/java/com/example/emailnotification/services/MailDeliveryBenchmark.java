@@ -0,0 +1,117 @@
+package com.example.emailnotification.services;
+
+import com.example.emailnotification.config.AppConfig;
+import com.example.emailnotification.message_mappers.LetterTemplates;
+import com.example.emailnotification.message_mappers.RepeatWordsLetterToMessageImpl;
+import com.example.lettermodels.DictionaryForRepeat;
+import com.example.lettermodels.RepeatWordsLetter;
+import com.icegreen.greenmail.store.FolderException;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность {@link MailDeliveryService}, писем в секунду, при отправке на встроенный
+ * SMTP-сервер GreenMail: без ограничения частоты и с ограничением корзиной токенов {@link TokenBucket}
+ * ({@code app.mail.max-per-second}).
+ * <p>
+ * Письма без ключа идемпотентности, поэтому {@link SentLetterStore} не обращается к БД.
+ * Запуск: {@code mvn -pl email-notification -am test-compile}, затем метод {@link #main(String[])}
+ * с классами и зависимостями тестов в classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MailDeliveryBenchmark {
+    private static final int LETTERS = 100;
+
+    /** Средняя частота отправки, 0 — без ограничения */
+    @Param({"0", "100"})
+    public double maxPerSecond;
+
+    @Param({"20"})
+    public int batchSize;
+
+    private GreenMail greenMail;
+    private MailDeliveryService deliveryService;
+    private List<RepeatWordsLetter> letters;
+
+    @Setup
+    public void setUp() {
+        greenMail = new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+        greenMail.start();
+
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost(greenMail.getSmtp().getBindTo());
+        mailSender.setPort(greenMail.getSmtp().getPort());
+
+        AppConfig appConfig = new AppConfig();
+        appConfig.setServerEmail("noreply@example.com");
+        AppConfig.Mail mail = appConfig.getMail();
+        mail.setEnabled(true);
+        mail.setBatchSize(batchSize);
+        mail.setMaxPerSecond(maxPerSecond);
+        mail.setBurst(batchSize);
+
+        LetterTemplates letterTemplates = new LetterTemplates(new DefaultResourceLoader(), appConfig);
+        letterTemplates.init();
+        //без ошибок отправки очередь недоставленных и журнал в БД не используются
+        deliveryService = new MailDeliveryService(mailSender,
+                new RepeatWordsLetterToMessageImpl(appConfig, mailSender, letterTemplates), letterTemplates,
+                new RabbitTemplate(), new SentLetterStore(new JdbcTemplate(), appConfig), appConfig);
+
+        letters = new ArrayList<>(LETTERS);
+        for (int i = 0; i < LETTERS; i++) {
+            letters.add(new RepeatWordsLetter(null, LocalDate.of(2026, 10, 17), "user" + i + "@example.com", "ru",
+                    List.of(new DictionaryForRepeat("Английский", 42), new DictionaryForRepeat("Phrasal verbs", i))));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void purge() throws FolderException {
+        greenMail.purgeEmailFromAllMailboxes();
+    }
+
+    @TearDown
+    public void tearDown() {
+        greenMail.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LETTERS)
+    public void deliver() throws InterruptedException {
+        deliveryService.deliver(letters);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MailDeliveryBenchmark.class.getSimpleName()).build()).run();
+    }
+}
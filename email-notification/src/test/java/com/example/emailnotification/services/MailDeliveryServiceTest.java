@@ -0,0 +1,211 @@
+package com.example.emailnotification.services;
+
+import com.example.emailnotification.config.AppConfig;
+import com.example.emailnotification.message_mappers.LetterTemplates;
+import com.example.emailnotification.message_mappers.RepeatWordsLetterToMessage;
+import com.example.lettermodels.DictionaryForRepeat;
+import com.example.lettermodels.RepeatWordsLetter;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MailDeliveryServiceTest {
+    private static final String DLQ = "repeat-notifications-dlq";
+
+    @Mock
+    private JavaMailSender mailSender;
+
+    @Mock
+    private RepeatWordsLetterToMessage messageMapper;
+
+    @Mock
+    private LetterTemplates letterTemplates;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private SentLetterStore sentLetterStore;
+
+    private AppConfig appConfig;
+
+    private final Map<RepeatWordsLetter, MimeMessage> messages = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        appConfig = new AppConfig();
+        AppConfig.Mail mail = appConfig.getMail();
+        mail.setDeadLetterQueue(DLQ);
+        mail.setEnabled(true);
+        mail.setBatchSize(20);
+        mail.setMaxPerSecond(0);
+        mail.setMaxAttempts(3);
+        mail.setInitialBackoff(Duration.ofMillis(1));
+        mail.setMaxBackoff(Duration.ofMillis(1));
+    }
+
+    /** Письма захватываются все, каждому соответствует своё MIME-сообщение. */
+    private void acceptLetters() {
+        when(sentLetterStore.claim(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(messageMapper.fromRepeatWordsLetterToMessage(any())).thenAnswer(invocation -> message(invocation.getArgument(0)));
+    }
+
+    private MimeMessage message(RepeatWordsLetter letter) {
+        return messages.computeIfAbsent(letter, key -> new MimeMessage((Session) null));
+    }
+
+    private MailDeliveryService service() {
+        return new MailDeliveryService(mailSender, messageMapper, letterTemplates, rabbitTemplate, sentLetterStore, appConfig);
+    }
+
+    @Test
+    void lettersAreSentInBatchesThroughOneConnection() throws InterruptedException {
+        acceptLetters();
+        List<RepeatWordsLetter> letters = letters(45);
+
+        service().deliver(letters);
+
+        ArgumentCaptor<MimeMessage[]> batches = ArgumentCaptor.forClass(MimeMessage[].class);
+        verify(mailSender, times(3)).send(batches.capture());
+        assertThat(batches.getAllValues()).extracting(batch -> batch.length).containsExactly(20, 20, 5);
+        verify(sentLetterStore).markSent(letters.subList(0, 20));
+        verify(sentLetterStore).markSent(letters.subList(40, 45));
+        verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString(), any(Object.class), any(MessagePostProcessor.class));
+    }
+
+    @Test
+    void temporaryFailureIsRetried() throws InterruptedException {
+        acceptLetters();
+        List<RepeatWordsLetter> letters = letters(2);
+        doThrow(new MailSendException("connection refused")).doNothing().when(mailSender).send(any(MimeMessage[].class));
+
+        service().deliver(letters);
+
+        verify(mailSender, times(2)).send(any(MimeMessage[].class));
+        verify(sentLetterStore).markSent(letters);
+        verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString(), any(Object.class), any(MessagePostProcessor.class));
+    }
+
+    @Test
+    void letterIsDeadLetteredAfterMaxAttempts() throws InterruptedException {
+        acceptLetters();
+        List<RepeatWordsLetter> letters = letters(1);
+        doThrow(new MailSendException("connection refused")).when(mailSender).send(any(MimeMessage[].class));
+
+        service().deliver(letters);
+
+        verify(mailSender, times(3)).send(any(MimeMessage[].class));
+        verify(rabbitTemplate).convertAndSend(eq(""), eq(DLQ), eq(letters.get(0)), any(MessagePostProcessor.class));
+        verify(sentLetterStore).release(Set.of(letters.get(0)));
+        verify(sentLetterStore).markSent(List.of());
+    }
+
+    @Test
+    void permanentSmtpFailureIsDeadLetteredWithoutRetry() throws InterruptedException, AddressException {
+        acceptLetters();
+        List<RepeatWordsLetter> letters = letters(2);
+        doThrow(new MailSendException(Map.of(message(letters.get(1)), rejected(550)))).when(mailSender).send(any(MimeMessage[].class));
+
+        service().deliver(letters);
+
+        verify(mailSender).send(any(MimeMessage[].class));
+        verify(rabbitTemplate).convertAndSend(eq(""), eq(DLQ), eq(letters.get(1)), any(MessagePostProcessor.class));
+        verify(sentLetterStore).markSent(List.of(letters.get(0)));
+    }
+
+    @Test
+    void temporarySmtpFailureIsRetried() throws InterruptedException, AddressException {
+        acceptLetters();
+        List<RepeatWordsLetter> letters = letters(2);
+        doThrow(new MailSendException(Map.of(message(letters.get(1)), rejected(452)))).doAnswer(invocation -> {
+            assertThat((MimeMessage[]) invocation.getRawArguments()[0]).hasSize(1);
+            return null;
+        }).when(mailSender).send(any(MimeMessage[].class));
+
+        service().deliver(letters);
+
+        verify(mailSender, times(2)).send(any(MimeMessage[].class));
+        verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString(), any(Object.class), any(MessagePostProcessor.class));
+        verify(sentLetterStore).markSent(letters);
+    }
+
+    @Test
+    void smtpReturnCodeDecidesWhetherFailureIsPermanent() throws AddressException {
+        assertThat(MailDeliveryService.isPermanent(rejected(550))).isTrue();
+        assertThat(MailDeliveryService.isPermanent(rejected(451))).isFalse();
+        assertThat(MailDeliveryService.isPermanent(new SMTPSendFailedException("DATA", 421, "try again later",
+                null, null, null, null))).isFalse();
+        assertThat(MailDeliveryService.isPermanent(new SMTPSendFailedException("DATA", 554, "rejected",
+                null, null, null, null))).isTrue();
+        assertThat(MailDeliveryService.isPermanent(new SendFailedException("no code"))).isTrue();
+    }
+
+    @Test
+    void unreadableMessageIsDeadLetteredUnchanged() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        Message message = new Message(new byte[]{1, 2, 3}, properties);
+
+        service().deadLetter(message, "Failed to read repeat letter");
+
+        ArgumentCaptor<Message> sent = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate).send(eq(""), eq(DLQ), sent.capture());
+        assertThat(sent.getValue().getBody()).containsExactly(1, 2, 3);
+        assertThat(sent.getValue().getMessageProperties().getContentType()).isEqualTo(MessageProperties.CONTENT_TYPE_JSON);
+        assertThat((String) sent.getValue().getMessageProperties().getHeader("x-delivery-error"))
+                .isEqualTo("Failed to read repeat letter");
+    }
+
+    /** Отказ сервера на команду RCPT TO в том виде, в каком его возвращает SMTPTransport. */
+    private static SendFailedException rejected(int code) throws AddressException {
+        SendFailedException e = new SendFailedException("Invalid Addresses");
+        e.setNextException(new SMTPAddressFailedException(new InternetAddress("user@example.com"), "RCPT TO", code, "rejected"));
+        return e;
+    }
+
+    private static List<RepeatWordsLetter> letters(int count) {
+        List<RepeatWordsLetter> letters = new ArrayList<>();
+        for (long userId = 1; userId <= count; userId++) {
+            letters.add(new RepeatWordsLetter(userId, LocalDate.of(2026, 10, 17), "user" + userId + "@example.com", null,
+                    List.of(new DictionaryForRepeat("dict", 3))));
+        }
+        return letters;
+    }
+}
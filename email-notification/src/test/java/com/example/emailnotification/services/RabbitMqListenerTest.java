@@ -0,0 +1,97 @@
+package com.example.emailnotification.services;
+
+import com.example.emailnotification.message_mappers.RepeatWordsLetterConverter;
+import com.example.lettermodels.DictionaryForRepeat;
+import com.example.lettermodels.RepeatWordsLetter;
+import com.example.lettermodels.RepeatWordsLetterCodec;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RabbitMqListenerTest {
+    @Mock
+    private MailDeliveryService mailDeliveryService;
+
+    private RabbitMqListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new RabbitMqListener(mailDeliveryService,
+                new RepeatWordsLetterConverter(JsonMapper.builder().findAndAddModules().build()));
+    }
+
+    @Test
+    void unreadableMessageIsDeadLetteredAndRestOfBatchIsDelivered() throws InterruptedException {
+        RepeatWordsLetter first = letter(1);
+        RepeatWordsLetter second = letter(2);
+        Message broken = message("{\"email\":", MessageProperties.CONTENT_TYPE_JSON);
+        Message truncated = new Message(new byte[]{RepeatWordsLetterCodec.VERSION}, binaryProperties());
+
+        listener.processNotifications(List.of(binary(first), broken, json(second), truncated));
+
+        verify(mailDeliveryService).deliver(List.of(first, second));
+        verify(mailDeliveryService).deadLetter(eq(broken), anyString());
+        verify(mailDeliveryService).deadLetter(eq(truncated), anyString());
+    }
+
+    @Test
+    void singleUnreadableMessageIsNotDelivered() throws InterruptedException {
+        Message broken = message("not a letter", MessageProperties.CONTENT_TYPE_JSON);
+
+        listener.processNotification(broken);
+
+        verify(mailDeliveryService).deadLetter(eq(broken), anyString());
+        verify(mailDeliveryService, never()).deliver(List.of());
+    }
+
+    @Test
+    void singleMessageIsDelivered() throws InterruptedException {
+        RepeatWordsLetter letter = letter(3);
+
+        listener.processNotification(binary(letter));
+
+        verify(mailDeliveryService).deliver(List.of(letter));
+    }
+
+    private static RepeatWordsLetter letter(long userId) {
+        return new RepeatWordsLetter(userId, LocalDate.of(2026, 10, 17), "user" + userId + "@example.com", "en",
+                List.of(new DictionaryForRepeat("dict", 5)));
+    }
+
+    private static Message binary(RepeatWordsLetter letter) {
+        return new Message(RepeatWordsLetterCodec.encode(letter), binaryProperties());
+    }
+
+    private static Message json(RepeatWordsLetter letter) {
+        return message("{\"userId\":" + letter.getUserId() + ",\"date\":\"" + letter.getDate() + "\",\"email\":\"" +
+                letter.getEmail() + "\",\"locale\":\"en\",\"repeatDictionaries\":[{\"name\":\"dict\",\"wordsCount\":5}]}",
+                MessageProperties.CONTENT_TYPE_JSON);
+    }
+
+    private static Message message(String body, String contentType) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(contentType);
+        return new Message(body.getBytes(StandardCharsets.UTF_8), properties);
+    }
+
+    private static MessageProperties binaryProperties() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(RepeatWordsLetterCodec.CONTENT_TYPE);
+        return properties;
+    }
+}
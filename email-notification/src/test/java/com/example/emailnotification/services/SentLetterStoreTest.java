@@ -0,0 +1,159 @@
+package com.example.emailnotification.services;
+
+import com.example.emailnotification.config.AppConfig;
+import com.example.lettermodels.DictionaryForRepeat;
+import com.example.lettermodels.RepeatWordsLetter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Захват писем в журнале {@code sent_letters} на PostgreSQL.
+ * <p>
+ * Таблицу создаёт миграция training-system V6__sent_letters.sql. БД поднимается в Testcontainers;
+ * если задано системное свойство {@code test.postgres.url}, используется эта БД (пользователь и пароль
+ * в {@code test.postgres.username} и {@code test.postgres.password}). Без Docker и без этого свойства
+ * тесты пропускаются. Каждый новый {@link SentLetterStore} изображает отдельный экземпляр потребителя
+ * с пустым кешем отправленных ключей.
+ * </p>
+ */
+class SentLetterStoreTest {
+    private static final String URL_PROPERTY = "test.postgres.url";
+    private static final String SCHEMA = "../training-system/src/main/resources/db/migration/V6__sent_letters.sql";
+
+    private static PostgreSQLContainer<?> container;
+    private static JdbcTemplate jdbcTemplate;
+
+    /** Пользователи теста {@code userId} и {@code userId + 1}, их записи удаляются после теста */
+    private final long userId = ThreadLocalRandom.current().nextLong(1_000_000_000L, Long.MAX_VALUE / 2);
+    private final AppConfig appConfig = new AppConfig();
+
+    @BeforeAll
+    static void database() {
+        String url = System.getProperty(URL_PROPERTY);
+        assumeTrue(url != null || DockerClientFactory.instance().isDockerAvailable(), "нужен Docker или свойство " + URL_PROPERTY);
+        DriverManagerDataSource dataSource;
+        if (url != null) {
+            dataSource = new DriverManagerDataSource(url, System.getProperty("test.postgres.username", "postgres"),
+                    System.getProperty("test.postgres.password", "postgres"));
+        } else {
+            container = new PostgreSQLContainer<>("postgres:16-alpine").withDatabaseName("word_train");
+            container.start();
+            dataSource = new DriverManagerDataSource(container.getJdbcUrl(), container.getUsername(), container.getPassword());
+        }
+        new ResourceDatabasePopulator(new FileSystemResource(SCHEMA)).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from sent_letters where user_id between ? and ?", userId, userId + 1);
+    }
+
+    @Test
+    void secondClaimIsRejected() {
+        RepeatWordsLetter letter = letter(userId, LocalDate.now());
+
+        //повтор в той же пачке отсекается до обращения к БД
+        assertThat(store().claim(List.of(letter, letter(userId, LocalDate.now())))).containsExactly(letter);
+        assertThat(store().claim(List.of(letter(userId, LocalDate.now())))).isEmpty();
+
+        //другой ключ того же пользователя захватывается
+        assertThat(store().claim(List.of(letter(userId, LocalDate.now().minusDays(1))))).hasSize(1);
+    }
+
+    @Test
+    void sentLetterIsNotClaimedAgain() {
+        SentLetterStore store = store();
+        RepeatWordsLetter letter = letter(userId, LocalDate.now());
+        store.claim(List.of(letter));
+        store.markSent(List.of(letter));
+        setClaimedAt("now() - interval '1 day'");
+
+        assertThat(store().claim(List.of(letter))).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from sent_letters where user_id = ? and sent_at is not null",
+                Integer.class, userId)).isEqualTo(1);
+    }
+
+    @Test
+    void staleClaimIsReclaimable() {
+        RepeatWordsLetter letter = letter(userId, LocalDate.now());
+        store().claim(List.of(letter));
+
+        //захват моложе app.delivery.claim-timeout ещё действует
+        setClaimedAt("now() - interval '5 minutes'");
+        assertThat(store().claim(List.of(letter))).isEmpty();
+
+        //потребитель упал во время отправки
+        setClaimedAt("now() - interval '11 minutes'");
+        assertThat(store().claim(List.of(letter))).containsExactly(letter);
+        assertThat(jdbcTemplate.queryForObject("select claimed_at > now() - interval '1 minute' from sent_letters where user_id = ?",
+                Boolean.class, userId)).isTrue();
+    }
+
+    @Test
+    void releasedKeyIsClaimableAgain() {
+        SentLetterStore store = store();
+        RepeatWordsLetter letter = letter(userId, LocalDate.now());
+        RepeatWordsLetter other = letter(userId + 1, LocalDate.now());
+        store.claim(List.of(letter, other));
+
+        store.release(List.of(letter));
+
+        assertThat(store.claim(List.of(letter))).containsExactly(letter);
+        assertThat(store.claim(List.of(other))).isEmpty();
+    }
+
+    @Test
+    void releaseKeepsSentLetter() {
+        SentLetterStore store = store();
+        RepeatWordsLetter letter = letter(userId, LocalDate.now());
+        store.claim(List.of(letter));
+        store.markSent(List.of(letter));
+
+        store.release(List.of(letter));
+
+        assertThat(store().claim(List.of(letter))).isEmpty();
+    }
+
+    @Test
+    void deleteExpiredRemovesLettersOlderThanRetention() {
+        appConfig.getDelivery().setRetention(Duration.ofDays(30));
+        RepeatWordsLetter expired = letter(userId, LocalDate.now().minusDays(31));
+        RepeatWordsLetter kept = letter(userId, LocalDate.now().minusDays(30));
+        SentLetterStore store = store();
+        store.claim(List.of(expired, kept));
+        store.markSent(List.of(expired, kept));
+
+        store.deleteExpired();
+
+        assertThat(jdbcTemplate.queryForList("select send_date from sent_letters where user_id = ?", LocalDate.class, userId))
+                .containsExactly(kept.getDate());
+    }
+
+    private SentLetterStore store() {
+        return new SentLetterStore(jdbcTemplate, appConfig);
+    }
+
+    private void setClaimedAt(String expression) {
+        jdbcTemplate.update("update sent_letters set claimed_at = " + expression + " where user_id = ?", userId);
+    }
+
+    private static RepeatWordsLetter letter(long userId, LocalDate date) {
+        return new RepeatWordsLetter(userId, date, "user@example.com", "ru", List.of(new DictionaryForRepeat("Английский", 3)));
+    }
+}
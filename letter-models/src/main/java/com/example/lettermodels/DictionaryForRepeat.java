@@ -1,28 +1,22 @@
 package com.example.lettermodels;
 
-import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Value;
 
-@Data
-@AllArgsConstructor
-@NoArgsConstructor
-@Entity
-@Table(name = "repeat_letter")
+/**
+ * Словарь в письме-напоминании: название и количество слов к повторению.
+ */
+@Value
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class DictionaryForRepeat {
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    @Column(name = "id")
-    private long id;
+    String name;
 
-    @Column(name = "name")
-    private String name;
+    long wordsCount;
 
-    @Column(name = "words_count")
-    private long wordsCount;
-
-    public DictionaryForRepeat(String name, long wordsCount) {
+    @JsonCreator
+    public DictionaryForRepeat(@JsonProperty("name") String name, @JsonProperty("wordsCount") long wordsCount) {
         this.name = name;
         this.wordsCount = wordsCount;
     }
@@ -1,38 +1,58 @@
 package com.example.lettermodels;
 
-import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Value;
 
+import java.time.LocalDate;
 import java.util.List;
 
-@Data
-@AllArgsConstructor
-@NoArgsConstructor
-@NamedEntityGraph(
-        name = "repeat_letter-dictionaries-graph",
-        attributeNodes = {
-                @NamedAttributeNode("repeatDictionaries")
-        }
-)
-@Entity
-@Table(name = "repeat_letter")
+/**
+ * Письмо-напоминание о словах, которые пора повторить. Неизменяемое сообщение очереди.
+ * <p>
+ * Пользователь получает не больше одного напоминания в день, поэтому пара
+ * «пользователь + дата» служит ключом идемпотентности: повторно доставленное
+ * брокером письмо с тем же ключом не отправляется второй раз.
+ * <p>
+ * Неизвестные поля JSON пропускаются, поэтому читаются и письма прежнего формата
+ * (с полем {@code id}).
+ */
+@Value
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class RepeatWordsLetter {
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    @Column(name = "id")
-    private long id;
+    /** Идентификатор получателя, null в письмах прежнего формата */
+    Long userId;
 
-    @Column(name = "email")
-    private String email;
+    /** Дата рассылки, null в письмах прежнего формата */
+    LocalDate date;
 
-    @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = "repeat_dictionary_id", nullable = false)
-    private List<DictionaryForRepeat> repeatDictionaries;
+    String email;
 
-    public RepeatWordsLetter(String email, List<DictionaryForRepeat> repeatDictionaries) {
+    /** Язык письма (тег языка), null — язык по умолчанию */
+    String locale;
+
+    List<DictionaryForRepeat> repeatDictionaries;
+
+    @JsonCreator
+    public RepeatWordsLetter(@JsonProperty("userId") Long userId,
+                             @JsonProperty("date") LocalDate date,
+                             @JsonProperty("email") String email,
+                             @JsonProperty("locale") String locale,
+                             @JsonProperty("repeatDictionaries") List<DictionaryForRepeat> repeatDictionaries) {
+        this.userId = userId;
+        this.date = date;
         this.email = email;
-        this.repeatDictionaries = repeatDictionaries;
+        this.locale = locale;
+        this.repeatDictionaries = repeatDictionaries != null ? List.copyOf(repeatDictionaries) : null;
+    }
+
+    /**
+     * @return ключ идемпотентности или null, если письмо его не содержит
+     */
+    @JsonIgnore
+    public String getIdempotencyKey() {
+        return userId != null && date != null ? userId + ":" + date : null;
     }
 }
@@ -0,0 +1,188 @@
+package com.example.lettermodels;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Компактный двоичный формат {@link RepeatWordsLetter} для очереди напоминаний.
+ * <p>
+ * Формат версии 3: байт версии; идентификатор пользователя; дата рассылки (номер дня от 1970-01-01);
+ * почта; язык; число словарей; для каждого словаря — название и количество слов. В версии 2 нет языка,
+ * в версии 1 — ещё и идентификатора пользователя и даты, такие письма по-прежнему читаются. Строки записываются
+ * как длина + байты UTF-8, числа — как varint (7 бит на байт). Для null-значений длина, число
+ * словарей, идентификатор и дата сдвинуты на единицу, 0 означает null.
+ * Сообщения в этом формате помечаются типом содержимого {@link #CONTENT_TYPE};
+ * сообщения без него читаются как JSON.
+ */
+public final class RepeatWordsLetterCodec {
+    public static final String CONTENT_TYPE = "application/vnd.lexicone.repeat-letter";
+    public static final byte VERSION = 3;
+    private static final byte VERSION_WITHOUT_LOCALE = 2;
+    private static final byte VERSION_WITHOUT_KEY = 1;
+
+    private RepeatWordsLetterCodec() {
+    }
+
+    /**
+     * @param contentType тип содержимого сообщения
+     * @return true, если сообщение записано в двоичном формате
+     */
+    public static boolean supports(String contentType) {
+        return contentType != null && contentType.startsWith(CONTENT_TYPE);
+    }
+
+    public static byte[] encode(RepeatWordsLetter letter) {
+        Writer writer = new Writer();
+        writer.writeByte(VERSION);
+        writer.writeNullableVarLong(letter.getUserId());
+        writer.writeNullableVarLong(letter.getDate() != null ? letter.getDate().toEpochDay() : null);
+        writer.writeString(letter.getEmail());
+        writer.writeString(letter.getLocale());
+        List<DictionaryForRepeat> dictionaries = letter.getRepeatDictionaries();
+        if (dictionaries == null) {
+            writer.writeVarLong(0);
+        } else {
+            writer.writeVarLong(dictionaries.size() + 1L);
+            for (DictionaryForRepeat dictionary : dictionaries) {
+                writer.writeString(dictionary.getName());
+                writer.writeVarLong(dictionary.getWordsCount());
+            }
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException если версия формата неизвестна или данные повреждены
+     */
+    public static RepeatWordsLetter decode(byte[] bytes) {
+        Reader reader = new Reader(bytes);
+        byte version = reader.readByte();
+        if (version < VERSION_WITHOUT_KEY || version > VERSION) {
+            throw new IllegalArgumentException("Unsupported repeat letter format version " + version);
+        }
+        Long userId = null;
+        LocalDate date = null;
+        if (version >= VERSION_WITHOUT_LOCALE) {
+            userId = reader.readNullableVarLong();
+            Long epochDay = reader.readNullableVarLong();
+            date = epochDay != null ? LocalDate.ofEpochDay(epochDay) : null;
+        }
+        String email = reader.readString();
+        String locale = version >= VERSION ? reader.readString() : null;
+        long count = reader.readVarLong();
+        List<DictionaryForRepeat> dictionaries = null;
+        if (count > 0) {
+            //каждый словарь занимает не меньше двух байт
+            if (count - 1 > reader.remaining() / 2) {
+                throw new IllegalArgumentException("Corrupted repeat letter");
+            }
+            dictionaries = new ArrayList<>((int) (count - 1));
+            for (long i = 1; i < count; i++) {
+                String name = reader.readString();
+                dictionaries.add(new DictionaryForRepeat(name, reader.readVarLong()));
+            }
+        }
+        if (reader.remaining() != 0) {
+            throw new IllegalArgumentException("Corrupted repeat letter");
+        }
+        return new RepeatWordsLetter(userId, date, email, locale, dictionaries);
+    }
+
+    private static final class Writer {
+        private byte[] buffer = new byte[64];
+        private int position;
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            if (value < 0) {
+                throw new IllegalArgumentException("Negative value " + value);
+            }
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        void writeNullableVarLong(Long value) {
+            writeVarLong(value != null ? value + 1 : 0);
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        byte readByte() {
+            if (position >= buffer.length) {
+                throw new IllegalArgumentException("Unexpected end of repeat letter");
+            }
+            return buffer[position++];
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Corrupted repeat letter");
+        }
+
+        Long readNullableVarLong() {
+            long value = readVarLong();
+            return value != 0 ? value - 1 : null;
+        }
+
+        String readString() {
+            long length = readVarLong();
+            if (length == 0) return null;
+            if (length - 1 > remaining()) {
+                throw new IllegalArgumentException("Unexpected end of repeat letter");
+            }
+            String value = new String(buffer, position, (int) (length - 1), StandardCharsets.UTF_8);
+            position += (int) (length - 1);
+            return value;
+        }
+
+        int remaining() {
+            return buffer.length - position;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.lettermodels;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class RepeatWordsLetterCodecTest {
+    private static final LocalDate DATE = LocalDate.of(2026, 10, 17);
+
+    @Test
+    void roundTrip() {
+        RepeatWordsLetter letter = new RepeatWordsLetter(300L, DATE, "пользователь@example.com", "en-GB",
+                List.of(new DictionaryForRepeat("Английский", 12), new DictionaryForRepeat("", 100_000)));
+
+        byte[] bytes = RepeatWordsLetterCodec.encode(letter);
+
+        assertThat(bytes[0]).isEqualTo(RepeatWordsLetterCodec.VERSION);
+        assertThat(RepeatWordsLetterCodec.decode(bytes)).isEqualTo(letter);
+    }
+
+    @Test
+    void roundTripWithNulls() {
+        RepeatWordsLetter letter = new RepeatWordsLetter(null, null, null, null, null);
+
+        assertThat(RepeatWordsLetterCodec.decode(RepeatWordsLetterCodec.encode(letter))).isEqualTo(letter);
+    }
+
+    @Test
+    void roundTripWithEmptyDictionaries() {
+        RepeatWordsLetter letter = new RepeatWordsLetter(0L, LocalDate.EPOCH, "a@b.c", null, List.of());
+
+        assertThat(RepeatWordsLetterCodec.decode(RepeatWordsLetterCodec.encode(letter))).isEqualTo(letter);
+    }
+
+    @Test
+    void decodesVersion2WithoutLocale() {
+        byte[] bytes = new Payload(2).varLong(301).varLong(DATE.toEpochDay() + 1).string("a@b.c")
+                .varLong(2).string("dict").varLong(7).bytes();
+
+        assertThat(RepeatWordsLetterCodec.decode(bytes)).isEqualTo(
+                new RepeatWordsLetter(300L, DATE, "a@b.c", null, List.of(new DictionaryForRepeat("dict", 7))));
+    }
+
+    @Test
+    void decodesVersion1WithoutIdempotencyKey() {
+        byte[] bytes = new Payload(1).string("a@b.c").varLong(3)
+                .string("first").varLong(1).string("second").varLong(200).bytes();
+
+        RepeatWordsLetter letter = RepeatWordsLetterCodec.decode(bytes);
+
+        assertThat(letter).isEqualTo(new RepeatWordsLetter(null, null, "a@b.c", null,
+                List.of(new DictionaryForRepeat("first", 1), new DictionaryForRepeat("second", 200))));
+        assertThat(letter.getIdempotencyKey()).isNull();
+    }
+
+    @Test
+    void rejectsUnknownVersion() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> RepeatWordsLetterCodec.decode(new Payload(RepeatWordsLetterCodec.VERSION + 1).string("a@b.c").bytes()))
+                .withMessageContaining("version");
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> RepeatWordsLetterCodec.decode(new Payload(0).bytes()));
+    }
+
+    @Test
+    void rejectsEveryTruncation() {
+        byte[] bytes = RepeatWordsLetterCodec.encode(new RepeatWordsLetter(300L, DATE, "a@b.c", "ru",
+                List.of(new DictionaryForRepeat("dict", 1000))));
+
+        for (int length = 0; length < bytes.length; length++) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+            assertThatIllegalArgumentException().as("length " + length)
+                    .isThrownBy(() -> RepeatWordsLetterCodec.decode(truncated));
+        }
+    }
+
+    @Test
+    void rejectsTrailingBytes() {
+        byte[] bytes = RepeatWordsLetterCodec.encode(new RepeatWordsLetter(1L, DATE, "a@b.c", null, List.of()));
+        byte[] padded = Arrays.copyOf(bytes, bytes.length + 1);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> RepeatWordsLetterCodec.decode(padded));
+    }
+
+    @Test
+    void rejectsDictionaryCountLargerThanPayload() {
+        byte[] bytes = new Payload(3).varLong(0).varLong(0).string("a@b.c").varLong(0).varLong(Integer.MAX_VALUE).bytes();
+
+        assertThatIllegalArgumentException().isThrownBy(() -> RepeatWordsLetterCodec.decode(bytes));
+    }
+
+    @Test
+    void supportsContentTypeWithParameters() {
+        assertThat(RepeatWordsLetterCodec.supports(RepeatWordsLetterCodec.CONTENT_TYPE)).isTrue();
+        assertThat(RepeatWordsLetterCodec.supports(RepeatWordsLetterCodec.CONTENT_TYPE + ";v=3")).isTrue();
+        assertThat(RepeatWordsLetterCodec.supports("application/json")).isFalse();
+        assertThat(RepeatWordsLetterCodec.supports(null)).isFalse();
+    }
+
+    /**
+     * Собирает сообщение вручную, как его записывали прежние версии формата.
+     */
+    private static final class Payload {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Payload(int version) {
+            out.write(version);
+        }
+
+        Payload varLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+            return this;
+        }
+
+        Payload string(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varLong(bytes.length + 1L);
+            out.writeBytes(bytes);
+            return this;
+        }
+
+        byte[] bytes() {
+            return out.toByteArray();
+        }
+    }
+}
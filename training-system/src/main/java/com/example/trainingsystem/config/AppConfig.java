@@ -0,0 +1,185 @@
+package com.example.trainingsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Настройки приложения из секции {@code app} файла application.yml.
+ */
+@Data
+@Component
+@ConfigurationProperties("app")
+public class AppConfig {
+
+    /** Настройки хранилища активных тренировок */
+    private Sessions sessions = new Sessions();
+
+    /** Настройки отложенной записи ответов тренировки */
+    private Results results = new Results();
+
+    /** Настройки ежедневной рассылки напоминаний */
+    private Reminders reminders = new Reminders();
+
+    /** Настройки счётчиков слов к повторению */
+    private Counters counters = new Counters();
+
+    /** Настройки отправки писем в RabbitMQ */
+    private Publisher publisher = new Publisher();
+
+    /** Настройки кеша ACL */
+    private AclCache aclCache = new AclCache();
+
+    /** Настройки кеша второго уровня Hibernate */
+    private EntityCache entityCache = new EntityCache();
+
+    /** Настройки импорта слов из файла */
+    private WordImport wordImport = new WordImport();
+
+    /** Настройки заполнения расписаний для слов без расписания */
+    private Backfill backfill = new Backfill();
+
+    /** Контроль количества SQL-запросов */
+    private Statements statements = new Statements();
+
+    /** Настройки кеша пользователей Spring Security */
+    private UserCache userCache = new UserCache();
+
+    /** Настройки хранения паролей */
+    private Passwords passwords = new Passwords();
+
+    @Data
+    public static class Sessions {
+        /** Максимальное число одновременно активных тренировок */
+        private int maxActive = 10000;
+
+        /** Время бездействия, после которого тренировка удаляется из памяти */
+        private Duration idleTimeout = Duration.ofMinutes(30);
+    }
+
+    @Data
+    public static class Results {
+        /** Число накопленных ответов, после которого запись запускается сразу */
+        private int batchSize = 500;
+
+        /** Максимальное время, которое ответ ждёт записи в БД */
+        private Duration flushInterval = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Reminders {
+        /** Количество пользователей, обрабатываемых одним запросом */
+        private int batchSize = 1000;
+
+        /** Количество потоков, параллельно обрабатывающих пачки пользователей */
+        private int workers = 4;
+
+        /** Час начала окна рассылки */
+        private int windowStartHour = 8;
+
+        /** Час окончания окна рассылки (не включительно) */
+        private int windowEndHour = 20;
+
+        /** Длина интервала рассылки в минутах, должна делить 60 без остатка */
+        private int slotMinutes = 15;
+
+        /** Максимальное количество писем в секунду, 0 — без ограничения */
+        private double maxLettersPerSecond = 50;
+    }
+
+    @Data
+    public static class Counters {
+        /** Количество словарей, сверяемых в одной транзакции */
+        private int reconcileChunk = 1000;
+    }
+
+    @Data
+    public static class Publisher {
+        /** Количество писем, отправляемых через один канал за раз */
+        private int batchSize = 100;
+
+        /** Максимальное число писем, ожидающих подтверждения брокера */
+        private int maxUnconfirmed = 5000;
+
+        /** Время ожидания подтверждений */
+        private Duration confirmTimeout = Duration.ofSeconds(30);
+
+        /** Количество попыток отправки письма, отклонённого брокером */
+        private int maxAttempts = 3;
+
+        /** Формат тела сообщения */
+        private LetterFormat format = LetterFormat.BINARY;
+    }
+
+    @Data
+    public static class AclCache {
+        /** Максимальное число ACL в кеше */
+        private long maxEntries = 10000;
+
+        /** Время жизни ACL в кеше */
+        private Duration timeToLive = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class EntityCache {
+        /** Максимальное число записей в каждой области кеша */
+        private long maxEntries = 10000;
+
+        /** Время жизни сущностей и результатов запросов в кеше */
+        private Duration timeToLive = Duration.ofMinutes(30);
+    }
+
+    @Data
+    public static class WordImport {
+        /** Количество слов, записываемых одним запросом */
+        private int batchSize = 1000;
+
+        /** Сколько ошибок в строках файла показывать пользователю */
+        private int maxReportedErrors = 20;
+    }
+
+    @Data
+    public static class Backfill {
+        /** Количество идентификаторов слов, обрабатываемых в одной транзакции */
+        private int chunkSize = 10000;
+
+        /** Пауза между диапазонами, чтобы заполнение не вытесняло рабочую нагрузку */
+        private Duration pause = Duration.ofMillis(100);
+    }
+
+    @Data
+    public static class Statements {
+        /** Число SQL-запросов на один HTTP-запрос, после которого в лог пишется предупреждение */
+        private int maxPerRequest = 30;
+    }
+
+    @Data
+    public static class UserCache {
+        /** Максимальное число пользователей в кеше */
+        private long maxEntries = 10000;
+
+        /**
+         * Время жизни пользователя в кеше. Ограничивает устаревание данных,
+         * изменённых в обход {@code UserController} или другим экземпляром приложения.
+         */
+        private Duration timeToLive = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Passwords {
+        /**
+         * Стоимость BCrypt (log2 числа раундов). Хеши с меньшей стоимостью
+         * пересчитываются при следующем входе пользователя.
+         */
+        private int bcryptStrength = 10;
+    }
+
+    public enum LetterFormat {
+        /** Компактный двоичный формат, требует потребителя, поддерживающего его */
+        BINARY,
+        /** JSON, понятный любой версии потребителя */
+        JSON
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.trainingsystem.config;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Кеш второго уровня Hibernate на Ehcache 3 через JCache.
+ * <p>
+ * Области кеша создаются здесь, а не по требованию Hibernate
+ * ({@code missing_cache_strategy: fail}), поэтому у каждой области заданы размер и время жизни:
+ * <ul>
+ *     <li>{@link #USERS}, {@link #DICTIONARIES}, {@link #SETTINGS} — сущности,
+ *     {@code app.entity-cache.max-entries} записей на {@code app.entity-cache.time-to-live};</li>
+ *     <li>{@link #SETTINGS_BY_USER} — результаты запроса настроек пользователя,
+ *     остальные кешируемые запросы — в области по умолчанию;</li>
+ *     <li>{@link #UPDATE_TIMESTAMPS} — время последнего изменения таблиц. Без ограничения времени жизни:
+ *     по нему Hibernate определяет устаревшие результаты запросов.</li>
+ * </ul>
+ * Изменения через Hibernate (в том числе JPQL update/delete) обновляют кеш сами. Нативные запросы
+ * на изменение должны указывать затронутые таблицы через {@code HibernateHints.HINT_NATIVE_SPACES},
+ * иначе Hibernate очищает все области.
+ * <p>
+ * У каждого контекста Spring свой {@link CacheManager} с отдельным URI: общий менеджер провайдера
+ * по умолчанию делили бы все контексты JVM (например, в тестах), и закрытие одного контекста
+ * удаляло бы области другого.
+ */
+@Configuration
+public class HibernateCacheConfig {
+    public static final String USERS = "users";
+    public static final String DICTIONARIES = "dictionaries";
+    public static final String SETTINGS = "settings";
+    public static final String SETTINGS_BY_USER = "settings-by-user";
+    private static final String QUERY_RESULTS = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(AppConfig appConfig) {
+        AppConfig.EntityCache config = appConfig.getEntityCache();
+        //URI без файла конфигурации Ehcache принимает только вместе с готовой конфигурацией
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(URI.create("urn:hibernate-cache:" + UUID.randomUUID()),
+                new DefaultConfiguration(HibernateCacheConfig.class.getClassLoader()));
+        for (String region : new String[]{USERS, DICTIONARIES, SETTINGS, SETTINGS_BY_USER, QUERY_RESULTS}) {
+            createCache(cacheManager, region, config.getMaxEntries(), config.getTimeToLive());
+        }
+        createCache(cacheManager, UPDATE_TIMESTAMPS, config.getMaxEntries(), null);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private void createCache(CacheManager cacheManager, String region, long maxEntries, Duration timeToLive) {
+        CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries));
+        if (timeToLive != null) {
+            builder = builder.withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive));
+        }
+        cacheManager.createCache(region, Eh107Configuration.fromEhcacheCacheConfiguration(builder));
+        cacheManager.enableStatistics(region, true);
+    }
+}
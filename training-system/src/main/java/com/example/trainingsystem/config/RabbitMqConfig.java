@@ -14,6 +14,8 @@ public class RabbitMqConfig {
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
         rabbitTemplate.setExchange(MAIN_EXCHANGE_NAME);
+        //неразмаршрутизированные сообщения возвращаются отправителю, а не теряются молча
+        rabbitTemplate.setMandatory(true);
         return rabbitTemplate;
     }
 
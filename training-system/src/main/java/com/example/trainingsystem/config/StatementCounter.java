@@ -0,0 +1,66 @@
+package com.example.trainingsystem.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Map;
+
+/**
+ * Считает SQL-запросы Hibernate, выполненные при обработке одного HTTP-запроса,
+ * включая отрисовку шаблона. Если запросов больше {@code app.statements.max-per-request},
+ * в лог пишется предупреждение: так обнаруживается загрузка связей по одной строке (N+1).
+ * Итог сохраняется в атрибуте запроса {@link #COUNT_ATTRIBUTE}, по нему тесты проверяют число запросов.
+ * <p>
+ * Запросы считаются в потоке обработки HTTP-запроса; запросы фоновых задач не учитываются.
+ */
+@Component
+@Log4j2
+public class StatementCounter implements StatementInspector, HandlerInterceptor, HibernatePropertiesCustomizer {
+    public static final String COUNT_ATTRIBUTE = StatementCounter.class.getName() + ".count";
+
+    private final ThreadLocal<int[]> counter = new ThreadLocal<>();
+    private final int maxPerRequest;
+
+    @Autowired
+    public StatementCounter(AppConfig appConfig) {
+        this.maxPerRequest = appConfig.getStatements().getMaxPerRequest();
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = counter.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        counter.set(new int[1]);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        int[] count = counter.get();
+        counter.remove();
+        if (count == null) return;
+        request.setAttribute(COUNT_ATTRIBUTE, count[0]);
+        if (count[0] > maxPerRequest) {
+            log.warn(request.getMethod() + " " + request.getRequestURI() + " executed " + count[0] + " SQL statements");
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.trainingsystem.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -21,11 +22,19 @@ import java.util.Locale;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final StatementCounter statementCounter;
+
+    @Autowired
+    public WebConfig(StatementCounter statementCounter) {
+        this.statementCounter = statementCounter;
+    }
+
     /**
      * Регистрирует {@link LocaleChangeInterceptor} в цепочке перехватчиков Spring MVC.
      * <p>
      * Этот перехватчик отслеживает параметр {@code lang} в URL,
      * например: {@code /home?lang=ru}, и изменяет текущую локаль приложения.
+     * {@link StatementCounter} считает SQL-запросы каждого HTTP-запроса.
      *
      * @param registry реестр интерцепторов
      */
@@ -33,6 +42,7 @@ public class WebConfig implements WebMvcConfigurer {
     public void addInterceptors(InterceptorRegistry registry) {
         LocaleChangeInterceptor lci = localeChangeInterceptor();
         registry.addInterceptor(lci);
+        registry.addInterceptor(statementCounter);
     }
 
     /**
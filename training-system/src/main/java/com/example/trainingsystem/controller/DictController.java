@@ -6,25 +6,33 @@ import com.example.trainingsystem.security.AuthenticationInfo;
 import com.example.trainingsystem.security.SecurityUtils;
 import com.example.trainingsystem.security.UserDetailSecurityService;
 import com.example.trainingsystem.service.DictService;
+import com.example.trainingsystem.service.DueCounterService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
 
 @Controller
 public class DictController {
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
 
     private final DictService service;
     private final UserDetailSecurityService securityService;
+    private final DueCounterService dueCounterService;
 
     @Autowired
-    public DictController(DictService service, UserDetailSecurityService securityService) {
+    public DictController(DictService service, UserDetailSecurityService securityService, DueCounterService dueCounterService) {
         this.service = service;
         this.securityService = securityService;
+        this.dueCounterService = dueCounterService;
     }
 
     @GetMapping("/")
@@ -36,9 +44,14 @@ public class DictController {
     }
 
     @GetMapping("/dicts/all")
-    public String dictionaryListPage(Model model) {
-        List<Dictionary> dicts = service.getAll();
+    public String dictionaryListPage(Model model,
+                                     @RequestParam(defaultValue = "0") int page,
+                                     @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        Page<Dictionary> dictPage = service.getVisible(PageRequest.of(Math.max(page, 0), Math.clamp(size, 1, MAX_PAGE_SIZE)));
+        List<Dictionary> dicts = dictPage.getContent();
         model.addAttribute("dicts", dicts);
+        model.addAttribute("page", dictPage);
+        model.addAttribute("dueCounts", dueCounterService.countDueWords(dicts));
         return "dict-list";
     }
 }
@@ -2,6 +2,7 @@ package com.example.trainingsystem.controller;
 
 import com.example.trainingsystem.model.Dictionary;
 import com.example.trainingsystem.model.Training;
+import com.example.trainingsystem.model.TrainingSession;
 import com.example.trainingsystem.model.Word;
 import com.example.trainingsystem.repository.DictionaryRepository;
 import com.example.trainingsystem.service.TrainService;
@@ -57,19 +58,20 @@ public class TrainingController {
     public String showNextWord(@PathVariable("trainingId") long id,
                                @RequestParam(name = "isPrevious", required = false, defaultValue = "false") boolean isPrevious,
                                Model model) {
-        Training training = service.getTraining(id);//
-        Optional<Word> nextWord = isPrevious ? service.getPreviousWord(true) : service.getNextWord(training);
+        Training training = service.getTraining(id);
+        TrainingSession session = service.getSession(training);
+        Optional<Word> nextWord = session.isFinished() ? Optional.empty()
+                : isPrevious ? service.getPreviousWord(session, true) : service.getNextWord(session);
         model.addAttribute("dictionary", training.getDictionary());
         model.addAttribute("training", training);
         if (nextWord.isEmpty()) {
-            service.saveTrainResults(training);
-            service.formSchedule(training);
+            service.finishTraining(training, session);
             model.addAttribute("results", service.getExtendedResults(training));
             return "training-result";
         }
-        model.addAttribute("stats", service.getStats());
+        model.addAttribute("stats", session.getStats());
         model.addAttribute("word", nextWord.get());
-        model.addAttribute("previousWord", service.getPreviousWord(false).orElse(null));
+        model.addAttribute("previousWord", service.getPreviousWord(session, false).orElse(null));
 
         return "training-word";
     }
@@ -81,7 +83,8 @@ public class TrainingController {
                              @RequestParam("success") boolean success,
                              RedirectAttributes redirectAttributes) {
 
-        service.saveWordResult(service.getWord(wordId), success);
+        TrainingSession session = service.getSession(service.getTraining(id));
+        service.saveWordResult(session, wordId, success);
         redirectAttributes.addAttribute("trainingId", id);
         return "redirect:/trainings/{trainingId}/word";
     }
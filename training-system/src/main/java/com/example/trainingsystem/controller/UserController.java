@@ -4,7 +4,9 @@ import com.example.trainingsystem.dto.NewUserDto;
 import com.example.trainingsystem.exception.NotFoundException;
 import com.example.trainingsystem.model.User;
 import com.example.trainingsystem.repository.UserRepository;
+import com.example.trainingsystem.security.UserDetailSecurityService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,10 +18,14 @@ import java.util.List;
 @Controller
 public class UserController {
     final UserRepository repository;
+    final PasswordEncoder passwordEncoder;
+    final UserDetailSecurityService userDetailsService;
 
     @Autowired
-    public UserController(UserRepository repository) {
+    public UserController(UserRepository repository, PasswordEncoder passwordEncoder, UserDetailSecurityService userDetailsService) {
         this.repository = repository;
+        this.passwordEncoder = passwordEncoder;
+        this.userDetailsService = userDetailsService;
     }
 
     @GetMapping("/users/all")
@@ -50,10 +56,16 @@ public class UserController {
             Model model
     ) {
         User user = repository.findById(userForm.getId()).orElseThrow(NotFoundException::new);
+        String oldName = user.getName();
         user.setName(userForm.getName());
-        user.setPassword(userForm.getPassword());
+        //пустое поле пароля оставляет прежний пароль
+        if (userForm.getPassword() != null && !userForm.getPassword().isEmpty()) {
+            user.setPassword(passwordEncoder.encode(userForm.getPassword()));
+        }
         user.setRole(userForm.getRole());
         User saved = repository.save(user);
+        userDetailsService.evict(oldName);
+        userDetailsService.evict(saved.getName());
         model.addAttribute(saved);
         return "redirect:/users/all";
     }
@@ -62,7 +74,7 @@ public class UserController {
     public String createWord(NewUserDto userForm, Model model) {
         User user = new User();
         user.setName(userForm.getName());
-        user.setPassword(userForm.getPassword());
+        user.setPassword(passwordEncoder.encode(userForm.getPassword()));
         user.setRole(userForm.getRole());
 
         repository.save(user);
@@ -71,8 +83,10 @@ public class UserController {
 
     @GetMapping("/users/delete")
     public String deleteWord(@RequestParam Long id) {
-
-        repository.deleteById(id);
+        repository.findById(id).ifPresent(user -> {
+            repository.delete(user);
+            userDetailsService.evict(user.getName());
+        });
         return "redirect:/users/all";
     }
 
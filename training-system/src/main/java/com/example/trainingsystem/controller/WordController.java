@@ -1,50 +1,96 @@
 package com.example.trainingsystem.controller;
 
+import com.example.trainingsystem.dto.ExportFormat;
+import com.example.trainingsystem.dto.KeysetPage;
 import com.example.trainingsystem.dto.NewWordDto;
+import com.example.trainingsystem.dto.ScheduleRowDto;
+import com.example.trainingsystem.dto.ScheduleSort;
+import com.example.trainingsystem.dto.WordImportResultDto;
+import com.example.trainingsystem.dto.WordRowDto;
+import com.example.trainingsystem.dto.WordSort;
 import com.example.trainingsystem.exception.NotFoundException;
 import com.example.trainingsystem.model.Dictionary;
-import com.example.trainingsystem.model.Schedule;
+import com.example.trainingsystem.model.LearningStage;
 import com.example.trainingsystem.model.Word;
+import com.example.trainingsystem.model.WordStatus;
 import com.example.trainingsystem.repository.DictionaryRepository;
-import com.example.trainingsystem.repository.ScheduleRepository;
 import com.example.trainingsystem.repository.WordRepository;
+import com.example.trainingsystem.service.WordExportService;
+import com.example.trainingsystem.service.WordImportService;
 import com.example.trainingsystem.service.WordService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 
 
 @Controller
 public class WordController {
+    private static final String TEXT_CSV = "text/csv";
+    private static final String TEXT_TSV = "text/tab-separated-values";
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    /** Импорт и его ход доступны владельцу словаря и пользователям с правом WRITE на него */
+    private static final String CAN_WRITE_DICT = "@dictService.isOwner(#dictId) " +
+            "or hasPermission(#dictId, 'com.example.trainingsystem.model.Dictionary', 'WRITE')";
+    /** Выгрузка доступна владельцу словаря и пользователям с правом READ на него */
+    private static final String CAN_READ_DICT = "@dictService.isOwner(#dictId) " +
+            "or hasPermission(#dictId, 'com.example.trainingsystem.model.Dictionary', 'READ')";
 
     private final WordRepository repository;
     private final DictionaryRepository dictRepository;
     private final WordService service;
-    private final ScheduleRepository scheduleRepository;
+    private final WordImportService importService;
+    private final WordExportService exportService;
 
 
     @Autowired
-    public WordController(WordRepository repository, DictionaryRepository dictRepository, WordService service, ScheduleRepository scheduleRepository) {
+    public WordController(WordRepository repository, DictionaryRepository dictRepository, WordService service,
+                          WordImportService importService, WordExportService exportService) {
         this.repository = repository;
         this.dictRepository = dictRepository;
         this.service = service;
-        this.scheduleRepository = scheduleRepository;
+        this.importService = importService;
+        this.exportService = exportService;
     }
 
     @GetMapping("/words/all")
-    public String dictionaryPage(@RequestParam("dictId") long dictId, Model model) {
+    public String dictionaryPage(@RequestParam("dictId") long dictId,
+                                 @RequestParam(required = false) WordStatus status,
+                                 @RequestParam(required = false) LearningStage stage,
+                                 @RequestParam(defaultValue = "ID") WordSort sort,
+                                 @RequestParam(required = false) String after,
+                                 @RequestParam(defaultValue = "0") long afterId,
+                                 @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+                                 Model model) {
         Dictionary dict = dictRepository.findById(dictId).orElseThrow(NotFoundException::new);
-        List<Word> dictWords = repository.findAllByDictionary(dict);
+        KeysetPage<WordRowDto> page = service.getWordRows(dict, status, stage, sort, after, afterId, Math.clamp(size, 1, MAX_PAGE_SIZE));
         model.addAttribute("dictionary", dict);
-        model.addAttribute("words", dictWords);
+        model.addAttribute("words", page.getRows());
+        model.addAttribute("page", page);
+        addFilterAttributes(model, status, stage, sort, WordSort.values());
         return "dict";
     }
 
@@ -81,21 +127,105 @@ public class WordController {
 
     @GetMapping("/words/delete")
     public String deleteWord(@RequestParam Long id, @RequestParam long dictId, RedirectAttributes redirectAttributes) {
-        repository.deleteById(id);
+        service.deleteWord(id);
         redirectAttributes.addAttribute("dictId", dictId);
         return "redirect:/words/all";
     }
 
+    //импорт из формы страницы словаря: файл .csv или .tsv
+    @PostMapping(value = "/words/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize(CAN_WRITE_DICT)
+    public String importWords(@RequestParam("dictId") long dictId, @RequestParam("file") MultipartFile file,
+                              RedirectAttributes redirectAttributes) throws IOException {
+        String name = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase(Locale.ROOT) : "";
+        boolean tsv = name.endsWith(".tsv") || name.endsWith(".tab") || TEXT_TSV.equals(file.getContentType());
+        char delimiter = tsv ? '\t' : ',';
+        try (InputStream input = file.getInputStream()) {
+            redirectAttributes.addFlashAttribute("importResult", importService.importWords(dictId, input, delimiter));
+        } catch (IllegalStateException e) {
+            redirectAttributes.addFlashAttribute("importRunning", true);
+        }
+        redirectAttributes.addAttribute("dictId", dictId);
+        return "redirect:/words/all";
+    }
+
+    //импорт телом запроса text/csv или text/tab-separated-values, без временного файла
+    @PostMapping(value = "/words/import", consumes = {TEXT_CSV, TEXT_TSV})
+    @PreAuthorize(CAN_WRITE_DICT)
+    @ResponseBody
+    public ResponseEntity<WordImportResultDto> importWords(@RequestParam("dictId") long dictId,
+                                                           @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                           InputStream body) throws IOException {
+        char delimiter = contentType.isCompatibleWith(MediaType.parseMediaType(TEXT_TSV)) ? '\t' : ',';
+        try {
+            return ResponseEntity.ok(importService.importWords(dictId, body, delimiter));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @GetMapping("/words/import-progress")
+    @PreAuthorize(CAN_WRITE_DICT)
+    @ResponseBody
+    public ResponseEntity<WordImportResultDto> importProgress(@RequestParam("dictId") long dictId) {
+        return ResponseEntity.of(importService.getProgress(dictId));
+    }
+
+    //выгрузка пишется в ответ по мере чтения из БД, gzip сжимает её на лету;
+    //право проверяется до начала ответа, пока ещё можно вернуть 403
+    @GetMapping("/words/export")
+    @PreAuthorize(CAN_READ_DICT)
+    public ResponseEntity<StreamingResponseBody> exportWords(@RequestParam("dictId") long dictId,
+                                                             @RequestParam(defaultValue = "CSV") ExportFormat format,
+                                                             @RequestParam(defaultValue = "false") boolean gzip) {
+        Dictionary dict = dictRepository.findById(dictId).orElseThrow(NotFoundException::new);
+        String fileName = dict.getName() + (format == ExportFormat.CSV ? ".csv" : ".ndjson") + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip")
+                : format == ExportFormat.CSV ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.APPLICATION_NDJSON;
+        StreamingResponseBody body = output -> {
+            if (gzip) {
+                GZIPOutputStream gzipOutput = new GZIPOutputStream(output, GZIP_BUFFER_SIZE);
+                exportService.export(dictId, format, gzipOutput);
+                gzipOutput.finish();
+            } else {
+                exportService.export(dictId, format, output);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName, StandardCharsets.UTF_8).build().toString())
+                .body(body);
+    }
+
     @GetMapping("/words/schedule")
-    public String schedulePage(@RequestParam("dictId") long dictId, Model model, RedirectAttributes redirectAttributes) {
+    public String schedulePage(@RequestParam("dictId") long dictId,
+                               @RequestParam(required = false) WordStatus status,
+                               @RequestParam(required = false) LearningStage stage,
+                               @RequestParam(defaultValue = "NEXT_TRAIN_DATE") ScheduleSort sort,
+                               @RequestParam(required = false) String after,
+                               @RequestParam(defaultValue = "0") long afterId,
+                               @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+                               Model model) {
         Dictionary dict = dictRepository.findById(dictId).orElseThrow(NotFoundException::new);
-        List<Schedule> dictSchedule = scheduleRepository.findAllByDictionary(dict);
+        KeysetPage<ScheduleRowDto> page = service.getScheduleRows(dict, status, stage, sort, after, afterId, Math.clamp(size, 1, MAX_PAGE_SIZE));
         model.addAttribute("dictionary", dict);
-        model.addAttribute("schedules", dictSchedule);
-        redirectAttributes.addAttribute("dictId", dictId);
+        model.addAttribute("schedules", page.getRows());
+        model.addAttribute("page", page);
+        addFilterAttributes(model, status, stage, sort, ScheduleSort.values());
         return "schedule";
     }
 
+    private void addFilterAttributes(Model model, WordStatus status, LearningStage stage, Enum<?> sort, Enum<?>[] sorts) {
+        model.addAttribute("status", status);
+        model.addAttribute("stage", stage);
+        model.addAttribute("sort", sort);
+        model.addAttribute("statuses", WordStatus.values());
+        model.addAttribute("stages", LearningStage.values());
+        model.addAttribute("sorts", sorts);
+    }
+
     @ExceptionHandler(NotFoundException.class)
     public ModelAndView handleNFE(NotFoundException e) {
         ModelAndView modelAndView = new ModelAndView("error");
@@ -0,0 +1,14 @@
+package com.example.trainingsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Количество слов словаря, которые пора повторить.
+ */
+@Data
+@AllArgsConstructor
+public class DictionaryDueCountDto {
+    private Long dictionaryId;
+    private Long wordsCount;
+}
@@ -0,0 +1,15 @@
+package com.example.trainingsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Количество слов словаря, которые пора повторить.
+ */
+@Data
+@AllArgsConstructor
+public class DueWordsCountDto {
+    private Long userId;
+    private String dictionaryName;
+    private Long wordsCount;
+}
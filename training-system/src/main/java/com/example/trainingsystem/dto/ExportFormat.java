@@ -0,0 +1,11 @@
+package com.example.trainingsystem.dto;
+
+/**
+ * Формат выгрузки слов словаря.
+ */
+public enum ExportFormat {
+    /** Таблица с заголовком, поля через запятую; первые четыре колонки читает импорт */
+    CSV,
+    /** Один объект JSON на строку */
+    NDJSON
+}
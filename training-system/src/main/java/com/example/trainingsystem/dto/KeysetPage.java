@@ -0,0 +1,27 @@
+package com.example.trainingsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Страница строк при постраничном выводе по ключу (keyset): следующая страница
+ * начинается после последней строки текущей, а не со смещения.
+ *
+ * @param <T> тип строки
+ */
+@Data
+@AllArgsConstructor
+public class KeysetPage<T> {
+    private List<T> rows;
+
+    /** Есть ли строки после этой страницы */
+    private boolean hasNext;
+
+    /** Значение поля сортировки последней строки */
+    private String nextKey;
+
+    /** Идентификатор последней строки */
+    private Long nextId;
+}
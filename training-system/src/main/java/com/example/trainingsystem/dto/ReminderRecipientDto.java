@@ -0,0 +1,15 @@
+package com.example.trainingsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Получатель напоминания о повторении: пользователь, его почта и язык писем из настроек.
+ */
+@Data
+@AllArgsConstructor
+public class ReminderRecipientDto {
+    private Long userId;
+    private String email;
+    private String locale;
+}
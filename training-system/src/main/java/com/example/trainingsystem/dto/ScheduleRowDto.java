@@ -0,0 +1,24 @@
+package com.example.trainingsystem.dto;
+
+import com.example.trainingsystem.model.LearningStage;
+import com.example.trainingsystem.model.WordStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Строка страницы расписания словаря. Читается запросом-проекцией, без загрузки сущностей.
+ */
+@Data
+@AllArgsConstructor
+public class ScheduleRowDto {
+    private Long id;
+    private String word;
+    private LocalDate nextTrainDate;
+    private LocalDate lastTrainDate;
+    private Integer totalTrainNumber;
+    private WordStatus status;
+    private LearningStage stage;
+    private LocalDate learntDate;
+}
@@ -0,0 +1,11 @@
+package com.example.trainingsystem.dto;
+
+/**
+ * Порядок строк на странице расписания словаря.
+ */
+public enum ScheduleSort {
+    /** По дате следующей тренировки */
+    NEXT_TRAIN_DATE,
+    /** По алфавиту */
+    WORD
+}
@@ -0,0 +1,28 @@
+package com.example.trainingsystem.dto;
+
+import com.example.trainingsystem.model.LearningStage;
+import com.example.trainingsystem.model.WordStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Строка выгрузки словаря: слово и состояние его расписания.
+ * Поля расписания равны null, если у слова нет расписания.
+ */
+@Data
+@AllArgsConstructor
+public class WordExportRowDto {
+    private String name;
+    private String translation;
+    private String context;
+    private String example;
+    private LocalDate addedDate;
+    private LocalDate nextTrainDate;
+    private LocalDate lastTrainDate;
+    private Integer totalTrainNumber;
+    private LearningStage stage;
+    private WordStatus status;
+    private LocalDate learntDate;
+}
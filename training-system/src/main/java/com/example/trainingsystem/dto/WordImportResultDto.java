@@ -0,0 +1,31 @@
+package com.example.trainingsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Ход или итог импорта слов в словарь.
+ */
+@Data
+@AllArgsConstructor
+public class WordImportResultDto {
+    /** Прочитано строк данных (без заголовка) */
+    private long rows;
+
+    /** Добавлено слов */
+    private long imported;
+
+    /** Пропущено слов, которые уже есть в словаре или повторяются в файле */
+    private long duplicates;
+
+    /** Пропущено строк с ошибками */
+    private long invalid;
+
+    /** Описания первых ошибок с номерами строк */
+    private List<String> errors;
+
+    /** Завершён ли импорт */
+    private boolean finished;
+}
@@ -0,0 +1,17 @@
+package com.example.trainingsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Строка страницы словаря. Читается запросом-проекцией, без загрузки сущностей.
+ */
+@Data
+@AllArgsConstructor
+public class WordRowDto {
+    private Long id;
+    private String name;
+    private String translation;
+    private String context;
+    private String example;
+}
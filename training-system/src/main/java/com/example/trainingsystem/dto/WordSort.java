@@ -0,0 +1,11 @@
+package com.example.trainingsystem.dto;
+
+/**
+ * Порядок слов на странице словаря.
+ */
+public enum WordSort {
+    /** В порядке добавления */
+    ID,
+    /** По алфавиту */
+    NAME
+}
@@ -0,0 +1,57 @@
+package com.example.trainingsystem.migration;
+
+import com.example.trainingsystem.config.AppConfig;
+import lombok.extern.log4j.Log4j2;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.regex.Pattern;
+
+/**
+ * Заменяет пароли, хранившиеся открытым текстом, на хеши BCrypt.
+ * <p>
+ * Миграция написана на Java, потому что BCrypt недоступен в SQL без расширений.
+ * Уже захешированные пароли не меняются, поэтому повторный запуск безопасен.
+ * Spring Boot передаёт бины {@link org.flywaydb.core.api.migration.JavaMigration} во Flyway сам.
+ */
+@Component
+@Log4j2
+public class V9__HashUserPasswords extends BaseJavaMigration {
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}$");
+    private static final int BATCH_SIZE = 100;
+
+    private final AppConfig appConfig;
+
+    @Autowired
+    public V9__HashUserPasswords(AppConfig appConfig) {
+        this.appConfig = appConfig;
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(appConfig.getPasswords().getBcryptStrength());
+        int hashed = 0;
+        try (Statement select = context.getConnection().createStatement();
+             ResultSet users = select.executeQuery("select id, password from users");
+             PreparedStatement update = context.getConnection().prepareStatement("update users set password = ? where id = ?")) {
+            while (users.next()) {
+                String password = users.getString(2);
+                if (BCRYPT_HASH.matcher(password).matches()) continue;
+                update.setString(1, encoder.encode(password));
+                update.setLong(2, users.getLong(1));
+                update.addBatch();
+                if (++hashed % BATCH_SIZE == 0) {
+                    update.executeBatch();
+                }
+            }
+            update.executeBatch();
+        }
+        log.info("Hashed " + hashed + " plaintext passwords");
+    }
+}
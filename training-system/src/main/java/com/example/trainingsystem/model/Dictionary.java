@@ -1,8 +1,13 @@
 package com.example.trainingsystem.model;
 
+import com.example.trainingsystem.config.HibernateCacheConfig;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import jakarta.persistence.*;
 import java.time.LocalDate;
@@ -11,6 +16,7 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.DICTIONARIES)
 @Table(name = "dictionaries")
 public class Dictionary {
     @Id
@@ -26,7 +32,9 @@ public class Dictionary {
     @Column(name = "description")
     private String description;
 
-    @ManyToOne(targetEntity = User.class, cascade = CascadeType.ALL)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(targetEntity = User.class, cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -0,0 +1,39 @@
+package com.example.trainingsystem.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Количество слов словаря (кроме новых), запланированных к повторению на дату.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "dictionary_due_counters")
+@IdClass(DueWordsCounter.Key.class)
+public class DueWordsCounter {
+    @Id
+    @Column(name = "dict_id")
+    private long dictionaryId;
+
+    @Id
+    @Column(name = "due_date")
+    private LocalDate dueDate;
+
+    @Column(name = "words_count", nullable = false)
+    private long wordsCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private long dictionaryId;
+        private LocalDate dueDate;
+    }
+}
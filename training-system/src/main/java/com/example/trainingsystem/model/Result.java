@@ -26,7 +26,6 @@ public class Result {
     @JoinColumn(name = "training_id", nullable = false)
     private Training training;
 
-    //@BatchSize(size = 10)
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "word_id", nullable = false)
     private Word word;
@@ -15,7 +15,9 @@ public class Schedule {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private long id;
 
-    @OneToOne(targetEntity = Word.class, cascade = CascadeType.PERSIST)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @OneToOne(targetEntity = Word.class, cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
     @JoinColumn(name = "word_id", nullable = false)
     private Word word;
 
@@ -37,7 +39,9 @@ public class Schedule {
     @Column(name = "learnt_date")
     private LocalDate learntDate;
 
-    @ManyToOne(targetEntity = Dictionary.class, cascade = CascadeType.ALL)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(targetEntity = Dictionary.class, cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JoinColumn(name = "dict_id", nullable = false)
     private Dictionary dictionary;
 
@@ -1,8 +1,13 @@
 package com.example.trainingsystem.model;
 
+import com.example.trainingsystem.config.HibernateCacheConfig;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import jakarta.persistence.*;
 
@@ -10,13 +15,16 @@ import jakarta.persistence.*;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.SETTINGS)
 @Table(name = "settings")
 public class Settings {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private long id;
 
-    @OneToOne(targetEntity = User.class, cascade = CascadeType.ALL)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @OneToOne(targetEntity = User.class, cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -29,4 +37,12 @@ public class Settings {
     @Column(name = "email")
     private String email;
 
+    /** Предпочтительный час рассылки напоминаний (0–23), null — распределяется автоматически */
+    @Column(name = "reminder_hour")
+    private Integer reminderHour;
+
+    /** Язык писем-напоминаний (тег языка, например ru или en), null — язык по умолчанию */
+    @Column(name = "locale", length = 16)
+    private String locale;
+
 }
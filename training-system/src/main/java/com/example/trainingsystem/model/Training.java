@@ -2,7 +2,9 @@ package com.example.trainingsystem.model;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import jakarta.persistence.*;
 import java.time.LocalDate;
@@ -18,10 +20,16 @@ public class Training {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private long id;
 
-    @ManyToOne(targetEntity = Dictionary.class, cascade = CascadeType.ALL)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(targetEntity = Dictionary.class, cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JoinColumn(name = "dict_id", nullable = false)
     private Dictionary dictionary;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+
     @Column(name = "repeat", nullable = false)
     private boolean isRepeat;
 
@@ -36,8 +44,9 @@ public class Training {
     @OneToMany(mappedBy = "training", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Result> results;
 
-    public Training(Dictionary dictionary, boolean isRepeat, List<Word> words, LocalDate trainingDate) {
+    public Training(Dictionary dictionary, User user, boolean isRepeat, List<Word> words, LocalDate trainingDate) {
         this.dictionary = dictionary;
+        this.user = user;
         this.isRepeat = isRepeat;
         this.words = words;
         this.trainingDate = trainingDate;
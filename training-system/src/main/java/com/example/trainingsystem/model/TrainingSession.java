@@ -0,0 +1,178 @@
+package com.example.trainingsystem.model;
+
+import com.example.trainingsystem.exception.NotFoundException;
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * Состояние незавершённой тренировки одного пользователя:
+ * пройденные слова, ответы, текущая позиция и статистика.
+ * <p>
+ * Методы синхронизированы на самом объекте сессии, поэтому параллельные запросы
+ * по одной тренировке выполняются по очереди, а разные тренировки друг друга не блокируют.
+ */
+public class TrainingSession {
+    @Getter
+    private final long trainingId;
+
+    @Getter
+    private final long ownerId;
+
+    /** Слова тренировки в порядке показа */
+    private final Map<Long, Word> words;
+
+    /** Список слов, которые уже были пройдены в текущей тренировке */
+    private final List<Word> trainedWords = new ArrayList<>();
+
+    /** Карта результатов: идентификатор слова → успешно ли запомнено */
+    private final Map<Long, Boolean> wordResults = new LinkedHashMap<>();
+
+    private final TrainingStats stats;
+
+    /** Текущий индекс слова в списке пройденных слов */
+    private int currentWordIndex;
+
+    /** Результаты переданы на сохранение, транзакция ещё не завершена */
+    private boolean finishing;
+
+    /** Результаты и расписание сохранены */
+    private boolean finished;
+
+    private volatile long lastAccessTime;
+
+    public TrainingSession(Training training, long ownerId) {
+        this.trainingId = training.getId();
+        this.ownerId = ownerId;
+        this.words = new LinkedHashMap<>();
+        for (Word word : training.getWords()) {
+            words.put(word.getId(), word);
+        }
+        this.stats = new TrainingStats(words.size(), 0, 0, 0);
+        touch();
+    }
+
+    /**
+     * Возвращает следующее слово для показа пользователю.
+     *
+     * @return следующее слово, если оно есть
+     */
+    public synchronized Optional<Word> nextWord() {
+        if (!trainedWords.isEmpty()) {
+            currentWordIndex++;
+        }
+        if (currentWordIndex < trainedWords.size()) {
+            return Optional.ofNullable(trainedWords.get(currentWordIndex));
+        }
+        return words.values().stream()
+                .filter(word -> !wordResults.containsKey(word.getId()))
+                .findFirst();
+    }
+
+    /**
+     * Возвращает предыдущее слово в тренировке.
+     *
+     * @param isPrevious если true — перейти назад, если false — просто получить текущее
+     * @return слово, если оно доступно
+     */
+    public synchronized Optional<Word> previousWord(boolean isPrevious) {
+        if (currentWordIndex < 1) return Optional.empty();
+        if (isPrevious) {
+            currentWordIndex--;
+            return Optional.of(trainedWords.get(currentWordIndex));
+        } else {
+            return Optional.of(trainedWords.get(currentWordIndex - 1));
+        }
+    }
+
+    /**
+     * Сохраняет ответ по слову и обновляет статистику.
+     *
+     * @param wordId идентификатор слова
+     * @param success успешно ли пользователь его запомнил
+     * @return слово тренировки
+     * @throws NotFoundException если слово не входит в тренировку
+     */
+    public synchronized Word saveWordResult(long wordId, boolean success) {
+        Word word = words.get(wordId);
+        if (word == null) {
+            throw new NotFoundException();
+        }
+        Boolean previous = wordResults.put(wordId, success);
+        if (previous == null) {
+            trainedWords.add(word);
+        }
+        int trainedWordsNumber = wordResults.size();
+        int rememberedWords = (int) wordResults.values().stream().filter(res -> res).count();
+        stats.setTrainedWordsNumber(trainedWordsNumber);
+        stats.setRememberedWordsNumber(rememberedWords);
+        stats.setFailedWordsNumber(trainedWordsNumber - rememberedWords);
+        return word;
+    }
+
+    /**
+     * Восстанавливает ответы, уже сохранённые в БД.
+     * Если ответы есть по всем словам, тренировка считается завершённой.
+     *
+     * @param savedResults идентификатор слова → успешно ли запомнено
+     */
+    public synchronized void restore(Map<Long, Boolean> savedResults) {
+        for (Long wordId : words.keySet()) {
+            Boolean success = savedResults.get(wordId);
+            if (success != null) {
+                saveWordResult(wordId, success);
+            }
+        }
+        currentWordIndex = Math.max(trainedWords.size() - 1, 0);
+        finished = !words.isEmpty() && isCompleted();
+    }
+
+    /**
+     * @return true, если все слова пройдены
+     */
+    public synchronized boolean isCompleted() {
+        return wordResults.size() == words.size();
+    }
+
+    /**
+     * @return копия текущей статистики тренировки
+     */
+    public synchronized TrainingStats getStats() {
+        return new TrainingStats(stats.getAllWordsNumber(), stats.getTrainedWordsNumber(),
+                stats.getRememberedWordsNumber(), stats.getFailedWordsNumber());
+    }
+
+    /**
+     * Начинает завершение тренировки.
+     *
+     * @return true, если тренировка не завершена и не завершается другим запросом,
+     * чтобы результаты сохранялись один раз
+     */
+    public synchronized boolean finish() {
+        if (finished || finishing) return false;
+        finishing = true;
+        return true;
+    }
+
+    /**
+     * Заканчивает завершение, начатое {@link #finish()}.
+     *
+     * @param committed сохранены ли результаты; если нет, тренировку можно завершить повторно
+     */
+    public synchronized void finishCompleted(boolean committed) {
+        finishing = false;
+        finished = committed;
+    }
+
+    public synchronized boolean isFinished() {
+        return finished;
+    }
+
+    public void touch() {
+        lastAccessTime = System.currentTimeMillis();
+    }
+
+    public long getLastAccessTime() {
+        return lastAccessTime;
+    }
+}
@@ -2,7 +2,9 @@ package com.example.trainingsystem.model;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import jakarta.persistence.*;
@@ -35,7 +37,9 @@ public class Word {
     @DateTimeFormat(pattern = "dd-MMMM-yyyy")
     private LocalDate addedDate;
 
-    @ManyToOne(targetEntity = Dictionary.class)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(targetEntity = Dictionary.class, fetch = FetchType.LAZY)
     @JoinColumn(name = "dictionary_id", nullable = false)
     private Dictionary dictionary;
 
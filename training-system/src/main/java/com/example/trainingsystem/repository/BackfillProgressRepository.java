@@ -0,0 +1,36 @@
+package com.example.trainingsystem.repository;
+
+import com.example.trainingsystem.model.BackfillProgress;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Репозиторий хода фоновых заполнений {@link BackfillProgress}.
+ */
+@Repository
+public interface BackfillProgressRepository extends CrudRepository<BackfillProgress, String> {
+
+    /**
+     * Записывает последний обработанный идентификатор, не уменьшая уже записанный:
+     * если заполнение параллельно идёт на другом экземпляре приложения, ход не откатывается назад.
+     * Затронутая таблица указана явно, чтобы запрос не очищал кеш второго уровня.
+     *
+     * @param name имя задачи
+     * @param lastId последний обработанный идентификатор
+     * @param updatedAt время записи
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "backfill_progress"))
+    @Query(value = "insert into backfill_progress (name, last_id, updated_at) values (?1, ?2, ?3) " +
+            "on conflict (name) do update " +
+            "set last_id = greatest(backfill_progress.last_id, excluded.last_id), updated_at = excluded.updated_at",
+            nativeQuery = true)
+    void saveProgress(String name, long lastId, LocalDateTime updatedAt);
+}
@@ -3,6 +3,9 @@ package com.example.trainingsystem.repository;
 
 import com.example.trainingsystem.model.Dictionary;
 import com.example.trainingsystem.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
@@ -12,8 +15,71 @@ import java.util.List;
 @Repository
 public interface DictionaryRepository extends CrudRepository<Dictionary, Long> {
 
+    /** Разделитель ролей пользователя в параметре ?4 запроса {@link #VISIBLE_IDS} */
+    String AUTHORITY_SEPARATOR = "\u001F";
+
+    /**
+     * Идентификаторы объектов, на которые у пользователя есть право: ?1 — класс объектов ACL,
+     * ?2 — маска права, ?3 — имя пользователя, ?4 — его роли через {@link #AUTHORITY_SEPARATOR}
+     * в порядке {@code Authentication.getAuthorities()}.
+     * <p>
+     * Решение принимается так же, как в {@code DefaultPermissionGrantingStrategy}: идентификаторы
+     * пользователя перебираются по порядку (сам пользователь, затем роли), и первая по ace_order
+     * запись ACL с нужной маской у первого идентификатора, для которого такая запись есть,
+     * разрешает или запрещает доступ. Если записей нет ни у одного идентификатора, а объект
+     * наследует записи (entries_inheriting), решает ACL родителя.
+     */
+    String VISIBLE_IDS = "with recursive sids as (" +
+            "select s.id, case when s.principal = 1 then 0 " +
+            "else array_position(string_to_array(?4, chr(31)), cast(s.sid as text)) end as sid_order " +
+            "from acl_sid s " +
+            "where (s.principal = 1 and s.sid = ?3) or (s.principal = 0 and s.sid = any(string_to_array(?4, chr(31))))), " +
+            "decided as (" +
+            "select distinct on (e.acl_object_identity) e.acl_object_identity as object_id, e.granting " +
+            "from sids join acl_entry e on e.sid = sids.id and e.mask = ?2 " +
+            "order by e.acl_object_identity, sids.sid_order, e.ace_order), " +
+            "granted (object_id) as (" +
+            "select object_id from decided where granting = 1 " +
+            "union " +
+            "select child.id from granted g " +
+            "join acl_object_identity child on child.parent_object = g.object_id and child.entries_inheriting = 1 " +
+            "where not exists (select 1 from decided d where d.object_id = child.id)) " +
+            "select cast(oi.object_id_identity as bigint) from granted g " +
+            "join acl_object_identity oi on oi.id = g.object_id " +
+            "join acl_class c on c.id = oi.object_id_class and c.class = ?1";
+
     List<Dictionary> findAll();
 
     List<Dictionary> findByUser(User user);
 
+    @Query("select max(d.id) from Dictionary d")
+    Long findMaxId();
+
+    /**
+     * Возвращает словари, на которые у пользователя есть право {@code mask} по ACL.
+     * <p>
+     * Право проверяется так же, как в {@code DefaultPermissionGrantingStrategy} (см. {@link #VISIBLE_IDS}).
+     * Поиск начинается с записей ACL пользователя и его ролей, поэтому время запроса зависит
+     * от числа доступных ему объектов, а не от общего числа словарей.
+     *
+     * @param className класс объектов ACL
+     * @param mask маска права
+     * @param username имя пользователя (sid-принципал)
+     * @param authorities роли пользователя (sid-роли) через {@link #AUTHORITY_SEPARATOR}
+     * @param pageable страница результата
+     * @return страница словарей, упорядоченных по идентификатору
+     */
+    @Query(value = "select d.* from dictionaries d where d.id in (" + VISIBLE_IDS + ") order by d.id",
+            countQuery = "select count(*) from dictionaries d where d.id in (" + VISIBLE_IDS + ")",
+            nativeQuery = true)
+    Page<Dictionary> findVisible(String className, int mask, String username, String authorities, Pageable pageable);
+
+    /**
+     * @param dictId идентификатор словаря
+     * @param username имя пользователя
+     * @return принадлежит ли словарь пользователю
+     */
+    @Query(value = "select count(d) > 0 from Dictionary d where d.id = ?1 and d.user.name = ?2")
+    boolean isOwnedBy(long dictId, String username);
+
 }
@@ -0,0 +1,93 @@
+package com.example.trainingsystem.repository;
+
+import com.example.trainingsystem.dto.DictionaryDueCountDto;
+import com.example.trainingsystem.dto.DueWordsCountDto;
+import com.example.trainingsystem.model.DueWordsCounter;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Репозиторий счётчиков слов к повторению {@link DueWordsCounter}.
+ */
+@Repository
+public interface DueWordsCounterRepository extends CrudRepository<DueWordsCounter, DueWordsCounter.Key> {
+
+    /**
+     * Атомарно изменяет счётчики словарей на даты одним запросом, создавая их при необходимости.
+     * Массивы одной длины задают строки (словарь, дата, изменение); пары словарь–дата не повторяются.
+     * Затронутая таблица указана явно, чтобы запрос не очищал кеш второго уровня.
+     *
+     * @param dictIds идентификаторы словарей
+     * @param dueDates даты следующей тренировки
+     * @param deltas изменения количества слов
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "dictionary_due_counters"))
+    @Query(value = "insert into dictionary_due_counters (dict_id, due_date, words_count) " +
+            "select * from unnest(cast(?1 as bigint[]), cast(?2 as date[]), cast(?3 as bigint[])) " +
+            "on conflict (dict_id, due_date) do update " +
+            "set words_count = dictionary_due_counters.words_count + excluded.words_count", nativeQuery = true)
+    void addToCounters(Long[] dictIds, LocalDate[] dueDates, Long[] deltas);
+
+    /**
+     * Считает слова к повторению по каждому из словарей.
+     *
+     * @param dictIds идентификаторы словарей
+     * @param currentDate текущая дата
+     * @return количество слов к повторению по словарям, где оно больше нуля
+     */
+    @Query(value = "select new com.example.trainingsystem.dto.DictionaryDueCountDto(c.dictionaryId, sum(c.wordsCount)) " +
+            "from DueWordsCounter c where c.dictionaryId in ?1 and c.dueDate < ?2 " +
+            "group by c.dictionaryId having sum(c.wordsCount) > 0")
+    List<DictionaryDueCountDto> sumByDictionaries(Collection<Long> dictIds, LocalDate currentDate);
+
+    /**
+     * Считает слова к повторению по словарям сразу для группы пользователей.
+     *
+     * @param userIds идентификаторы пользователей
+     * @param currentDate текущая дата
+     * @return количество слов к повторению по словарям, где оно больше нуля
+     */
+    @Query(value = "select new com.example.trainingsystem.dto.DueWordsCountDto(d.user.id, d.name, sum(c.wordsCount)) " +
+            "from DueWordsCounter c join Dictionary d on d.id = c.dictionaryId " +
+            "where d.user.id in ?1 and c.dueDate < ?2 " +
+            "group by d.user.id, d.id, d.name having sum(c.wordsCount) > 0 order by d.user.id, d.id")
+    List<DueWordsCountDto> sumByUsers(Collection<Long> userIds, LocalDate currentDate);
+
+    /**
+     * Сверяет счётчики словарей с идентификаторами из диапазона с таблицей schedule
+     * и исправляет расхождения, добавляя к счётчикам разницу.
+     * Запрос видит согласованный снимок данных, поэтому параллельные изменения расписания не теряются.
+     *
+     * @param fromDictId начало диапазона идентификаторов словарей (включительно)
+     * @param toDictId конец диапазона идентификаторов словарей (не включительно)
+     * @return количество исправленных счётчиков
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "dictionary_due_counters"))
+    @Query(value = "insert into dictionary_due_counters (dict_id, due_date, words_count) " +
+            "select coalesce(a.dict_id, c.dict_id), coalesce(a.due_date, c.due_date), " +
+            "coalesce(a.words_count, 0) - coalesce(c.words_count, 0) " +
+            "from (select dict_id, next_train_date as due_date, count(*) as words_count from schedule " +
+            "      where status <> 0 and dict_id >= ?1 and dict_id < ?2 group by dict_id, next_train_date) a " +
+            "full join (select dict_id, due_date, words_count from dictionary_due_counters " +
+            "      where dict_id >= ?1 and dict_id < ?2) c " +
+            "on a.dict_id = c.dict_id and a.due_date = c.due_date " +
+            "where coalesce(a.words_count, 0) <> coalesce(c.words_count, 0) " +
+            "on conflict (dict_id, due_date) do update " +
+            "set words_count = dictionary_due_counters.words_count + excluded.words_count", nativeQuery = true)
+    int reconcile(long fromDictId, long toDictId);
+
+    @Modifying
+    @Query(value = "delete from DueWordsCounter c where c.wordsCount = 0")
+    int deleteEmpty();
+}
@@ -4,6 +4,7 @@ import com.example.trainingsystem.dto.ExtendedResultDto;
 import com.example.trainingsystem.model.Result;
 import com.example.trainingsystem.model.Training;
 import com.example.trainingsystem.model.Word;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
@@ -19,6 +20,13 @@ import java.util.Optional;
 @Repository
 public interface ResultRepository extends CrudRepository<Result, Long> {
 
+    /**
+     * Возвращает результаты тренировки вместе со словами одним запросом.
+     *
+     * @param training тренировка
+     * @return результаты тренировки
+     */
+    @EntityGraph(attributePaths = "word")
     List<Result> findAllByTraining(Training training);
 
     @Query(value = "select new com.example.trainingsystem.dto.ExtendedResultDto(" +
@@ -1,11 +1,20 @@
 package com.example.trainingsystem.repository;
 
+import com.example.trainingsystem.dto.ScheduleRowDto;
 import com.example.trainingsystem.model.Dictionary;
+import com.example.trainingsystem.model.LearningStage;
 import com.example.trainingsystem.model.Schedule;
+import com.example.trainingsystem.model.Training;
 import com.example.trainingsystem.model.Word;
 import com.example.trainingsystem.model.WordStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -17,6 +26,13 @@ import java.util.Optional;
  */
 @Repository
 public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
+    /**
+     * Возвращает расписание словаря вместе со словами одним запросом.
+     *
+     * @param dictionary словарь
+     * @return расписания слов словаря
+     */
+    @EntityGraph(attributePaths = "word")
     List<Schedule> findAllByDictionary(Dictionary dictionary);
 
     /**
@@ -39,10 +55,100 @@ public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
             "s.status <> ?2 and s.nextTrainDate < ?3 order by s.nextTrainDate") //and s.nextTrainDate < ?3
     List<Schedule> findWordsForRepeat(Dictionary dict, WordStatus newStatus, LocalDate currentDate);
 
-    @Query(value = "select s from schedule s where s.dictionary = ?1 and " +
-            "s.status = ?2 order by s.nextTrainDate")
-    List<Schedule> findWordsForNewTraining(Dictionary dict, WordStatus newStatus);
+    /**
+     * Возвращает не больше {@code limit} слов, подлежащих повторению, в порядке
+     * даты следующей тренировки. В отличие от {@link #findWordsForRepeat(Dictionary, WordStatus, LocalDate)} ограничение
+     * выполняется в БД, а загружаются только слова без расписаний.
+     *
+     * @param dict словарь пользователя
+     * @param newStatus статус, который нужно исключить
+     * @param currentDate текущая дата
+     * @param limit размер тренировки
+     * @return слова для повторной тренировки
+     */
+    @Query(value = "select w from schedule s join s.word w where s.dictionary = ?1 and " +
+            "s.status <> ?2 and s.nextTrainDate < ?3 order by s.nextTrainDate, s.id")
+    List<Word> findWordsForRepeat(Dictionary dict, WordStatus newStatus, LocalDate currentDate, Limit limit);
+
+    /**
+     * Возвращает не больше {@code limit} новых слов словаря в порядке даты добавления в расписание.
+     *
+     * @param dict словарь пользователя
+     * @param newStatus статус новых слов
+     * @param limit размер тренировки
+     * @return слова для тренировки новых слов
+     */
+    @Query(value = "select w from schedule s join s.word w where s.dictionary = ?1 and " +
+            "s.status = ?2 order by s.nextTrainDate, s.id")
+    List<Word> findWordsForNewTraining(Dictionary dict, WordStatus newStatus, Limit limit);
+
+    /**
+     * Страница расписания словаря по дате следующей тренировки, начиная после строки
+     * ({@code afterDate}, {@code afterId}). Фильтры по статусу и стадии изучения не применяются, если равны null.
+     *
+     * @param dict словарь
+     * @param status статус слова или null
+     * @param stage стадия изучения или null
+     * @param afterDate дата последней строки предыдущей страницы
+     * @param afterId идентификатор последней строки предыдущей страницы или 0
+     * @param limit размер страницы
+     * @return строки страницы
+     */
+    @Query(value = "select new com.example.trainingsystem.dto.ScheduleRowDto(s.id, w.name, s.nextTrainDate, s.lastTrainDate, " +
+            "s.totalTrainNumber, s.status, s.stage, s.learntDate) from schedule s join s.word w " +
+            "where s.dictionary = ?1 and (?2 is null or s.status = ?2) and (?3 is null or s.stage = ?3) " +
+            "and (s.nextTrainDate, s.id) > (?4, ?5) order by s.nextTrainDate, s.id")
+    List<ScheduleRowDto> findRowsByNextTrainDate(Dictionary dict, WordStatus status, LearningStage stage, LocalDate afterDate, long afterId, Limit limit);
+
+    /**
+     * Страница расписания словаря по алфавиту, начиная после строки ({@code afterWord}, {@code afterId}).
+     *
+     * @param afterWord слово последней строки предыдущей страницы или пустая строка
+     * @see #findRowsByNextTrainDate(Dictionary, WordStatus, LearningStage, LocalDate, long, Limit)
+     */
+    @Query(value = "select new com.example.trainingsystem.dto.ScheduleRowDto(s.id, w.name, s.nextTrainDate, s.lastTrainDate, " +
+            "s.totalTrainNumber, s.status, s.stage, s.learntDate) from schedule s join s.word w " +
+            "where s.dictionary = ?1 and (?2 is null or s.status = ?2) and (?3 is null or s.stage = ?3) " +
+            "and (w.name, s.id) > (?4, ?5) order by w.name, s.id")
+    List<ScheduleRowDto> findRowsByWord(Dictionary dict, WordStatus status, LearningStage stage, String afterWord, long afterId, Limit limit);
+
+    boolean existsByDictionaryAndStatusNotAndNextTrainDateBefore(Dictionary dict, WordStatus newStatus, LocalDate currentDate);
+
+    boolean existsByDictionaryAndStatus(Dictionary dict, WordStatus newStatus);
 
     Optional<Schedule> findByWord(Word word);
 
+    /**
+     * Загружает одним запросом расписания всех слов, по которым есть результаты тренировки,
+     * вместе со словом и словарём.
+     *
+     * @param training тренировка
+     * @return список расписаний слов тренировки
+     */
+    @Query(value = "select s from schedule s join fetch s.word join fetch s.dictionary d join fetch d.user " +
+            "where s.word.id in (select r.word.id from Result r where r.training = ?1)")
+    List<Schedule> findAllByTrainingResults(Training training);
+
+    /**
+     * Создаёт расписания для слов из диапазона идентификаторов ({@code fromWordId}, {@code toWordId}],
+     * у которых расписания ещё нет. Слова читаются по первичному ключу, наличие расписания
+     * проверяется по уникальному индексу schedule (word_id); расписание, созданное параллельно
+     * другой транзакцией, пропускается по конфликту с тем же индексом.
+     *
+     * @param fromWordId идентификатор слова, после которого начинается диапазон
+     * @param toWordId последний идентификатор слова диапазона
+     * @param nextTrainDate дата первой тренировки
+     * @param stage порядковый номер стадии изучения
+     * @param status порядковый номер статуса слова
+     * @return количество созданных расписаний
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "schedule"))
+    @Query(value = "insert into schedule (word_id, dict_id, next_train_date, total_number, stage, status) " +
+            "select w.id, w.dictionary_id, ?3, 0, ?4, ?5 from words w " +
+            "where w.id > ?1 and w.id <= ?2 " +
+            "and not exists (select 1 from schedule s where s.word_id = w.id) " +
+            "on conflict (word_id) do nothing", nativeQuery = true)
+    int insertMissing(long fromWordId, long toWordId, LocalDate nextTrainDate, int stage, int status);
+
 }
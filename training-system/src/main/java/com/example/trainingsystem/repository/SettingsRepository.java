@@ -1,11 +1,43 @@
 package com.example.trainingsystem.repository;
 
+import com.example.trainingsystem.config.HibernateCacheConfig;
+import com.example.trainingsystem.dto.ReminderRecipientDto;
 import com.example.trainingsystem.model.Settings;
 import com.example.trainingsystem.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.stream.Stream;
+
 @Repository
 public interface SettingsRepository extends CrudRepository<Settings, Long> {
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = HibernateCacheConfig.SETTINGS_BY_USER)
+    })
     Settings findFirstByUser(User user);
+
+    /**
+     * Читает через курсор БД пользователей интервала рассылки, указавших почту, в порядке идентификатора.
+     * Пользователи без предпочтительного часа распределяются по интервалам окна по остатку от деления
+     * идентификатора, пользователи с предпочтительным часом — по интервалам этого часа.
+     * Должен вызываться внутри транзакции, поток нужно закрыть после чтения.
+     *
+     * @param windowSlots число интервалов в окне рассылки
+     * @param slot номер текущего интервала в окне или -1, если текущий час вне окна
+     * @param hour текущий час
+     * @param slotsPerHour число интервалов в часе
+     * @param slotInHour номер текущего интервала в часе
+     * @return поток получателей напоминаний
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(value = "select new com.example.trainingsystem.dto.ReminderRecipientDto(s.user.id, s.email, s.locale) " +
+            "from Settings s where s.email is not null and " +
+            "((s.reminderHour is null and mod(s.user.id, ?1) = ?2) or " +
+            "(s.reminderHour = ?3 and mod(s.user.id, ?4) = ?5)) order by s.user.id")
+    Stream<ReminderRecipientDto> streamReminderRecipients(int windowSlots, int slot, int hour, int slotsPerHour, int slotInHour);
 }
@@ -1,6 +1,8 @@
 package com.example.trainingsystem.repository;
 
 import com.example.trainingsystem.model.User;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
@@ -12,4 +14,8 @@ public interface UserRepository extends CrudRepository<User, Long> {
 
     List<User> findAll();
 
+    @Modifying
+    @Query("update User u set u.password = ?2 where u.id = ?1")
+    void updatePassword(long id, String password);
+
 }
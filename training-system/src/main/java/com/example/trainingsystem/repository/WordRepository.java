@@ -1,11 +1,21 @@
 package com.example.trainingsystem.repository;
 
+import com.example.trainingsystem.dto.WordExportRowDto;
+import com.example.trainingsystem.dto.WordRowDto;
 import com.example.trainingsystem.model.Dictionary;
+import com.example.trainingsystem.model.LearningStage;
 import com.example.trainingsystem.model.Word;
+import com.example.trainingsystem.model.WordStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface WordRepository extends CrudRepository<Word, Long> {
@@ -13,4 +23,55 @@ public interface WordRepository extends CrudRepository<Word, Long> {
 
     List<Word> findAll();
 
+    @Query("select max(w.id) from Word w")
+    Long findMaxId();
+
+    @Query("select w.name from Word w where w.dictionary.id = ?1")
+    List<String> findNamesByDictionaryId(long dictId);
+
+    /**
+     * Страница слов словаря в порядке добавления, начиная после слова {@code afterId}.
+     * Фильтры по статусу и стадии изучения не применяются, если равны null.
+     *
+     * @param dictionary словарь
+     * @param status статус слова или null
+     * @param stage стадия изучения или null
+     * @param afterId идентификатор последнего слова предыдущей страницы или 0
+     * @param limit размер страницы
+     * @return строки страницы
+     */
+    @Query(value = "select new com.example.trainingsystem.dto.WordRowDto(w.id, w.name, w.translation, w.context, w.example) " +
+            "from Word w left join schedule s on s.word = w " +
+            "where w.dictionary = ?1 and (?2 is null or s.status = ?2) and (?3 is null or s.stage = ?3) " +
+            "and w.id > ?4 order by w.id")
+    List<WordRowDto> findRowsById(Dictionary dictionary, WordStatus status, LearningStage stage, long afterId, Limit limit);
+
+    /**
+     * Страница слов словаря по алфавиту, начиная после слова ({@code afterName}, {@code afterId}).
+     *
+     * @param afterName слово последней строки предыдущей страницы или пустая строка
+     * @param afterId идентификатор последней строки предыдущей страницы или 0
+     * @see #findRowsById(Dictionary, WordStatus, LearningStage, long, Limit)
+     */
+    @Query(value = "select new com.example.trainingsystem.dto.WordRowDto(w.id, w.name, w.translation, w.context, w.example) " +
+            "from Word w left join schedule s on s.word = w " +
+            "where w.dictionary = ?1 and (?2 is null or s.status = ?2) and (?3 is null or s.stage = ?3) " +
+            "and (w.name, w.id) > (?4, ?5) order by w.name, w.id")
+    List<WordRowDto> findRowsByName(Dictionary dictionary, WordStatus status, LearningStage stage, String afterName, long afterId, Limit limit);
+
+    /**
+     * Все слова словаря с состоянием расписания в порядке добавления.
+     * Строки читаются курсором пачками по 1000 и не попадают в контекст персистентности,
+     * поэтому поток нужно читать и закрывать внутри транзакции.
+     *
+     * @param dictId идентификатор словаря
+     * @return поток строк выгрузки
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(value = "select new com.example.trainingsystem.dto.WordExportRowDto(w.name, w.translation, w.context, w.example, " +
+            "w.addedDate, s.nextTrainDate, s.lastTrainDate, s.totalTrainNumber, s.stage, s.status, s.learntDate) " +
+            "from Word w left join schedule s on s.word = w " +
+            "where w.dictionary.id = ?1 order by w.id")
+    Stream<WordExportRowDto> streamExportRows(long dictId);
+
 }
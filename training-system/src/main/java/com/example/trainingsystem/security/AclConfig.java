@@ -1,5 +1,7 @@
 package com.example.trainingsystem.security;
 
+import com.example.trainingsystem.config.AppConfig;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -16,8 +18,6 @@ import org.springframework.security.access.expression.method.DefaultMethodSecuri
 import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
 
 import javax.sql.DataSource;
-import java.io.Serializable;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Configuration
 @EnableMethodSecurity
@@ -26,44 +26,20 @@ public class AclConfig {
     @Autowired
     private DataSource dataSource;
 
+    @Autowired
+    private AppConfig appConfig;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Кеш ACL, ограниченный {@code app.acl-cache.max-entries} записями
+     * со временем жизни {@code app.acl-cache.time-to-live}.
+     */
     @Bean
     public AclCache aclCache() {
-        ConcurrentHashMap<ObjectIdentity, Acl> cacheMap = new ConcurrentHashMap<>();
-
-        return new AclCache() {
-            @Override
-            public void evictFromCache(ObjectIdentity objectIdentity) {
-                cacheMap.remove(objectIdentity);
-            }
-
-            @Override
-            public void evictFromCache(Serializable primaryKey) {
-                cacheMap.entrySet().removeIf(entry -> primaryKey.equals(entry.getKey().getIdentifier()));
-            }
-
-            @Override
-            public MutableAcl getFromCache(ObjectIdentity objectIdentity) {
-                return (MutableAcl) cacheMap.get(objectIdentity);
-            }
-
-            @Override
-            public MutableAcl getFromCache(Serializable primaryKey) {
-                return (MutableAcl) cacheMap.values().stream()
-                        .filter(acl -> acl.getObjectIdentity().equals(primaryKey))
-                        .findFirst()
-                        .orElse(null);
-            }
-
-            @Override
-            public void putInCache(MutableAcl acl) {
-                cacheMap.put(acl.getObjectIdentity(), acl);
-            }
-
-            @Override
-            public void clearCache() {
-                cacheMap.clear();
-            }
-        };
+        AppConfig.AclCache config = appConfig.getAclCache();
+        return new EhcacheAclCache(config.getMaxEntries(), config.getTimeToLive(), meterRegistry);
     }
 
     @Bean
@@ -99,8 +75,27 @@ public class AclConfig {
     }
 
 
+    /**
+     * Сервис ACL с запросами под схему PostgreSQL: флаги в таблицах ACL хранятся числами,
+     * идентификатор объекта — строкой, ключи выдаются последовательностями serial.
+     */
     @Bean
     public JdbcMutableAclService aclService() {
-        return new JdbcMutableAclService(dataSource, lookupStrategy(), aclCache());
+        JdbcMutableAclService service = new JdbcMutableAclService(dataSource, lookupStrategy(), aclCache());
+        service.setClassIdentityQuery("select currval(pg_get_serial_sequence('acl_class', 'id'))");
+        service.setSidIdentityQuery("select currval(pg_get_serial_sequence('acl_sid', 'id'))");
+        service.setSidPrimaryKeyQuery("select id from acl_sid where principal = cast(? as integer) and sid = ?");
+        service.setInsertSidSql("insert into acl_sid (principal, sid) values (cast(? as integer), ?)");
+        service.setObjectIdentityPrimaryKeyQuery("select acl_object_identity.id from acl_object_identity, acl_class "
+                + "where acl_object_identity.object_id_class = acl_class.id and acl_class.class = ? "
+                + "and acl_object_identity.object_id_identity = cast(? as varchar)");
+        service.setInsertObjectIdentitySql("insert into acl_object_identity "
+                + "(object_id_class, object_id_identity, owner_sid, entries_inheriting) values (?, ?, ?, cast(? as integer))");
+        service.setUpdateObjectIdentity("update acl_object_identity set parent_object = ?, owner_sid = ?, "
+                + "entries_inheriting = cast(? as integer) where id = ?");
+        service.setInsertEntrySql("insert into acl_entry "
+                + "(acl_object_identity, ace_order, sid, mask, granting, audit_success, audit_failure) "
+                + "values (?, ?, ?, ?, cast(? as integer), cast(? as integer), cast(? as integer))");
+        return service;
     }
 }
\ No newline at end of file
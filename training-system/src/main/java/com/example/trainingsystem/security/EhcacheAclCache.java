@@ -0,0 +1,133 @@
+package com.example.trainingsystem.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.CacheEventListenerConfigurationBuilder;
+import org.ehcache.config.builders.CacheManagerBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.event.CacheEvent;
+import org.ehcache.event.CacheEventListener;
+import org.ehcache.event.EventType;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.acls.model.AclCache;
+import org.springframework.security.acls.model.MutableAcl;
+import org.springframework.security.acls.model.ObjectIdentity;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кеш ACL на Ehcache 3 с ограничением по числу записей и времени жизни.
+ * <p>
+ * Основной ключ — {@link ObjectIdentity}. Для поиска по первичному ключу ACL (идентификатор
+ * в {@code acl_object_identity}) ведётся вторичный индекс «первичный ключ → ObjectIdentity»,
+ * который очищается синхронно с вытеснением, истечением и удалением записей кеша.
+ * Попадания, промахи и вытеснения публикуются в метриках {@code acl.cache.*}.
+ * ACL хранятся в куче по ссылке, поэтому сериализация и восстановление стратегий не нужны.
+ */
+public class EhcacheAclCache implements AclCache, DisposableBean {
+    private static final String CACHE_NAME = "acl";
+
+    private final CacheManager cacheManager;
+    private final Cache<ObjectIdentity, MutableAcl> cache;
+
+    /** Первичный ключ ACL → ObjectIdentity */
+    private final Map<Serializable, ObjectIdentity> primaryKeyIndex = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    /**
+     * @param maxEntries максимальное число ACL в кеше
+     * @param timeToLive время жизни записи
+     * @param meterRegistry реестр метрик
+     */
+    public EhcacheAclCache(long maxEntries, Duration timeToLive, MeterRegistry meterRegistry) {
+        this.hits = Counter.builder("acl.cache.gets").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("acl.cache.gets").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("acl.cache.evictions").register(meterRegistry);
+
+        CacheEventListener<ObjectIdentity, MutableAcl> indexCleaner = this::onRemoved;
+        CacheEventListenerConfigurationBuilder listener = CacheEventListenerConfigurationBuilder
+                .newEventListenerConfiguration(indexCleaner, EventType.EVICTED, EventType.EXPIRED, EventType.REMOVED)
+                .synchronous()
+                .unordered();
+        this.cacheManager = CacheManagerBuilder.newCacheManagerBuilder()
+                .withCache(CACHE_NAME, CacheConfigurationBuilder
+                        .newCacheConfigurationBuilder(ObjectIdentity.class, MutableAcl.class,
+                                ResourcePoolsBuilder.heap(maxEntries))
+                        .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive))
+                        .withService(listener))
+                .build(true);
+        this.cache = cacheManager.getCache(CACHE_NAME, ObjectIdentity.class, MutableAcl.class);
+
+        Gauge.builder("acl.cache.size", primaryKeyIndex, Map::size).register(meterRegistry);
+    }
+
+    @Override
+    public void evictFromCache(Serializable primaryKey) {
+        ObjectIdentity objectIdentity = primaryKeyIndex.get(primaryKey);
+        if (objectIdentity != null) {
+            cache.remove(objectIdentity);
+        }
+    }
+
+    @Override
+    public void evictFromCache(ObjectIdentity objectIdentity) {
+        cache.remove(objectIdentity);
+    }
+
+    @Override
+    public MutableAcl getFromCache(ObjectIdentity objectIdentity) {
+        return count(cache.get(objectIdentity));
+    }
+
+    @Override
+    public MutableAcl getFromCache(Serializable primaryKey) {
+        ObjectIdentity objectIdentity = primaryKeyIndex.get(primaryKey);
+        return count(objectIdentity != null ? cache.get(objectIdentity) : null);
+    }
+
+    @Override
+    public void putInCache(MutableAcl acl) {
+        if (acl.getParentAcl() instanceof MutableAcl parent) {
+            putInCache(parent);
+        }
+        primaryKeyIndex.put(acl.getId(), acl.getObjectIdentity());
+        cache.put(acl.getObjectIdentity(), acl);
+    }
+
+    @Override
+    public void clearCache() {
+        cache.clear();
+        primaryKeyIndex.clear();
+    }
+
+    @Override
+    public void destroy() {
+        cacheManager.close();
+    }
+
+    private MutableAcl count(MutableAcl acl) {
+        (acl != null ? hits : misses).increment();
+        return acl;
+    }
+
+    private void onRemoved(CacheEvent<? extends ObjectIdentity, ? extends MutableAcl> event) {
+        MutableAcl acl = event.getOldValue();
+        if (acl != null) {
+            primaryKeyIndex.remove(acl.getId(), event.getKey());
+        }
+        if (event.getType() != EventType.REMOVED) {
+            evictions.increment();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.trainingsystem.security;
 
+import com.example.trainingsystem.config.AppConfig;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -26,15 +27,18 @@ import org.springframework.security.web.SecurityFilterChain;
 public class SecurityConfig {
 
     private final UserDetailSecurityService userService;
+    private final AppConfig appConfig;
 
     /**
      * Сервис, предоставляющий данные о пользователях для Spring Security.
      *
      * @param userService бин пользовательского сервиса безопасности
+     * @param appConfig настройки приложения
      */
     @Autowired
-    public SecurityConfig(UserDetailSecurityService userService) {
+    public SecurityConfig(UserDetailSecurityService userService, AppConfig appConfig) {
         this.userService = userService;
+        this.appConfig = appConfig;
     }
 
     /**
@@ -81,6 +85,10 @@ public class SecurityConfig {
     /**
      * Менеджер аутентификации, который использует {@link UserDetailSecurityService}
      * и {@link BCryptPasswordEncoder} для проверки паролей.
+     * <p>
+     * Так как {@link UserDetailSecurityService} реализует {@code UserDetailsPasswordService},
+     * хеш со стоимостью ниже настроенной пересчитывается и сохраняется после успешного входа.
+     * </p>
      *
      * @param http контекст безопасности
      * @return бин менеджера аутентификации
@@ -97,12 +105,12 @@ public class SecurityConfig {
     }
 
     /**
-     * Кодировщик паролей на основе BCrypt.
+     * Кодировщик паролей на основе BCrypt со стоимостью {@code app.passwords.bcrypt-strength}.
      *
      * @return бин {@link PasswordEncoder}
      */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(appConfig.getPasswords().getBcryptStrength());
     }
 }
@@ -1,12 +1,22 @@
 package com.example.trainingsystem.security;
 
+import com.example.trainingsystem.config.AppConfig;
 import com.example.trainingsystem.model.User;
 import com.example.trainingsystem.repository.UserRepository;
+import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.CacheManagerBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Сервис интеграции пользовательских данных с Spring Security.
@@ -16,24 +26,75 @@ import org.springframework.stereotype.Service;
  * </p>
  *
  * <p>Находит пользователя по имени и адаптирует его в {@link UserDetails} через {@link UserSecurity}.</p>
+ *
+ * <p>Реализует {@link UserDetailsPasswordService}: после успешного входа с хешем устаревшей
+ * стоимости Spring Security передаёт сюда новый хеш, и он сохраняется в БД.</p>
+ *
+ * <p>Загруженные пользователи кешируются на {@code app.user-cache.time-to-live}, чтобы вход
+ * по форме и по cookie "запомнить меня" не обращался к БД каждый раз. При изменении
+ * или удалении пользователя запись нужно удалить из кеша через {@link #evict(String)}.</p>
  */
 @Service
-public class UserDetailSecurityService implements UserDetailsService {
+public class UserDetailSecurityService implements UserDetailsService, UserDetailsPasswordService, DisposableBean {
+    private static final String CACHE_NAME = "users";
 
     private final UserRepository repository;
+    private final CacheManager cacheManager;
+
+    /** Имя пользователя → данные для Spring Security */
+    private final Cache<String, UserSecurity> cache;
 
     @Autowired
-    public UserDetailSecurityService(UserRepository repository) {
+    public UserDetailSecurityService(UserRepository repository, AppConfig appConfig) {
         this.repository = repository;
+        AppConfig.UserCache config = appConfig.getUserCache();
+        this.cacheManager = CacheManagerBuilder.newCacheManagerBuilder()
+                .withCache(CACHE_NAME, CacheConfigurationBuilder
+                        .newCacheConfigurationBuilder(String.class, UserSecurity.class,
+                                ResourcePoolsBuilder.heap(config.getMaxEntries()))
+                        .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(config.getTimeToLive())))
+                .build(true);
+        this.cache = cacheManager.getCache(CACHE_NAME, String.class, UserSecurity.class);
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        UserSecurity cached = cache.get(username);
+        if (cached != null) {
+            return cached;
+        }
         User user = repository.findByName(username);
         if (user == null) {
             throw new UsernameNotFoundException(String.format("user %s not found", username));
         }
-        return new UserSecurity(user);
+        UserSecurity userSecurity = new UserSecurity(user);
+        cache.put(username, userSecurity);
+        return userSecurity;
+    }
+
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = ((UserSecurity) userDetails).getUser();
+        repository.updatePassword(user.getId(), newPassword);
+        evict(user.getName());
+        user.setPassword(newPassword);
+        return userDetails;
+    }
+
+    /**
+     * Удаляет пользователя из кеша. Вызывается после изменения или удаления пользователя.
+     *
+     * @param username имя пользователя
+     */
+    public void evict(String username) {
+        if (username != null) {
+            cache.remove(username);
+        }
     }
 
+    @Override
+    public void destroy() {
+        cacheManager.close();
+    }
 }
@@ -5,7 +5,6 @@ import lombok.Data;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import java.util.Collection;
 import java.util.HashSet;
@@ -40,9 +39,12 @@ public class UserSecurity implements UserDetails {
         return authorities;
     }
 
+    /**
+     * @return хеш BCrypt, хранящийся в БД
+     */
     @Override
     public String getPassword() {
-        return new BCryptPasswordEncoder().encode(user.getPassword());
+        return user.getPassword();
     }
 
     @Override
@@ -1,45 +1,121 @@
 package com.example.trainingsystem.service;
 
-import com.example.trainingsystem.model.Schedule;
-import com.example.trainingsystem.model.Word;
+import com.example.trainingsystem.config.AppConfig;
+import com.example.trainingsystem.model.BackfillProgress;
+import com.example.trainingsystem.model.LearningStage;
+import com.example.trainingsystem.model.WordStatus;
+import com.example.trainingsystem.repository.BackfillProgressRepository;
 import com.example.trainingsystem.repository.ScheduleRepository;
 import com.example.trainingsystem.repository.WordRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Сервисный компонент для автоматизации внесения изменений в БД.
  */
 @Service
+@Log4j2
 public class DataService {
+    /** Имя задачи в таблице backfill_progress */
+    static final String SCHEDULE_BACKFILL = "schedule-new-words";
+
     private final WordRepository wordRepository;
     private final ScheduleRepository scheduleRepository;
+    private final BackfillProgressRepository progressRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AppConfig.Backfill config;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong lastWordId = new AtomicLong();
+    private final AtomicLong maxWordId = new AtomicLong();
+    private final Counter inserted;
+    private final Timer chunkTimer;
 
-    public DataService(WordRepository repository, ScheduleRepository scheduleRepository) {
+    @Autowired
+    public DataService(WordRepository repository, ScheduleRepository scheduleRepository, BackfillProgressRepository progressRepository,
+                       PlatformTransactionManager transactionManager, AppConfig appConfig, MeterRegistry meterRegistry) {
         this.wordRepository = repository;
         this.scheduleRepository = scheduleRepository;
+        this.progressRepository = progressRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.config = appConfig.getBackfill();
+        this.inserted = Counter.builder("schedule.backfill.inserted").register(meterRegistry);
+        this.chunkTimer = Timer.builder("schedule.backfill.chunk").register(meterRegistry);
+        Gauge.builder("schedule.backfill.word.id", lastWordId, AtomicLong::get).tag("bound", "last").register(meterRegistry);
+        Gauge.builder("schedule.backfill.word.id", maxWordId, AtomicLong::get).tag("bound", "max").register(meterRegistry);
     }
 
     /**
-     * Проходит по всем словам в базе и создаёт новое расписание
-     * для каждого слова, у которого оно ещё не задано.
-     *
-     * <p>Метод обёрнут в новую транзакцию, чтобы обеспечить атомарность.</p>
+     * Создаёт новое расписание для каждого слова, у которого оно ещё не задано.
+     * <p>
+     * Слова обрабатываются диапазонами по {@code app.backfill.chunk-size} идентификаторов до наибольшего
+     * идентификатора на момент запуска; каждый диапазон — один запрос insert ... select ... where not exists
+     * в отдельной короткой транзакции, с паузой {@code app.backfill.pause} между диапазонами. Вместе с диапазоном
+     * в backfill_progress записывается последний обработанный идентификатор, поэтому прерванное заполнение
+     * продолжается с места остановки; после завершения запись удаляется. Повторная обработка диапазона
+     * не создаёт дублей (уникальный индекс schedule (word_id)), записанный ход не уменьшается, поэтому
+     * заполнение, запущенное сразу на нескольких экземплярах приложения, тоже безопасно. Слова,
+     * добавленные во время заполнения, получают расписание при создании.
+     * Новые слова не учитываются в счётчиках {@link DueCounterService}, поэтому счётчики не меняются.
+     * </p>
+     * <p>Метрики: {@code schedule.backfill.inserted}, {@code schedule.backfill.chunk},
+     * {@code schedule.backfill.word.id} (последний обработанный и наибольший идентификаторы).</p>
      *
-     * @throws RuntimeException если сохранение расписания завершится ошибкой
+     * @return количество созданных расписаний
+     * @throws IllegalStateException если заполнение уже идёт
+     * @throws InterruptedException если поток прерван; обработанные диапазоны сохраняются
      */
-    @Transactional(readOnly = false, propagation = Propagation.REQUIRES_NEW)
-    public void fillScheduleWithNewWords() {
-        List<Word> wordsList = wordRepository.findAll();
-        for (Word word : wordsList) {
-            if (scheduleRepository.findByWord(word).isEmpty()) {
-                Schedule schedule = new Schedule(word);
-                scheduleRepository.save(schedule);
+    public long fillScheduleWithNewWords() throws InterruptedException {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Schedule backfill is already running");
+        }
+        try {
+            Long maxId = wordRepository.findMaxId();
+            if (maxId == null) return 0;
+            long from = progressRepository.findById(SCHEDULE_BACKFILL).map(BackfillProgress::getLastId).orElse(0L);
+            if (from > 0) {
+                log.info("Resuming schedule backfill after word " + from);
+            }
+            lastWordId.set(from);
+            maxWordId.set(maxId);
+            long start = System.nanoTime();
+            long total = 0;
+            while (from < maxId) {
+                long chunkFrom = from;
+                long chunkTo = Math.min(from + config.getChunkSize(), maxId);
+                Integer count = chunkTimer.record(() -> transactionTemplate.execute(status -> {
+                    int created = scheduleRepository.insertMissing(chunkFrom, chunkTo, LocalDate.now(),
+                            LearningStage.STAGE1.ordinal(), WordStatus.NEW.ordinal());
+                    progressRepository.saveProgress(SCHEDULE_BACKFILL, chunkTo, LocalDateTime.now());
+                    return created;
+                }));
+                int created = count == null ? 0 : count;
+                inserted.increment(created);
+                total += created;
+                from = chunkTo;
+                lastWordId.set(from);
+                if (!config.getPause().isZero() && from < maxId) {
+                    Thread.sleep(config.getPause().toMillis());
+                }
             }
+            progressRepository.deleteById(SCHEDULE_BACKFILL);
+            log.info("Schedule backfill created " + total + " schedules up to word " + maxId
+                    + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            return total;
+        } finally {
+            running.set(false);
         }
-
     }
 }
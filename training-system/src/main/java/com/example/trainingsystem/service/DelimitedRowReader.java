@@ -0,0 +1,139 @@
+package com.example.trainingsystem.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Потоковое чтение строк CSV/TSV: в памяти держится только текущая строка.
+ * <p>
+ * Поля разделяются заданным символом. Поле в двойных кавычках может содержать разделитель
+ * и перевод строки, кавычка внутри него записывается дважды. Строки разделяются
+ * {@code \n}, {@code \r\n} или одиночным {@code \r}, пустые строки пропускаются.
+ * Метка порядка байтов (BOM) в начале файла отбрасывается.
+ */
+class DelimitedRowReader {
+    private final Reader reader;
+    private final char delimiter;
+    private final int maxFieldLength;
+    private int lineNumber = 1;
+    private int rowLineNumber;
+    private int pending = -2;
+    private boolean started;
+
+    /**
+     * @param reader источник, желательно буферизованный
+     * @param delimiter разделитель полей
+     * @param maxFieldLength максимальная длина поля, защищает от незакрытой кавычки в большом файле
+     */
+    DelimitedRowReader(Reader reader, char delimiter, int maxFieldLength) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+        this.maxFieldLength = maxFieldLength;
+    }
+
+    /**
+     * @return поля следующей строки или null в конце файла
+     * @throws IllegalArgumentException если поле длиннее допустимого или кавычка не закрыта
+     */
+    List<String> next() throws IOException {
+        if (!started) {
+            started = true;
+            int first = read();
+            if (first != '\uFEFF') unread(first);
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStarted = false;
+        rowLineNumber = lineNumber;
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                if (quoted) {
+                    throw new IllegalArgumentException("unclosed quote in line " + rowLineNumber);
+                }
+                if (!fieldStarted && fields.isEmpty()) return null;
+                fields.add(field.toString());
+                return fields;
+            }
+            if (quoted) {
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        append(field, '"');
+                        continue;
+                    }
+                    quoted = false;
+                    unread(next);
+                    continue;
+                }
+                if (c == '\r') {
+                    //перевод строки внутри поля сохраняется как есть, но учитывается в номере строки
+                    append(field, '\r');
+                    int next = read();
+                    if (next != '\n') {
+                        lineNumber++;
+                        unread(next);
+                        continue;
+                    }
+                    c = '\n';
+                }
+                if (c == '\n') lineNumber++;
+                append(field, (char) c);
+                continue;
+            }
+            if (c == '\r') {
+                int next = read();
+                if (next != '\n') unread(next);
+                c = '\n';
+            }
+            if (c == '\n') {
+                lineNumber++;
+                if (!fieldStarted && fields.isEmpty()) {
+                    rowLineNumber = lineNumber;
+                    continue;
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            fieldStarted = true;
+            if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else {
+                append(field, (char) c);
+            }
+        }
+    }
+
+    /**
+     * @return номер строки файла, с которой началась последняя прочитанная строка
+     */
+    int getRowLineNumber() {
+        return rowLineNumber;
+    }
+
+    private void append(StringBuilder field, char c) {
+        if (field.length() >= maxFieldLength) {
+            throw new IllegalArgumentException("field too long in line " + rowLineNumber);
+        }
+        field.append(c);
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pending = c;
+    }
+}
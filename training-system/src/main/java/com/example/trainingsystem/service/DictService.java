@@ -3,20 +3,24 @@ package com.example.trainingsystem.service;
 import com.example.trainingsystem.model.Dictionary;
 import com.example.trainingsystem.repository.DictionaryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.access.prepost.PostFilter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.acls.domain.BasePermission;
 import org.springframework.security.acls.domain.GrantedAuthoritySid;
 import org.springframework.security.acls.domain.ObjectIdentityImpl;
 import org.springframework.security.acls.domain.PrincipalSid;
+import org.springframework.security.acls.domain.SidRetrievalStrategyImpl;
 import org.springframework.security.acls.model.MutableAcl;
 import org.springframework.security.acls.model.MutableAclService;
 import org.springframework.security.acls.model.ObjectIdentity;
 import org.springframework.security.acls.model.Sid;
+import org.springframework.security.acls.model.SidRetrievalStrategy;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -31,6 +35,9 @@ public class DictService {
 
     private final DictionaryRepository repository;
 
+    /** Те же идентификаторы пользователя (sid), что использует AclPermissionEvaluator */
+    private final SidRetrievalStrategy sidRetrievalStrategy = new SidRetrievalStrategyImpl();
+
     /**
      * Создаёт сервис управления словарями с поддержкой ACL.
      *
@@ -69,14 +76,43 @@ public class DictService {
     }
 
     /**
-     * Возвращает список всех словарей, доступных текущему пользователю
+     * Проверяет, что словарь принадлежит текущему пользователю.
+     * Используется в выражениях {@code @PreAuthorize} вместе с {@code hasPermission}:
+     * владельцу записи ACL на собственный словарь не выдаются.
+     *
+     * @param dictId идентификатор словаря
+     * @return true, если словарь есть и его владелец — текущий пользователь
+     */
+    @Transactional(readOnly = true)
+    public boolean isOwner(long dictId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && repository.isOwnedBy(dictId, authentication.getName());
+    }
+
+    /**
+     * Возвращает страницу словарей, доступных текущему пользователю
      * согласно его ACL-разрешениям.
+     * <p>
+     * ACL проверяются в запросе к БД, поэтому загружаются только видимые словари,
+     * а не все словари всех пользователей.
+     * </p>
      *
-     * @return список словарей, к которым пользователь имеет {@code READ}-доступ
+     * @param pageable номер и размер страницы
+     * @return страница словарей, к которым пользователь имеет {@code READ}-доступ
      */
-    @PostFilter("hasPermission(filterObject, 'READ')")
-    //@PostFilter("filterObject.owner == authentication.name")
-    public List<Dictionary> getAll() {
-        return repository.findAll();
+    @Transactional(readOnly = true)
+    public Page<Dictionary> getVisible(Pageable pageable) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String username = null;
+        List<String> authorities = new ArrayList<>();
+        for (Sid sid : sidRetrievalStrategy.getSids(authentication)) {
+            if (sid instanceof PrincipalSid principal) {
+                username = principal.getPrincipal();
+            } else if (sid instanceof GrantedAuthoritySid authority) {
+                authorities.add(authority.getGrantedAuthority());
+            }
+        }
+        return repository.findVisible(Dictionary.class.getName(), BasePermission.READ.getMask(),
+                username, String.join(DictionaryRepository.AUTHORITY_SEPARATOR, authorities), pageable);
     }
 }
@@ -0,0 +1,153 @@
+package com.example.trainingsystem.service;
+
+import com.example.trainingsystem.config.AppConfig;
+import com.example.trainingsystem.dto.DictionaryDueCountDto;
+import com.example.trainingsystem.dto.DueWordsCountDto;
+import com.example.trainingsystem.model.Dictionary;
+import com.example.trainingsystem.model.DueWordsCounter;
+import com.example.trainingsystem.model.Schedule;
+import com.example.trainingsystem.model.WordStatus;
+import com.example.trainingsystem.repository.DictionaryRepository;
+import com.example.trainingsystem.repository.DueWordsCounterRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Сервис счётчиков слов к повторению по словарям ({@link DueWordsCounter}).
+ * <p>
+ * Счётчики обновляются в той же транзакции, что и расписание, поэтому количество
+ * слов к повторению читается за O(словарей), без просмотра таблицы schedule.
+ * Периодическая сверка исправляет расхождения, если расписание менялось в обход сервиса.
+ */
+@Service
+@Log4j2
+public class DueCounterService {
+    private final DueWordsCounterRepository counterRepository;
+    private final DictionaryRepository dictRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AppConfig.Counters config;
+
+    @Autowired
+    public DueCounterService(DueWordsCounterRepository counterRepository, DictionaryRepository dictRepository, PlatformTransactionManager transactionManager, AppConfig appConfig) {
+        this.counterRepository = counterRepository;
+        this.dictRepository = dictRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.config = appConfig.getCounters();
+    }
+
+    /**
+     * @return новый набор изменений счётчиков
+     */
+    public Changes changes() {
+        return new Changes();
+    }
+
+    /**
+     * Применяет накопленные изменения к счётчикам.
+     * Вызывается в транзакции, изменяющей расписание.
+     *
+     * @param changes изменения счётчиков
+     */
+    @Transactional(readOnly = false, propagation = Propagation.MANDATORY)
+    public void apply(Changes changes) {
+        //строки упорядочены, чтобы параллельные транзакции блокировали счётчики в одном порядке
+        List<Map.Entry<DueWordsCounter.Key, Long>> rows = changes.deltas.entrySet().stream()
+                .filter(entry -> entry.getValue() != 0)
+                .sorted(Map.Entry.comparingByKey(Comparator.comparingLong(DueWordsCounter.Key::getDictionaryId)
+                        .thenComparing(DueWordsCounter.Key::getDueDate)))
+                .toList();
+        if (rows.isEmpty()) return;
+        counterRepository.addToCounters(
+                rows.stream().map(row -> row.getKey().getDictionaryId()).toArray(Long[]::new),
+                rows.stream().map(row -> row.getKey().getDueDate()).toArray(LocalDate[]::new),
+                rows.stream().map(Map.Entry::getValue).toArray(Long[]::new));
+    }
+
+    /**
+     * Возвращает количество слов к повторению по словарям.
+     *
+     * @param dictionaries словари
+     * @return идентификатор словаря → количество слов к повторению
+     */
+    public Map<Long, Long> countDueWords(Collection<Dictionary> dictionaries) {
+        if (dictionaries.isEmpty()) return Map.of();
+        List<Long> dictIds = dictionaries.stream().map(Dictionary::getId).toList();
+        Map<Long, Long> counts = new HashMap<>();
+        for (DictionaryDueCountDto count : counterRepository.sumByDictionaries(dictIds, LocalDate.now())) {
+            counts.put(count.getDictionaryId(), count.getWordsCount());
+        }
+        return counts;
+    }
+
+    /**
+     * Возвращает количество слов к повторению по словарям группы пользователей.
+     *
+     * @param userIds идентификаторы пользователей
+     * @param currentDate текущая дата
+     * @return количество слов к повторению по словарям, где оно больше нуля
+     */
+    public List<DueWordsCountDto> countDueWordsByUsers(Collection<Long> userIds, LocalDate currentDate) {
+        return counterRepository.sumByUsers(userIds, currentDate);
+    }
+
+    /**
+     * Сверяет счётчики с таблицей schedule диапазонами по {@code app.counters.reconcile-chunk}
+     * словарей, каждый диапазон в отдельной транзакции, и удаляет нулевые счётчики.
+     *
+     * @return количество исправленных счётчиков
+     */
+    @Scheduled(cron = "${app.counters.reconcile-cron:0 30 3 * * ?}")
+    public int reconcile() {
+        Long maxId = dictRepository.findMaxId();
+        if (maxId == null) return 0;
+        int repaired = 0;
+        for (long from = 0; from <= maxId; from += config.getReconcileChunk()) {
+            long chunkFrom = from;
+            long chunkTo = from + config.getReconcileChunk();
+            Integer fixed = transactionTemplate.execute(status -> counterRepository.reconcile(chunkFrom, chunkTo));
+            repaired += fixed == null ? 0 : fixed;
+        }
+        transactionTemplate.executeWithoutResult(status -> counterRepository.deleteEmpty());
+        if (repaired > 0) {
+            log.warn("Due words counters drift repaired: " + repaired);
+        }
+        return repaired;
+    }
+
+    /**
+     * Изменения счётчиков, накопленные при изменении расписания.
+     * Изменения по одному словарю и дате суммируются, все изменения записываются одним запросом.
+     */
+    public static class Changes {
+        private final Map<DueWordsCounter.Key, Long> deltas = new HashMap<>();
+
+        /**
+         * Учитывает расписание в его текущем состоянии до изменения.
+         */
+        public void remove(Schedule schedule) {
+            add(schedule, -1);
+        }
+
+        /**
+         * Учитывает расписание в его новом состоянии.
+         */
+        public void add(Schedule schedule) {
+            add(schedule, 1);
+        }
+
+        private void add(Schedule schedule, long delta) {
+            if (schedule.getStatus() == WordStatus.NEW) return;
+            DueWordsCounter.Key key = new DueWordsCounter.Key(schedule.getDictionary().getId(), schedule.getNextTrainDate());
+            deltas.merge(key, delta, Long::sum);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.trainingsystem.service;
+
+import com.example.lettermodels.RepeatWordsLetter;
+import com.example.lettermodels.RepeatWordsLetterCodec;
+import com.example.trainingsystem.config.AppConfig;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Отправка писем-напоминаний в RabbitMQ с подтверждениями брокера (publisher confirms).
+ * <p>
+ * Письма отправляются пачками через один канал, подтверждения приходят асинхронно
+ * и сопоставляются с письмами по идентификатору корреляции. Число неподтверждённых писем
+ * ограничено {@code app.publisher.max-unconfirmed}: при превышении отправка ждёт подтверждений.
+ * Отклонённые брокером или не доставленные в очередь письма отправляются повторно
+ * до {@code app.publisher.max-attempts} раз, после чего учитываются как потерянные.
+ */
+@Component
+@Log4j2
+public class LetterPublisher {
+    private static final String MAIN_EXCHANGE_NAME = "main-exchange";
+    private static final String REPEAT_LETTER_KEY = "notification.repeat";
+
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectWriter letterWriter;
+    private final AppConfig.Publisher config;
+    private final Semaphore unconfirmed;
+
+    /** Письма, ожидающие подтверждения: идентификатор корреляции → письмо */
+    private final Map<String, PendingLetter> outstanding = new ConcurrentHashMap<>();
+
+    /** Письма, которые нужно отправить повторно */
+    private final Queue<PendingLetter> retries = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong confirmedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    @Autowired
+    public LetterPublisher(RabbitTemplate rabbitTemplate, ObjectMapper objectMapper, AppConfig appConfig) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.letterWriter = objectMapper.writerFor(RepeatWordsLetter.class);
+        this.config = appConfig.getPublisher();
+        this.unconfirmed = new Semaphore(config.getMaxUnconfirmed());
+    }
+
+    /**
+     * Отправляет пачку писем через один канал, не дожидаясь подтверждений.
+     *
+     * @param letters письма
+     * @throws InterruptedException если поток прерван во время ожидания подтверждений
+     */
+    public void publish(List<RepeatWordsLetter> letters) throws InterruptedException {
+        List<PendingLetter> batch = letters.stream().map(letter -> new PendingLetter(letter, 1)).toList();
+        send(batch);
+    }
+
+    /**
+     * Ждёт подтверждения всех отправленных писем, повторно отправляя отклонённые.
+     *
+     * @return true, если все письма подтверждены за {@code app.publisher.confirm-timeout}
+     * @throws InterruptedException если поток прерван во время ожидания
+     */
+    public boolean awaitConfirms() throws InterruptedException {
+        long deadline = System.nanoTime() + config.getConfirmTimeout().toNanos();
+        while (true) {
+            if (!retries.isEmpty()) {
+                List<PendingLetter> batch = new ArrayList<>();
+                PendingLetter letter;
+                while ((letter = retries.poll()) != null) {
+                    batch.add(letter);
+                }
+                send(batch);
+                continue;
+            }
+            if (outstanding.isEmpty()) return true;
+            if (System.nanoTime() > deadline) {
+                log.warn("Confirms not received for " + outstanding.size() + " repeat letters");
+                return false;
+            }
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    /**
+     * @return количество писем, подтверждённых брокером
+     */
+    public long getConfirmedCount() {
+        return confirmedCount.get();
+    }
+
+    /**
+     * @return количество писем, которые не удалось отправить
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * @return количество писем, ожидающих подтверждения
+     */
+    public int getOutstandingCount() {
+        return outstanding.size();
+    }
+
+    private void send(List<PendingLetter> batch) throws InterruptedException {
+        InterruptedException interrupted = rabbitTemplate.invoke(operations -> {
+            for (PendingLetter pending : batch) {
+                try {
+                    if (!unconfirmed.tryAcquire(config.getConfirmTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                        fail(pending, "too many unconfirmed letters");
+                        continue;
+                    }
+                } catch (InterruptedException e) {
+                    return e;
+                }
+                CorrelationData correlation = new CorrelationData(UUID.randomUUID().toString());
+                outstanding.put(correlation.getId(), pending);
+                correlation.getFuture().whenComplete((confirm, e) -> {
+                    boolean delivered = e == null && confirm.isAck() && correlation.getReturned() == null;
+                    onConfirm(correlation.getId(), delivered, e != null ? e.getMessage()
+                            : correlation.getReturned() != null ? "returned: " + correlation.getReturned().getReplyText()
+                            : confirm.getReason());
+                });
+                try {
+                    operations.send(MAIN_EXCHANGE_NAME, REPEAT_LETTER_KEY, toMessage(pending.letter()), correlation);
+                } catch (JsonProcessingException | RuntimeException e) {
+                    if (outstanding.remove(correlation.getId()) != null) {
+                        unconfirmed.release();
+                        fail(pending, e.getMessage());
+                    }
+                }
+            }
+            return null;
+        });
+        if (interrupted != null) {
+            throw interrupted;
+        }
+    }
+
+    private void onConfirm(String correlationId, boolean delivered, String reason) {
+        PendingLetter pending = outstanding.get(correlationId);
+        if (pending == null) return;
+        if (delivered) {
+            confirmedCount.incrementAndGet();
+        } else if (pending.attempt() < config.getMaxAttempts()) {
+            retries.add(new PendingLetter(pending.letter(), pending.attempt() + 1));
+        } else {
+            fail(pending, reason);
+        }
+        //письмо убирается из ожидающих только после постановки в очередь повтора,
+        //чтобы awaitConfirms не счёл отправку завершённой раньше времени
+        outstanding.remove(correlationId);
+        unconfirmed.release();
+    }
+
+    private void fail(PendingLetter pending, String reason) {
+        failedCount.incrementAndGet();
+        log.error("Failed to publish repeat letter to " + pending.letter().getEmail() + ": " + reason);
+    }
+
+    /**
+     * Формат тела задаётся {@code app.publisher.format}: binary — {@link RepeatWordsLetterCodec},
+     * json — прежний строковый формат (JSON в UTF-8, text/plain), сериализуемый сразу в байты.
+     */
+    private Message toMessage(RepeatWordsLetter letter) throws JsonProcessingException {
+        if (config.getFormat() == AppConfig.LetterFormat.BINARY) {
+            return MessageBuilder.withBody(RepeatWordsLetterCodec.encode(letter))
+                    .setContentType(RepeatWordsLetterCodec.CONTENT_TYPE)
+                    .setDeliveryMode(MessageDeliveryMode.PERSISTENT)
+                    .build();
+        }
+        return MessageBuilder.withBody(letterWriter.writeValueAsBytes(letter))
+                .setContentType(MessageProperties.CONTENT_TYPE_TEXT_PLAIN)
+                .setContentEncoding(StandardCharsets.UTF_8.name())
+                .setDeliveryMode(MessageDeliveryMode.PERSISTENT)
+                .build();
+    }
+
+    private record PendingLetter(RepeatWordsLetter letter, int attempt) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.trainingsystem.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничитель частоты: выдаёт не больше заданного числа разрешений в секунду,
+ * равномерно распределяя их во времени. Потокобезопасен.
+ */
+public class RateLimiter {
+    private final long intervalNanos;
+    private long nextFreeNanos;
+
+    /**
+     * @param permitsPerSecond максимальная частота; значение не больше нуля отключает ограничение
+     */
+    public RateLimiter(double permitsPerSecond) {
+        this.intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    /**
+     * Ждёт, пока не освободится следующее разрешение.
+     *
+     * @throws InterruptedException если поток прерван во время ожидания
+     */
+    public void acquire() throws InterruptedException {
+        acquire(1);
+    }
+
+    /**
+     * Ждёт, пока не освободятся {@code permits} разрешений.
+     *
+     * @param permits количество разрешений
+     * @throws InterruptedException если поток прерван во время ожидания
+     */
+    public void acquire(int permits) throws InterruptedException {
+        if (intervalNanos == 0 || permits <= 0) return;
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long start = Math.max(now, nextFreeNanos);
+            nextFreeNanos = start + intervalNanos * permits;
+            waitNanos = start - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
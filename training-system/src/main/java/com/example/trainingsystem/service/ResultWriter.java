@@ -0,0 +1,226 @@
+package com.example.trainingsystem.service;
+
+import com.example.trainingsystem.config.AppConfig;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Отложенная (write-behind) запись ответов тренировки в таблицу {@code results}.
+ * <p>
+ * Ответы копятся в буфере отдельно для каждой тренировки; повторный ответ по тому же
+ * слову заменяет предыдущий. Буферы записываются пакетами JDBC, когда накопится
+ * {@code app.results.batch-size} ответов или пройдёт {@code app.results.flush-interval}.
+ * При остановке приложения все буферы записываются.
+ * <p>
+ * Буфер тренировки извлекается и записывается под блокировкой этой тренировки, поэтому
+ * {@link #flush(long)} дожидается записи, начатой фоновым потоком, и видит её результат.
+ */
+@Component
+@Log4j2
+public class ResultWriter {
+    /** Число блокировок, между которыми распределяются тренировки */
+    private static final int LOCK_STRIPES = 64;
+    private static final String UPSERT_SQL = "insert into results (training_id, word_id, success) values (?, ?, ?) " +
+            "on conflict (word_id, training_id) do update set success = excluded.success";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AppConfig.Results config;
+
+    /** Ответы, ещё не записанные в БД: тренировка → (слово → успех) */
+    private final Map<Long, Map<Long, Boolean>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    /** Блокировки записи, тренировка берёт блокировку по остатку от деления идентификатора */
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "result-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public ResultWriter(JdbcTemplate jdbcTemplate, AppConfig appConfig) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = appConfig.getResults();
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Ставит ответ в очередь на запись.
+     *
+     * @param trainingId идентификатор тренировки
+     * @param wordId идентификатор слова
+     * @param success успешно ли пользователь запомнил слово
+     */
+    public void enqueue(long trainingId, long wordId, boolean success) {
+        pending.compute(trainingId, (id, buffer) -> {
+            Map<Long, Boolean> result = buffer != null ? buffer : new LinkedHashMap<>();
+            if (result.put(wordId, success) == null) {
+                pendingCount.incrementAndGet();
+            }
+            return result;
+        });
+        if (pendingCount.get() >= config.getBatchSize() && flushScheduled.compareAndSet(false, true)) {
+            flushExecutor.execute(() -> {
+                flushScheduled.set(false);
+                flushAll();
+            });
+        }
+    }
+
+    /**
+     * Немедленно записывает все ответы одной тренировки в текущем потоке.
+     * Используется при завершении тренировки перед пересчётом расписания.
+     * <p>
+     * Если ответы этой тренировки в это время записывает {@link #flushAll()}, метод ждёт окончания
+     * записи. При вызове в транзакции ответы возвращаются в очередь, если транзакция откатится.
+     * </p>
+     *
+     * @param trainingId идентификатор тренировки
+     */
+    public void flush(long trainingId) {
+        ReentrantLock lock = lockFor(trainingId);
+        lock.lock();
+        try {
+            Map<Long, Boolean> buffer = pending.remove(trainingId);
+            if (buffer == null) return;
+            pendingCount.addAndGet(-buffer.size());
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status != STATUS_COMMITTED) {
+                            requeue(trainingId, buffer);
+                        }
+                    }
+                });
+                write(List.of(Map.entry(trainingId, buffer)));
+            } else {
+                try {
+                    write(List.of(Map.entry(trainingId, buffer)));
+                } catch (RuntimeException e) {
+                    requeue(trainingId, buffer);
+                    throw e;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Записывает все накопленные ответы пакетами по {@code app.results.batch-size}.
+     * При ошибке ответы возвращаются в очередь и будут записаны при следующем запуске.
+     * Тренировки, которые в это время записывает другой поток, пропускаются до следующего запуска.
+     */
+    @Scheduled(fixedDelayString = "${app.results.flush-interval:1s}")
+    public void flushAll() {
+        List<Map.Entry<Long, Map<Long, Boolean>>> chunk = new ArrayList<>();
+        List<ReentrantLock> held = new ArrayList<>();
+        int chunkSize = 0;
+        try {
+            for (Long trainingId : pending.keySet()) {
+                ReentrantLock lock = lockFor(trainingId);
+                if (!lock.tryLock()) continue;
+                Map<Long, Boolean> buffer = pending.remove(trainingId);
+                if (buffer == null) {
+                    lock.unlock();
+                    continue;
+                }
+                //блокировка держится до записи пакета, чтобы flush этой тренировки дождался записи
+                held.add(lock);
+                pendingCount.addAndGet(-buffer.size());
+                chunk.add(Map.entry(trainingId, buffer));
+                chunkSize += buffer.size();
+                if (chunkSize >= config.getBatchSize()) {
+                    writeOrRequeue(chunk);
+                    unlockAll(held);
+                    chunk = new ArrayList<>();
+                    chunkSize = 0;
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeOrRequeue(chunk);
+            }
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    /**
+     * @return количество ответов, ожидающих записи
+     */
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdown();
+        flushAll();
+        if (pendingCount.get() > 0) {
+            log.error("Failed to write " + pendingCount.get() + " training answers on shutdown");
+        }
+    }
+
+    private void writeOrRequeue(List<Map.Entry<Long, Map<Long, Boolean>>> chunk) {
+        try {
+            write(chunk);
+        } catch (RuntimeException e) {
+            log.error("Failed to write training answers, will retry", e);
+            for (Map.Entry<Long, Map<Long, Boolean>> entry : chunk) {
+                requeue(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Возвращает ответы в очередь, не затирая более свежие ответы по тем же словам.
+     */
+    private void requeue(long trainingId, Map<Long, Boolean> failed) {
+        pending.compute(trainingId, (id, buffer) -> {
+            Map<Long, Boolean> result = new LinkedHashMap<>(failed);
+            if (buffer != null) {
+                pendingCount.addAndGet(-buffer.size());
+                result.putAll(buffer);
+            }
+            pendingCount.addAndGet(result.size());
+            return result;
+        });
+    }
+
+    private ReentrantLock lockFor(long trainingId) {
+        return locks[Math.floorMod(trainingId, LOCK_STRIPES)];
+    }
+
+    private static void unlockAll(List<ReentrantLock> held) {
+        for (ReentrantLock lock : held) {
+            lock.unlock();
+        }
+        held.clear();
+    }
+
+    private void write(List<Map.Entry<Long, Map<Long, Boolean>>> chunk) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Map.Entry<Long, Map<Long, Boolean>> entry : chunk) {
+            entry.getValue().forEach((wordId, success) -> rows.add(new Object[]{entry.getKey(), wordId, success}));
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+}
@@ -3,71 +3,175 @@ package com.example.trainingsystem.service;
 
 import com.example.lettermodels.DictionaryForRepeat;
 import com.example.lettermodels.RepeatWordsLetter;
-import com.example.trainingsystem.model.*;
-import com.example.trainingsystem.repository.DictionaryRepository;
-import com.example.trainingsystem.repository.ScheduleRepository;
+import com.example.trainingsystem.config.AppConfig;
+import com.example.trainingsystem.dto.DueWordsCountDto;
+import com.example.trainingsystem.dto.ReminderRecipientDto;
 import com.example.trainingsystem.repository.SettingsRepository;
-import com.example.trainingsystem.repository.UserRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.log4j.Log4j2;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
+/**
+ * Ежедневная рассылка напоминаний о словах, которые пора повторить.
+ * <p>
+ * Рассылка распределена по интервалам окна доставки, а не отправляется всем в одно время.
+ * Получатели интервала читаются одним потоком через курсор БД и делятся на пачки
+ * по {@code app.reminders.batch-size} пользователей. Для каждой пачки количество
+ * слов к повторению читается одним запросом из счётчиков {@link DueCounterService}. Пачки обрабатываются
+ * параллельно ограниченным пулом потоков, поэтому расход памяти не зависит от числа пользователей.
+ * Письма отправляются пачками через {@link LetterPublisher}, который отслеживает подтверждения брокера.
+ */
 @Service
 @Log4j2
 public class SenderService {
-    private static final String MAIN_EXCHANGE_NAME = "main-exchange";
-    private static final String REPEAT_LETTER_KEY = "notification.repeat";
-    private final RabbitTemplate rabbitTemplate;
-    private final UserRepository userRepository;
+    private final LetterPublisher letterPublisher;
     private final SettingsRepository settingsRepository;
-    private final DictionaryRepository dictionaryRepository;
-    private final ScheduleRepository scheduleRepository;
-    private final ObjectMapper objectMapper;
+    private final DueCounterService dueCounterService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AppConfig.Reminders config;
+    private final int publishBatchSize;
+    private final RateLimiter letterRateLimiter;
 
     @Autowired
-    public SenderService(RabbitTemplate rabbitTemplate, UserRepository userRepository, SettingsRepository settingsRepository, DictionaryRepository dictionaryRepository, ScheduleRepository scheduleRepository, ObjectMapper objectMapper) {
-        this.rabbitTemplate = rabbitTemplate;
-        this.userRepository = userRepository;
+    public SenderService(LetterPublisher letterPublisher, SettingsRepository settingsRepository, DueCounterService dueCounterService, PlatformTransactionManager transactionManager, AppConfig appConfig) {
+        this.letterPublisher = letterPublisher;
         this.settingsRepository = settingsRepository;
-        this.dictionaryRepository = dictionaryRepository;
-        this.scheduleRepository = scheduleRepository;
-        this.objectMapper = objectMapper;
+        this.dueCounterService = dueCounterService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.config = appConfig.getReminders();
+        this.publishBatchSize = appConfig.getPublisher().getBatchSize();
+        this.letterRateLimiter = new RateLimiter(config.getMaxLettersPerSecond());
     }
 
-    @Scheduled(cron = "0 0 12 * * ?")  //(initialDelay = 2000, fixedRate = 3000)
-    public void sendLetters() throws JsonProcessingException {
+    /**
+     * Запускается в начале каждого интервала рассылки и отправляет письма
+     * пользователям, попавшим в текущий интервал (см. {@link #sendLetters(LocalDate, int, int)}).
+     */
+    @Scheduled(cron = "0 0/${app.reminders.slot-minutes:15} * * * ?")
+    public void sendLetters() throws InterruptedException {
+        LocalTime now = LocalTime.now();
+        sendLetters(LocalDate.now(), now.getHour(), now.getMinute() / config.getSlotMinutes());
+    }
 
-        List<User> userList = userRepository.findAll();
-        for (User user: userList) {
-            Settings userSettings = settingsRepository.findFirstByUser(user);
-            if (userSettings == null) continue;
-            String email = userSettings.getEmail();
-            if (email == null) continue;
-            log.info("User email: " + email);
+    /**
+     * Рассылает напоминания пользователям одного интервала.
+     * <p>
+     * Окно рассылки {@code app.reminders.window-start-hour}..{@code window-end-hour} делится на
+     * интервалы по {@code app.reminders.slot-minutes} минут. Пользователь без предпочтительного часа
+     * попадает в интервал окна по остатку от деления своего идентификатора на число интервалов;
+     * пользователь с заданным в настройках часом — в один из интервалов этого часа.
+     * Так каждый пользователь получает одно письмо в день, а нагрузка распределяется по окну.
+     * Частота отправки ограничена {@code app.reminders.max-letters-per-second}.
+     * </p>
+     *
+     * @param today текущая дата
+     * @param hour текущий час
+     * @param slotInHour номер интервала внутри часа
+     */
+    public void sendLetters(LocalDate today, int hour, int slotInHour) throws InterruptedException {
+        int slotsPerHour = 60 / config.getSlotMinutes();
+        int windowStart = config.getWindowStartHour();
+        int windowEnd = config.getWindowEndHour();
+        int windowSlots = Math.max((windowEnd - windowStart) * slotsPerHour, 1);
+        //номер интервала в окне рассылки, -1 — текущий час вне окна
+        int slot = hour >= windowStart && hour < windowEnd ? (hour - windowStart) * slotsPerHour + slotInHour : -1;
+        AtomicInteger sent = new AtomicInteger();
+        //очередь ограничена: если обработчики не успевают, чтение курсора ждёт в потоке планировщика
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(config.getWorkers(), config.getWorkers(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(config.getWorkers()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<ReminderRecipientDto> recipients = settingsRepository.streamReminderRecipients(
+                        windowSlots, slot, hour, slotsPerHour, slotInHour)) {
+                    Map<Long, ReminderRecipientDto> batch = new LinkedHashMap<>();
+                    Iterator<ReminderRecipientDto> iterator = recipients.iterator();
+                    while (iterator.hasNext()) {
+                        ReminderRecipientDto recipient = iterator.next();
+                        batch.putIfAbsent(recipient.getUserId(), recipient);
+                        if (batch.size() >= config.getBatchSize()) {
+                            Map<Long, ReminderRecipientDto> full = batch;
+                            workers.execute(() -> sent.addAndGet(sendBatch(full, today)));
+                            batch = new LinkedHashMap<>();
+                        }
+                    }
+                    if (!batch.isEmpty()) {
+                        Map<Long, ReminderRecipientDto> last = batch;
+                        workers.execute(() -> sent.addAndGet(sendBatch(last, today)));
+                    }
+                }
+            });
+        } finally {
+            workers.shutdown();
+            workers.awaitTermination(1, TimeUnit.HOURS);
+        }
+        letterPublisher.awaitConfirms();
+        log.info("Repeat letters sent for slot " + slot + " of hour " + hour + ": " + sent.get()
+                + ", confirmed total: " + letterPublisher.getConfirmedCount()
+                + ", failed total: " + letterPublisher.getFailedCount());
+    }
 
-            List<Dictionary> dictionaries = dictionaryRepository.findByUser(user);
-            if (dictionaries.isEmpty()) continue;
-            List<DictionaryForRepeat> repeatList = new ArrayList<>();
-            log.info("Dictionaries: " + dictionaries.toString());
-            for (Dictionary dict: dictionaries) {
-                List<Schedule> schedules = scheduleRepository.findWordsForRepeat(dict, WordStatus.NEW, LocalDate.now());
-                if (schedules.isEmpty()) continue;
-                DictionaryForRepeat repeatDict = new DictionaryForRepeat(dict.getName(), schedules.size());
-                log.info("Words for repeat: " + repeatDict.toString());
-                repeatList.add(repeatDict);
+    /**
+     * Формирует и отправляет письма для пачки пользователей.
+     *
+     * @param recipients идентификатор пользователя → получатель
+     * @param today текущая дата
+     * @return количество отправленных писем
+     */
+    private int sendBatch(Map<Long, ReminderRecipientDto> recipients, LocalDate today) {
+        Map<Long, List<DictionaryForRepeat>> repeatLists = new LinkedHashMap<>();
+        try {
+            for (DueWordsCountDto count : dueCounterService.countDueWordsByUsers(recipients.keySet(), today)) {
+                repeatLists.computeIfAbsent(count.getUserId(), id -> new ArrayList<>())
+                        .add(new DictionaryForRepeat(count.getDictionaryName(), count.getWordsCount()));
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to count words for repeat", e);
+            return 0;
+        }
+        List<RepeatWordsLetter> letters = new ArrayList<>(publishBatchSize);
+        int sent = 0;
+        for (Map.Entry<Long, List<DictionaryForRepeat>> entry : repeatLists.entrySet()) {
+            ReminderRecipientDto recipient = recipients.get(entry.getKey());
+            letters.add(new RepeatWordsLetter(entry.getKey(), today, recipient.getEmail(), recipient.getLocale(), entry.getValue()));
+            if (letters.size() >= publishBatchSize) {
+                sent += publish(letters);
+                if (Thread.currentThread().isInterrupted()) return sent;
+                letters = new ArrayList<>(publishBatchSize);
             }
-            if (repeatList.isEmpty()) continue;
-            RepeatWordsLetter letter = new RepeatWordsLetter(email, repeatList);
-            rabbitTemplate.convertAndSend(MAIN_EXCHANGE_NAME, REPEAT_LETTER_KEY, objectMapper.writeValueAsString(letter));
         }
+        if (!letters.isEmpty()) {
+            sent += publish(letters);
+        }
+        return sent;
+    }
 
+    /**
+     * Отправляет пачку писем с учётом ограничения частоты.
+     *
+     * @return количество отправленных писем
+     */
+    private int publish(List<RepeatWordsLetter> letters) {
+        try {
+            letterRateLimiter.acquire(letters.size());
+            letterPublisher.publish(letters);
+            return letters.size();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Failed to publish repeat letters", e);
+        }
+        return 0;
     }
 }
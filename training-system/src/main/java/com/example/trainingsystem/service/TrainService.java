@@ -6,15 +6,16 @@ import com.example.trainingsystem.model.*;
 import com.example.trainingsystem.model.Dictionary;
 import com.example.trainingsystem.repository.*;
 import com.example.trainingsystem.security.SecurityUtils;
-import lombok.Getter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Сервис для управления тренировками слов в пользовательских словарях.
@@ -30,38 +31,26 @@ public class TrainService {
     private final SettingsRepository setRepository;
     private final TrainingRepository trainingRepository;
 
-    /** Текущая статистика тренировки,
-     * обновляется после повторения каждого слова
-     * -- GETTER --
-     *  Возвращает текущую статистику тренировки.
-     *
-     * @return объект {@link TrainingStats}
-     */
-    @Getter
-    private final TrainingStats stats;
-
-    /** Список слов, которые уже были пройдены в текущей тренировке */
-    private List<Word> trainedWords;
-
-    /** Карта результатов: слово → успешно ли запомнено */
-    private Map<Word, Boolean> wordResults;
-
-    /** Текущий индекс слова в списке пройденных слов */
-    private int currentWordIndex;
+    private final TrainingSessionRegistry sessionRegistry;
+    private final ResultWriter resultWriter;
+    private final DueCounterService dueCounterService;
 
     @Autowired
-    public TrainService(ScheduleRepository scheduleRepository, ResultRepository resultRepository, DictionaryRepository dictRepository, WordRepository wordRepository, SettingsRepository setRepository, TrainingRepository trainingRepository, List<Word> trainedWords) {
+    public TrainService(ScheduleRepository scheduleRepository, ResultRepository resultRepository, DictionaryRepository dictRepository, WordRepository wordRepository, SettingsRepository setRepository, TrainingRepository trainingRepository, TrainingSessionRegistry sessionRegistry, ResultWriter resultWriter, DueCounterService dueCounterService) {
         this.scheduleRepository = scheduleRepository;
         this.resultRepository = resultRepository;
         this.dictRepository = dictRepository;
         this.wordRepository = wordRepository;
         this.setRepository = setRepository;
         this.trainingRepository = trainingRepository;
-        this.stats = new TrainingStats();
+        this.sessionRegistry = sessionRegistry;
+        this.resultWriter = resultWriter;
+        this.dueCounterService = dueCounterService;
     }
 
     /**
      * Создаёт тренировку с новыми словами из словаря.
+     * Если новых слов нет, возвращается пустая несохранённая тренировка.
      *
      * @param dictId идентификатор словаря
      * @return созданная тренировка
@@ -70,18 +59,21 @@ public class TrainService {
     public Training newTraining(long dictId) {
         Dictionary dict = dictRepository.findById(dictId).orElseThrow(NotFoundException::new);
         User user = SecurityUtils.getCurrentUser();
+        if (!scheduleRepository.existsByDictionaryAndStatus(dict, WordStatus.NEW)) {
+            return emptyTraining(dict, user, false);
+        }
         //максимальное количество слов в тренировке, берем из настроек пользователя
         int newWordsQuantity = setRepository.findFirstByUser(user).getNewWordsInTrain();
         //отбираем список новых слов
-        List<Schedule> schedules = scheduleRepository.findWordsForNewTraining(dict, WordStatus.NEW);
-        List<Word> wordList = schedules.stream().map(Schedule::getWord).limit(newWordsQuantity).collect(Collectors.toList());
+        List<Word> wordList = scheduleRepository.findWordsForNewTraining(dict, WordStatus.NEW, Limit.of(newWordsQuantity));
         //создаем тренировку
-        Training training = createTraining(dict, wordList, false);
+        Training training = createTraining(dict, user, wordList, false);
         return training;
     }
 
     /**
      * Создаёт тренировку по словам, запланированным к повторению.
+     * Если слов для повторения нет, возвращается пустая несохранённая тренировка.
      *
      * @param dictId идентификатор словаря
      * @return повторная тренировка
@@ -90,120 +82,130 @@ public class TrainService {
     public Training repeatTraining(long dictId) {
         Dictionary dict = dictRepository.findById(dictId).orElseThrow(NotFoundException::new);
         User user = SecurityUtils.getCurrentUser();
+        LocalDate today = LocalDate.now();
+        if (!scheduleRepository.existsByDictionaryAndStatusNotAndNextTrainDateBefore(dict, WordStatus.NEW, today)) {
+            return emptyTraining(dict, user, true);
+        }
         int repeatWordsQuantity = setRepository.findFirstByUser(user).getRepeatWordsInTrain();
-        List<Schedule> schedules = scheduleRepository.findWordsForRepeat(dict, WordStatus.NEW, LocalDate.now());
-        List<Word> wordList = schedules.stream().map(Schedule::getWord).limit(repeatWordsQuantity).collect(Collectors.toList());
-        Training training = createTraining(dict, wordList, true);
+        List<Word> wordList = scheduleRepository.findWordsForRepeat(dict, WordStatus.NEW, today, Limit.of(repeatWordsQuantity));
+        Training training = createTraining(dict, user, wordList, true);
         return training;
     }
 
     /**
-     * Сохраняет результаты тренировки (успешность по каждому слову).
+     * Дописывает в БД ответы тренировки, которые ещё не успел записать {@link ResultWriter}.
      *
      * @param training объект текущей тренировки
      */
     @Transactional(readOnly = false, propagation = Propagation.REQUIRED)
     public void saveTrainResults(Training training) {
-        List<Result> results = wordResults.entrySet().stream()
-                .map(entry -> new Result(training, entry.getKey(), entry.getValue()))
-                .collect(Collectors.toList());
-        resultRepository.saveAll(results);
+        resultWriter.flush(training.getId());
     }
 
 
-    private Training createTraining(Dictionary dict, List<Word> wordList, boolean isRepeat) {
-        Training training = new Training(dict, isRepeat, wordList, LocalDate.now());
+    private Training createTraining(Dictionary dict, User user, List<Word> wordList, boolean isRepeat) {
+        Training training = new Training(dict, user, isRepeat, wordList, LocalDate.now());
         Training saved = trainingRepository.save(training);
-        setStats(wordList.size());
-        currentWordIndex = 0;
-        trainedWords = new ArrayList<>();
-        wordResults = new HashMap<>();
+        sessionRegistry.open(saved, user.getId());
         return saved;
     }
 
+    private Training emptyTraining(Dictionary dict, User user, boolean isRepeat) {
+        return new Training(dict, user, isRepeat, new ArrayList<>(), LocalDate.now());
+    }
+
     /**
-     * Возвращает следующее слово для показа пользователю.
+     * Возвращает сессию тренировки текущего пользователя.
+     * Если сессия была удалена из памяти, она создаётся заново
+     * и восстанавливает уже записанные в БД ответы.
      *
-     * @param training текущая тренировка
-     * @return следующее слово, если оно есть
+     * @param training объект тренировки
+     * @return сессия тренировки
+     * @throws NotFoundException если тренировка принадлежит другому пользователю
      */
-    public Optional<Word> getNextWord(Training training) {
-        if (!trainedWords.isEmpty()){
-            currentWordIndex++;
+    public TrainingSession getSession(Training training) {
+        long userId = SecurityUtils.getCurrentUser().getId();
+        User owner = training.getUser() != null ? training.getUser() : training.getDictionary().getUser();
+        if (owner.getId() != userId) {
+            throw new NotFoundException();
         }
-        if (currentWordIndex < trainedWords.size()) {
-            return Optional.ofNullable(trainedWords.get(currentWordIndex));
-        }
-        return training.getWords().stream()
-                .filter(word -> !wordResults.containsKey(word))
-                .findFirst();
+        return sessionRegistry.getOrOpen(training, userId, () -> loadSavedResults(training));
     }
 
     /**
-     * Сохраняет результат по конкретному слову (успешно или нет).
+     * Возвращает следующее слово для показа пользователю.
      *
-     * @param word слово
-     * @param success успешно ли пользователь его запомнил
+     * @param session сессия тренировки
+     * @return следующее слово, если оно есть
      */
-    public void saveWordResult(Word word, boolean success) {
-        boolean isPresent = wordResults.containsKey(word);
-        wordResults.put(word, success);
-        refreshStats(word, isPresent);
+    public Optional<Word> getNextWord(TrainingSession session) {
+        return session.nextWord();
     }
 
     /**
-     * Проверяет, завершена ли текущая тренировка.
+     * Сохраняет результат по конкретному слову (успешно или нет).
      *
-     * @param training объект тренировки
-     * @return true, если все слова пройдены
+     * @param session сессия тренировки
+     * @param wordId идентификатор слова
+     * @param success успешно ли пользователь его запомнил
      */
-    public boolean isTrainingCompleted(Training training) {
-        return wordResults.size() == training.getWords().size();
+    public void saveWordResult(TrainingSession session, long wordId, boolean success) {
+        synchronized (session) {
+            session.saveWordResult(wordId, success);
+            resultWriter.enqueue(session.getTrainingId(), wordId, success);
+        }
     }
 
     /**
-     * Обновляет статистику после прохождения слова.
+     * Проверяет, завершена ли тренировка.
      *
-     * @param word слово, прошедшее тренировку
-     * @param isPresent было ли оно уже в списке пройденных
+     * @param session сессия тренировки
+     * @return true, если все слова пройдены
      */
-    public void refreshStats(Word word, boolean isPresent) {
-        if (!isPresent) {
-            trainedWords.add(word);
-        }
-        int trainedWordsNumber = wordResults.size();
-        stats.setTrainedWordsNumber(trainedWordsNumber);
-        int rememberedWords = (int) wordResults.values().stream().filter(res -> res).count();
-        stats.setRememberedWordsNumber(rememberedWords);
-        stats.setFailedWordsNumber(trainedWordsNumber - rememberedWords);
+    public boolean isTrainingCompleted(TrainingSession session) {
+        return session.isCompleted();
     }
 
     /**
      * Возвращает предыдущее слово в тренировке.
      *
+     * @param session сессия тренировки
      * @param isPrevious если true — перейти назад, если false — просто получить текущее
      * @return слово, если оно доступно
      */
-    public Optional<Word> getPreviousWord(boolean isPrevious) {
-        if (currentWordIndex < 1) return Optional.empty();
-        if (isPrevious) {
-            currentWordIndex--;
-            return Optional.of(trainedWords.get(currentWordIndex));
-        } else {
-            return Optional.of(trainedWords.get(currentWordIndex-1));
-        }
+    public Optional<Word> getPreviousWord(TrainingSession session, boolean isPrevious) {
+        return session.previousWord(isPrevious);
     }
 
     /**
-     * Сбрасывает статистику и устанавливает общее количество слов.
+     * Завершает тренировку: сохраняет результаты и пересчитывает расписание.
+     * Повторные вызовы для той же сессии ничего не делают. Сессия считается завершённой
+     * только после фиксации транзакции, после отката тренировку можно завершить снова.
      *
-     * @param wordsNumber общее количество слов в тренировке
+     * @param training объект тренировки
+     * @param session сессия тренировки
      */
-    private void setStats(int wordsNumber) {
-        stats.setAllWordsNumber(wordsNumber);
-        stats.setTrainedWordsNumber(0);
-        stats.setFailedWordsNumber(0);
-        stats.setRememberedWordsNumber(0);
+    @Transactional(readOnly = false, propagation = Propagation.REQUIRED)
+    public void finishTraining(Training training, TrainingSession session) {
+        if (session.finish()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    session.finishCompleted(status == STATUS_COMMITTED);
+                }
+            });
+            saveTrainResults(training);
+            formSchedule(training);
+        }
+    }
+
+    private Map<Long, Boolean> loadSavedResults(Training training) {
+        resultWriter.flush(training.getId());
+        Map<Long, Boolean> saved = new HashMap<>();
+        for (Result result : resultRepository.findAllByTraining(training)) {
+            saved.put(result.getWord().getId(), result.isSuccess());
+        }
+        return saved;
     }
 
     /**
@@ -238,20 +240,39 @@ public class TrainService {
 
     /**
      * Обновляет расписание повторений слов по результатам тренировки.
+     * <p>
+     * Расписания всех слов тренировки загружаются одним запросом, пересчитываются
+     * в памяти и записываются пакетным обновлением вместе со счётчиками слов к повторению.
+     * </p>
      *
      * @param training объект тренировки
      */
+    @Transactional(readOnly = false, propagation = Propagation.REQUIRED)
     public void formSchedule(Training training) {
         List<Result> results = resultRepository.findAllByTraining(training);
+        if (results.isEmpty()) return;
+        Map<Long, Schedule> schedules = new HashMap<>();
+        for (Schedule schedule : scheduleRepository.findAllByTrainingResults(training)) {
+            schedules.put(schedule.getWord().getId(), schedule);
+        }
+        List<Schedule> updated = new ArrayList<>(results.size());
+        DueCounterService.Changes counterChanges = dueCounterService.changes();
         for (Result result : results) {
-            Word word = result.getWord();
-            Schedule schedule = scheduleRepository.findByWord(word).orElse(new Schedule(word));
+            Schedule schedule = schedules.get(result.getWord().getId());
+            if (schedule == null) {
+                //у слова ещё нет расписания
+                schedule = new Schedule(result.getWord());
+            }
+            counterChanges.remove(schedule);
             //обновить статус и стадию изучения слова
             updateWordStatus(schedule, result, training.isRepeat());
             //обновить даты и количество тренировок
             updateSchedule(schedule, training);
-            scheduleRepository.save(schedule);
+            counterChanges.add(schedule);
+            updated.add(schedule);
         }
+        scheduleRepository.saveAll(updated);
+        dueCounterService.apply(counterChanges);
     }
 
     /**
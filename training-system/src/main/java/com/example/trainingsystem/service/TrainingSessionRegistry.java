@@ -0,0 +1,112 @@
+package com.example.trainingsystem.service;
+
+import com.example.trainingsystem.config.AppConfig;
+import com.example.trainingsystem.exception.NotFoundException;
+import com.example.trainingsystem.model.Training;
+import com.example.trainingsystem.model.TrainingSession;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Хранилище активных тренировок, ключ — идентификатор тренировки.
+ * <p>
+ * Каждый пользователь работает со своей {@link TrainingSession}, поэтому
+ * одновременные тренировки разных пользователей не мешают друг другу.
+ * Размер хранилища ограничен {@code app.sessions.max-active}, а тренировки
+ * без обращений дольше {@code app.sessions.idle-timeout} удаляются.
+ */
+@Component
+@Log4j2
+public class TrainingSessionRegistry {
+    private final Map<Long, TrainingSession> sessions = new ConcurrentHashMap<>();
+    private final AppConfig.Sessions config;
+
+    @Autowired
+    public TrainingSessionRegistry(AppConfig appConfig) {
+        this.config = appConfig.getSessions();
+    }
+
+    /**
+     * Создаёт новую сессию для только что сохранённой тренировки.
+     *
+     * @param training тренировка
+     * @param ownerId идентификатор пользователя, начавшего тренировку
+     * @return новая сессия
+     */
+    public TrainingSession open(Training training, long ownerId) {
+        makeRoom();
+        TrainingSession session = new TrainingSession(training, ownerId);
+        sessions.put(session.getTrainingId(), session);
+        return session;
+    }
+
+    /**
+     * Возвращает сессию тренировки, при необходимости создавая её заново
+     * (например, после перезапуска или удаления по времени бездействия).
+     *
+     * @param training тренировка
+     * @param ownerId идентификатор текущего пользователя
+     * @param savedResults уже сохранённые ответы для восстановления новой сессии
+     * @return сессия тренировки
+     * @throws NotFoundException если тренировка принадлежит другому пользователю
+     */
+    public TrainingSession getOrOpen(Training training, long ownerId, Supplier<Map<Long, Boolean>> savedResults) {
+        TrainingSession session = sessions.get(training.getId());
+        if (session == null || isExpired(session, System.currentTimeMillis())) {
+            makeRoom();
+            TrainingSession restored = new TrainingSession(training, ownerId);
+            restored.restore(savedResults.get());
+            session = sessions.compute(training.getId(), (id, current) ->
+                    current == null || isExpired(current, System.currentTimeMillis()) ? restored : current);
+        }
+        if (session.getOwnerId() != ownerId) {
+            throw new NotFoundException();
+        }
+        session.touch();
+        return session;
+    }
+
+    /**
+     * @return количество активных тренировок
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Удаляет тренировки, к которым не обращались дольше {@code app.sessions.idle-timeout}.
+     */
+    @Scheduled(fixedDelayString = "PT1M")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        sessions.values().removeIf(session -> isExpired(session, now));
+    }
+
+    private boolean isExpired(TrainingSession session, long now) {
+        return now - session.getLastAccessTime() > config.getIdleTimeout().toMillis();
+    }
+
+    /**
+     * Освобождает место под новую сессию: сначала удаляет просроченные,
+     * затем, если хранилище всё ещё заполнено, — самую давно неиспользуемую.
+     */
+    private void makeRoom() {
+        if (sessions.size() < config.getMaxActive()) return;
+        evictExpired();
+        while (sessions.size() >= config.getMaxActive() && !sessions.isEmpty()) {
+            sessions.values().stream()
+                    .min(Comparator.comparingLong(TrainingSession::getLastAccessTime))
+                    .ifPresent(oldest -> {
+                        log.warn("Active trainings limit reached, evicting training " + oldest.getTrainingId());
+                        sessions.remove(oldest.getTrainingId(), oldest);
+                    });
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.trainingsystem.service;
+
+import com.example.trainingsystem.dto.ExportFormat;
+import com.example.trainingsystem.dto.WordExportRowDto;
+import com.example.trainingsystem.repository.WordRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Выгрузка слов словаря вместе с состоянием расписания в CSV или NDJSON.
+ * <p>
+ * Строки читаются курсором БД ({@link WordRepository#streamExportRows(long)}) и сразу пишутся
+ * в поток ответа, поэтому расход памяти не зависит от размера словаря. На время выгрузки
+ * занято одно соединение с БД. Выгрузку в CSV можно снова загрузить через {@link WordImportService}.
+ * </p>
+ */
+@Service
+@Log4j2
+public class WordExportService {
+    private static final String[] CSV_HEADER = {"name", "translation", "context", "example", "add_date",
+            "next_train_date", "last_train_date", "total_number", "stage", "status", "learnt_date"};
+
+    private final WordRepository wordRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    /** Без сброса буфера после каждой строки: ответ отправляется по мере заполнения буфера */
+    private final ObjectWriter ndjsonWriter;
+
+    @Autowired
+    public WordExportService(WordRepository wordRepository, PlatformTransactionManager transactionManager, ObjectMapper objectMapper) {
+        this.wordRepository = wordRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.ndjsonWriter = objectMapper.writer()
+                .withRootValueSeparator("\n")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Пишет слова словаря в поток. Поток не закрывается.
+     *
+     * @param dictId идентификатор словаря
+     * @param format формат выгрузки
+     * @param output поток ответа
+     * @throws IOException при ошибке записи, например если клиент прервал загрузку
+     */
+    public void export(long dictId, ExportFormat format, OutputStream output) throws IOException {
+        long start = System.nanoTime();
+        long rows;
+        try {
+            rows = readOnlyTransaction.execute(status -> {
+                try (Stream<WordExportRowDto> stream = wordRepository.streamExportRows(dictId)) {
+                    return format == ExportFormat.CSV ? writeCsv(stream.iterator(), output) : writeNdjson(stream.iterator(), output);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.info("Exported " + rows + " words of dictionary " + dictId + " as " + format
+                + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private long writeCsv(Iterator<WordExportRowDto> rows, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writeCsvRow(writer, (Object[]) CSV_HEADER);
+        long count = 0;
+        while (rows.hasNext()) {
+            WordExportRowDto row = rows.next();
+            writeCsvRow(writer, row.getName(), row.getTranslation(), row.getContext(), row.getExample(),
+                    row.getAddedDate(), row.getNextTrainDate(), row.getLastTrainDate(), row.getTotalTrainNumber(),
+                    row.getStage(), row.getStatus(), row.getLearntDate());
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * Пишет строку CSV по RFC 4180: поле с запятой, кавычкой или переводом строки берётся в кавычки,
+     * кавычки внутри удваиваются. Пустое значение пишется пустым полем.
+     */
+    private void writeCsvRow(Writer writer, Object... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (fields[i] == null) continue;
+            String value = fields[i].toString();
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private long writeNdjson(Iterator<WordExportRowDto> rows, OutputStream output) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = ndjsonWriter.createGenerator(output)) {
+            while (rows.hasNext()) {
+                ndjsonWriter.writeValue(generator, rows.next());
+                count++;
+            }
+            if (count > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.trainingsystem.service;
+
+import com.example.trainingsystem.config.AppConfig;
+import com.example.trainingsystem.dto.WordImportResultDto;
+import com.example.trainingsystem.exception.NotFoundException;
+import com.example.trainingsystem.model.LearningStage;
+import com.example.trainingsystem.model.WordStatus;
+import com.example.trainingsystem.repository.DictionaryRepository;
+import com.example.trainingsystem.repository.WordRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Импорт слов в словарь из файла CSV или TSV.
+ * <p>
+ * Файл читается потоком, в памяти находятся только текущая пачка строк и множество слов словаря
+ * для отсева повторов. Колонки: слово, перевод, контекст, пример; первая строка пропускается,
+ * если это заголовок. Строки без слова или перевода и со слишком длинными полями пропускаются.
+ * Слова, которые уже есть в словаре или повторяются в файле (без учёта регистра), не добавляются,
+ * поэтому прерванный импорт можно просто повторить.
+ * </p>
+ * <p>
+ * Каждая пачка из {@code app.word-import.batch-size} слов записывается одним запросом: слова
+ * передаются массивами, а расписания создаются тем же запросом по идентификаторам добавленных слов.
+ * Пачка записывается атомарно, уже записанные пачки при ошибке не откатываются.
+ * В один словарь одновременно идёт только один импорт, его ход доступен через {@link #getProgress(long)}.
+ * </p>
+ */
+@Service
+@Log4j2
+public class WordImportService {
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final int MAX_EXAMPLE_LENGTH = 2048;
+
+    private static final String INSERT_SQL = "with w as (" +
+            "insert into words (name, translation, context, example, add_date, dictionary_id) " +
+            "select t.name, t.translation, t.context, t.example, ?, ? " +
+            "from unnest(?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[]) as t(name, translation, context, example) " +
+            "returning id) " +
+            "insert into schedule (word_id, dict_id, next_train_date, total_number, stage, status) " +
+            "select w.id, ?, ?, 0, ?, ? from w";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DictionaryRepository dictRepository;
+    private final WordRepository wordRepository;
+    private final AppConfig.WordImport config;
+
+    /** Идущие импорты: словарь → ход импорта */
+    private final Map<Long, Progress> running = new ConcurrentHashMap<>();
+
+    @Autowired
+    public WordImportService(JdbcTemplate jdbcTemplate, DictionaryRepository dictRepository, WordRepository wordRepository, AppConfig appConfig) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dictRepository = dictRepository;
+        this.wordRepository = wordRepository;
+        this.config = appConfig.getWordImport();
+    }
+
+    /**
+     * Импортирует слова из потока в словарь.
+     *
+     * @param dictId идентификатор словаря
+     * @param input содержимое файла в UTF-8
+     * @param delimiter разделитель полей: {@code ','} для CSV, {@code '\t'} для TSV
+     * @return итог импорта
+     * @throws NotFoundException если словарь не найден
+     * @throws IllegalStateException если в словарь уже идёт импорт
+     * @throws IOException при ошибке чтения потока
+     */
+    public WordImportResultDto importWords(long dictId, InputStream input, char delimiter) throws IOException {
+        if (!dictRepository.existsById(dictId)) {
+            throw new NotFoundException();
+        }
+        Progress progress = new Progress();
+        if (running.putIfAbsent(dictId, progress) != null) {
+            throw new IllegalStateException("Import into dictionary " + dictId + " is already running");
+        }
+        long start = System.nanoTime();
+        try {
+            Set<String> known = new HashSet<>();
+            for (String name : wordRepository.findNamesByDictionaryId(dictId)) {
+                known.add(dedupKey(name));
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            DelimitedRowReader rows = new DelimitedRowReader(reader, delimiter, MAX_EXAMPLE_LENGTH + 1);
+            List<String[]> batch = new ArrayList<>(config.getBatchSize());
+            boolean first = true;
+            List<String> fields;
+            while ((fields = nextRow(rows, progress)) != null) {
+                if (first) {
+                    first = false;
+                    if (isHeader(fields)) continue;
+                }
+                progress.rows.incrementAndGet();
+                String[] word = validate(fields, rows.getRowLineNumber(), progress);
+                if (word == null) continue;
+                if (!known.add(dedupKey(word[0]))) {
+                    progress.duplicates.incrementAndGet();
+                    continue;
+                }
+                batch.add(word);
+                if (batch.size() >= config.getBatchSize()) {
+                    insert(dictId, batch);
+                    progress.imported.addAndGet(batch.size());
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                insert(dictId, batch);
+                progress.imported.addAndGet(batch.size());
+            }
+            WordImportResultDto result = progress.snapshot(true);
+            log.info("Imported " + result.getImported() + " of " + result.getRows() + " words into dictionary " + dictId
+                    + " in " + (System.nanoTime() - start) / 1_000_000 + " ms, duplicates " + result.getDuplicates()
+                    + ", invalid " + result.getInvalid());
+            return result;
+        } finally {
+            running.remove(dictId);
+        }
+    }
+
+    /**
+     * @param dictId идентификатор словаря
+     * @return ход идущего импорта или пустой результат, если импорт не идёт
+     */
+    public Optional<WordImportResultDto> getProgress(long dictId) {
+        return Optional.ofNullable(running.get(dictId)).map(progress -> progress.snapshot(false));
+    }
+
+    /**
+     * Ошибка разбора (незакрытая кавычка, слишком длинное поле) делает дальнейшее чтение
+     * бессмысленным, поэтому импорт останавливается, а уже записанные пачки остаются.
+     */
+    private List<String> nextRow(DelimitedRowReader rows, Progress progress) throws IOException {
+        try {
+            return rows.next();
+        } catch (IllegalArgumentException e) {
+            progress.invalid.incrementAndGet();
+            progress.error(e.getMessage(), config.getMaxReportedErrors());
+            return null;
+        }
+    }
+
+    private boolean isHeader(List<String> fields) {
+        String first = fields.get(0).trim();
+        return first.equalsIgnoreCase("name") || first.equalsIgnoreCase("word");
+    }
+
+    /**
+     * @return слово, перевод, контекст и пример или null, если строка не проходит проверку
+     */
+    private String[] validate(List<String> fields, int line, Progress progress) {
+        String[] word = new String[4];
+        for (int i = 0; i < word.length && i < fields.size(); i++) {
+            String value = fields.get(i).trim();
+            word[i] = value.isEmpty() ? null : value;
+        }
+        String error = null;
+        if (word[0] == null || word[1] == null) {
+            error = "word and translation are required";
+        } else if (word[0].length() > MAX_NAME_LENGTH || word[1].length() > MAX_NAME_LENGTH
+                || (word[2] != null && word[2].length() > MAX_NAME_LENGTH)) {
+            error = "word, translation and context must be at most " + MAX_NAME_LENGTH + " characters";
+        } else if (word[3] != null && word[3].length() > MAX_EXAMPLE_LENGTH) {
+            error = "example must be at most " + MAX_EXAMPLE_LENGTH + " characters";
+        }
+        if (error == null) return word;
+        progress.invalid.incrementAndGet();
+        progress.error("line " + line + ": " + error, config.getMaxReportedErrors());
+        return null;
+    }
+
+    private void insert(long dictId, List<String[]> batch) {
+        Date today = Date.valueOf(LocalDate.now());
+        jdbcTemplate.execute(INSERT_SQL, (PreparedStatement statement) -> {
+            List<Array> arrays = new ArrayList<>(4);
+            try {
+                statement.setDate(1, today);
+                statement.setLong(2, dictId);
+                for (int column = 0; column < 4; column++) {
+                    Object[] values = new Object[batch.size()];
+                    for (int i = 0; i < batch.size(); i++) {
+                        values[i] = batch.get(i)[column];
+                    }
+                    Array array = statement.getConnection().createArrayOf("varchar", values);
+                    arrays.add(array);
+                    statement.setArray(3 + column, array);
+                }
+                statement.setLong(7, dictId);
+                statement.setDate(8, today);
+                statement.setInt(9, LearningStage.STAGE1.ordinal());
+                statement.setInt(10, WordStatus.NEW.ordinal());
+                return statement.executeUpdate();
+            } finally {
+                for (Array array : arrays) {
+                    array.free();
+                }
+            }
+        });
+    }
+
+    private static String dedupKey(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static class Progress {
+        final AtomicLong rows = new AtomicLong();
+        final AtomicLong imported = new AtomicLong();
+        final AtomicLong duplicates = new AtomicLong();
+        final AtomicLong invalid = new AtomicLong();
+        final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+        void error(String message, int maxReported) {
+            if (errors.size() < maxReported) {
+                errors.add(message);
+            }
+        }
+
+        WordImportResultDto snapshot(boolean finished) {
+            List<String> errorsCopy;
+            synchronized (errors) {
+                errorsCopy = new ArrayList<>(errors);
+            }
+            return new WordImportResultDto(rows.get(), imported.get(), duplicates.get(), invalid.get(), errorsCopy, finished);
+        }
+    }
+}
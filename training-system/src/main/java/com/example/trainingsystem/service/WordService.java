@@ -1,21 +1,34 @@
 package com.example.trainingsystem.service;
 
 import com.example.trainingsystem.exception.NotFoundException;
+import com.example.trainingsystem.dto.KeysetPage;
 import com.example.trainingsystem.dto.NewWordDto;
+import com.example.trainingsystem.dto.ScheduleRowDto;
+import com.example.trainingsystem.dto.ScheduleSort;
+import com.example.trainingsystem.dto.WordRowDto;
+import com.example.trainingsystem.dto.WordSort;
 import com.example.trainingsystem.mapper.WordMapper;
 import com.example.trainingsystem.model.Dictionary;
+import com.example.trainingsystem.model.LearningStage;
 import com.example.trainingsystem.model.Schedule;
 import com.example.trainingsystem.model.Word;
+import com.example.trainingsystem.model.WordStatus;
 import com.example.trainingsystem.repository.DictionaryRepository;
 import com.example.trainingsystem.repository.ScheduleRepository;
 import com.example.trainingsystem.repository.WordRepository;
 import org.mapstruct.factory.Mappers;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.function.Function;
 
 /**
  * Сервис для управления словами в словарях пользователя.
@@ -27,6 +40,10 @@ public class WordService {
     private final WordRepository repository;
     private final DictionaryRepository dictRepository;
     private final ScheduleRepository scheduleRepository;
+    private final DueCounterService dueCounterService;
+
+    /** Дата, раньше которой не бывает тренировок: начало первой страницы расписания */
+    private static final LocalDate FIRST_DATE = LocalDate.of(1, 1, 1);
 
     /** Маппер для преобразования DTO в сущность слова */
     private static final WordMapper wordMapper = Mappers.getMapper(WordMapper.class);
@@ -37,12 +54,14 @@ public class WordService {
      * @param repository репозиторий слов
      * @param dictRepository репозиторий словарей
      * @param scheduleRepository репозиторий расписаний
+     * @param dueCounterService сервис счётчиков слов к повторению
      */
     @Autowired
-    public WordService(WordRepository repository, DictionaryRepository dictRepository, ScheduleRepository scheduleRepository) {
+    public WordService(WordRepository repository, DictionaryRepository dictRepository, ScheduleRepository scheduleRepository, DueCounterService dueCounterService) {
         this.repository = repository;
         this.dictRepository = dictRepository;
         this.scheduleRepository = scheduleRepository;
+        this.dueCounterService = dueCounterService;
     }
 
     /**
@@ -67,6 +86,26 @@ public class WordService {
         repository.save(word);
         Schedule schedule = new Schedule(word);
         scheduleRepository.save(schedule);
+        DueCounterService.Changes counterChanges = dueCounterService.changes();
+        counterChanges.add(schedule);
+        dueCounterService.apply(counterChanges);
+    }
+
+    /**
+     * Удаляет слово вместе с расписанием и уменьшает счётчик слов к повторению.
+     *
+     * @param id идентификатор слова
+     */
+    @Transactional(readOnly = false, propagation = Propagation.REQUIRES_NEW)
+    public void deleteWord(long id) {
+        Word word = repository.findById(id).orElseThrow(NotFoundException::new);
+        scheduleRepository.findByWord(word).ifPresent(schedule -> {
+            DueCounterService.Changes counterChanges = dueCounterService.changes();
+            counterChanges.remove(schedule);
+            dueCounterService.apply(counterChanges);
+            scheduleRepository.delete(schedule);
+        });
+        repository.delete(word);
     }
 
     /**
@@ -84,4 +123,71 @@ public class WordService {
         word.setExample(wordDto.getExample());
         return repository.save(word);
     }
+
+    /**
+     * Возвращает страницу слов словаря. Строки читаются запросом-проекцией: сущности
+     * не загружаются и не отслеживаются, в память попадает только одна страница.
+     *
+     * @param dict словарь
+     * @param status фильтр по статусу или null
+     * @param stage фильтр по стадии изучения или null
+     * @param sort порядок слов
+     * @param afterKey значение поля сортировки последней строки предыдущей страницы или null для первой страницы
+     * @param afterId идентификатор последней строки предыдущей страницы
+     * @param size размер страницы
+     * @return страница слов
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<WordRowDto> getWordRows(Dictionary dict, WordStatus status, LearningStage stage, WordSort sort,
+                                              String afterKey, long afterId, int size) {
+        Limit limit = Limit.of(size + 1);
+        if (afterKey == null) afterId = 0;
+        return switch (sort) {
+            case ID -> keysetPage(repository.findRowsById(dict, status, stage, afterId, limit), size,
+                    row -> String.valueOf(row.getId()), WordRowDto::getId);
+            case NAME -> keysetPage(repository.findRowsByName(dict, status, stage, afterKey != null ? afterKey : "", afterId, limit), size,
+                    WordRowDto::getName, WordRowDto::getId);
+        };
+    }
+
+    /**
+     * Возвращает страницу расписания словаря.
+     *
+     * @throws ResponseStatusException 400, если ключ страницы при сортировке по дате не является датой
+     * @see #getWordRows(Dictionary, WordStatus, LearningStage, WordSort, String, long, int)
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<ScheduleRowDto> getScheduleRows(Dictionary dict, WordStatus status, LearningStage stage, ScheduleSort sort,
+                                                      String afterKey, long afterId, int size) {
+        Limit limit = Limit.of(size + 1);
+        if (afterKey == null) afterId = 0;
+        return switch (sort) {
+            case NEXT_TRAIN_DATE -> keysetPage(scheduleRepository.findRowsByNextTrainDate(dict, status, stage,
+                            afterKey != null ? parseDateKey(afterKey) : FIRST_DATE, afterId, limit), size,
+                    row -> row.getNextTrainDate().toString(), ScheduleRowDto::getId);
+            case WORD -> keysetPage(scheduleRepository.findRowsByWord(dict, status, stage, afterKey != null ? afterKey : "", afterId, limit), size,
+                    ScheduleRowDto::getWord, ScheduleRowDto::getId);
+        };
+    }
+
+    /**
+     * Ключ страницы приходит из параметра запроса, поэтому неверная дата — ошибка клиента, а не сервера.
+     */
+    private static LocalDate parseDateKey(String afterKey) {
+        try {
+            return LocalDate.parse(afterKey);
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid page key: " + afterKey);
+        }
+    }
+
+    /**
+     * Строк запрашивается на одну больше размера страницы: лишняя строка означает, что есть следующая страница.
+     */
+    private static <T> KeysetPage<T> keysetPage(List<T> rows, int size, Function<T, String> key, Function<T, Long> id) {
+        boolean hasNext = rows.size() > size;
+        List<T> page = hasNext ? rows.subList(0, size) : rows;
+        T last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return new KeysetPage<>(page, hasNext, last != null ? key.apply(last) : null, last != null ? id.apply(last) : null);
+    }
 }
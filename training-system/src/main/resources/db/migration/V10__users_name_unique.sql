@@ -0,0 +1,3 @@
+-- Пользователь ищется по имени при каждом входе по форме и по cookie "запомнить меня".
+-- Индекс уникальный: вход по имени должен находить ровно одного пользователя.
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS users_name_key ON users (name);
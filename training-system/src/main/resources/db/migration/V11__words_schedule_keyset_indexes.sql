@@ -0,0 +1,16 @@
+-- Индексы для постраничного вывода слов и расписания словаря по ключу (keyset):
+-- следующая страница читается по индексу с места, где закончилась предыдущая.
+
+-- слова словаря в порядке добавления; заменяет индекс по одному dictionary_id
+CREATE INDEX CONCURRENTLY IF NOT EXISTS words_dictionary_id_id_idx
+    ON words (dictionary_id, id);
+
+DROP INDEX CONCURRENTLY IF EXISTS words_dictionary_id_idx;
+
+-- слова словаря по алфавиту
+CREATE INDEX CONCURRENTLY IF NOT EXISTS words_dictionary_id_name_idx
+    ON words (dictionary_id, name, id);
+
+-- расписание словаря по дате следующей тренировки, включая новые слова
+CREATE INDEX CONCURRENTLY IF NOT EXISTS schedule_dict_next_date_idx
+    ON schedule (dict_id, next_train_date, id);
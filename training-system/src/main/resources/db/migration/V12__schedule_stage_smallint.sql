@@ -0,0 +1,5 @@
+-- Стадия изучения (LearningStage) хранится Hibernate как порядковый номер, а колонка
+-- была строковой: значения записывались как '0'...'5', а сравнение stage = ? с числовым
+-- параметром в PostgreSQL не работает. Приводим колонку к типу, который пишет Hibernate.
+ALTER TABLE schedule
+    ALTER COLUMN stage TYPE smallint USING stage::smallint;
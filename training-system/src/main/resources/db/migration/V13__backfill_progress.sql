@@ -0,0 +1,10 @@
+-- Ход фоновых заполнений данных: последний обработанный идентификатор по имени задачи.
+-- Запись обновляется в одной транзакции с обработанным диапазоном, поэтому
+-- прерванное заполнение продолжается с места остановки.
+CREATE TABLE IF NOT EXISTS backfill_progress
+(
+    name       VARCHAR(64) NOT NULL,
+    last_id    bigint      NOT NULL,
+    updated_at TIMESTAMP   NOT NULL,
+    CONSTRAINT backfill_progress_pkey PRIMARY KEY (name)
+);
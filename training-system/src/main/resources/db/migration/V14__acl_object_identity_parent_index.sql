@@ -0,0 +1,4 @@
+-- Дочерние объекты ACL, наследующие записи родителя: проверка прав в запросе
+-- к БД спускается от объекта, на который есть право, к его потомкам.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS acl_object_identity_parent_idx
+    ON acl_object_identity (parent_object);
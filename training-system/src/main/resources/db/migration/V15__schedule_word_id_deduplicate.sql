@@ -0,0 +1,6 @@
+-- У слова должно быть одно расписание. Без уникального ограничения параллельные заполнения
+-- могли создать лишние строки; остаётся самое раннее расписание слова.
+-- Лишние расписания в статусе, отличном от NEW, учтены в счётчиках слов к повторению:
+-- расхождение исправляет периодическая сверка счётчиков.
+DELETE FROM schedule s
+WHERE EXISTS (SELECT 1 FROM schedule d WHERE d.word_id = s.word_id AND d.id < s.id);
@@ -0,0 +1,10 @@
+-- Одно расписание на слово (дубли удалены в V15). Уникальный индекс заменяет
+-- schedule_word_id_idx и позволяет заполнению расписаний пропускать уже созданные
+-- строки через ON CONFLICT (word_id). Индексы строятся и удаляются конкурентно,
+-- поэтому миграция выполняется вне транзакции.
+-- Если построение прервётся, останется невалидный индекс: его нужно удалить
+-- (DROP INDEX CONCURRENTLY schedule_word_id_key) перед повторным запуском.
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS schedule_word_id_key
+    ON schedule (word_id);
+
+DROP INDEX CONCURRENTLY IF EXISTS schedule_word_id_idx;
@@ -0,0 +1,35 @@
+-- Индексы для горячих запросов ScheduleRepository, ResultRepository и WordRepository.
+-- Индексы строятся конкурентно (CONCURRENTLY), чтобы не блокировать запись
+-- в большие таблицы; такая миграция выполняется вне транзакции.
+
+-- тренировка новых слов, счётчики по словарю и статусу, расписание словаря
+CREATE INDEX CONCURRENTLY IF NOT EXISTS schedule_dict_status_next_date_idx
+    ON schedule (dict_id, status, next_train_date, id);
+
+-- слова к повторению: всё, кроме новых слов (status = 0 — WordStatus.NEW)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS schedule_due_words_idx
+    ON schedule (dict_id, next_train_date, id) INCLUDE (word_id)
+    WHERE status <> 0;
+
+-- поиск расписания по слову
+CREATE INDEX CONCURRENTLY IF NOT EXISTS schedule_word_id_idx
+    ON schedule (word_id);
+
+-- результаты тренировки
+CREATE INDEX CONCURRENTLY IF NOT EXISTS results_training_id_idx
+    ON results (training_id) INCLUDE (word_id, success);
+
+-- слова тренировки
+CREATE INDEX CONCURRENTLY IF NOT EXISTS trainings_words_training_id_idx
+    ON trainings_words (training_id) INCLUDE (word_id);
+
+-- слова словаря
+CREATE INDEX CONCURRENTLY IF NOT EXISTS words_dictionary_id_idx
+    ON words (dictionary_id);
+
+-- словари и настройки пользователя
+CREATE INDEX CONCURRENTLY IF NOT EXISTS dictionaries_user_id_idx
+    ON dictionaries (user_id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS settings_user_id_idx
+    ON settings (user_id);
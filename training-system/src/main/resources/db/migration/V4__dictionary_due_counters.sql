@@ -0,0 +1,17 @@
+-- Счётчики слов к повторению: для каждого словаря и даты следующей тренировки
+-- хранится количество слов в статусе, отличном от NEW (status = 0).
+-- Поддерживаются при изменении расписания, сверяются с schedule по расписанию.
+CREATE TABLE IF NOT EXISTS dictionary_due_counters
+(
+    dict_id     bigint NOT NULL REFERENCES dictionaries (id) ON DELETE CASCADE,
+    due_date    DATE   NOT NULL,
+    words_count bigint NOT NULL,
+    CONSTRAINT dictionary_due_counters_pkey PRIMARY KEY (dict_id, due_date)
+);
+
+INSERT INTO dictionary_due_counters (dict_id, due_date, words_count)
+SELECT dict_id, next_train_date, count(*)
+FROM schedule
+WHERE status <> 0
+GROUP BY dict_id, next_train_date
+ON CONFLICT (dict_id, due_date) DO UPDATE SET words_count = excluded.words_count;
@@ -0,0 +1,3 @@
+-- Предпочтительный час рассылки напоминаний; NULL — интервал выбирается по идентификатору пользователя.
+ALTER TABLE settings ADD COLUMN IF NOT EXISTS reminder_hour smallint
+    CONSTRAINT settings_reminder_hour_check CHECK (reminder_hour BETWEEN 0 AND 23);
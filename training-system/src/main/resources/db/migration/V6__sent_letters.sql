@@ -0,0 +1,13 @@
+-- Журнал отправленных напоминаний, используется email-notification для защиты от повторной отправки.
+-- Ключ — пользователь и дата рассылки; sent_at IS NULL — письмо взято в работу, но ещё не отправлено.
+CREATE TABLE IF NOT EXISTS sent_letters (
+    user_id    bigint       NOT NULL,
+    send_date  date         NOT NULL,
+    email      varchar(255),
+    claimed_at timestamp    NOT NULL,
+    sent_at    timestamp,
+    PRIMARY KEY (user_id, send_date)
+);
+
+-- Удаление старых записей по дате рассылки
+CREATE INDEX IF NOT EXISTS sent_letters_send_date_idx ON sent_letters (send_date);
@@ -0,0 +1,2 @@
+-- Язык писем-напоминаний; NULL — язык по умолчанию сервиса рассылки.
+ALTER TABLE settings ADD COLUMN IF NOT EXISTS locale varchar(16);
@@ -0,0 +1,4 @@
+-- Поиск видимых пользователю словарей начинается с записей ACL его идентификаторов (sid),
+-- а не со всех словарей.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS acl_entry_sid_mask_idx
+    ON acl_entry (sid, mask) INCLUDE (acl_object_identity, granting, ace_order);
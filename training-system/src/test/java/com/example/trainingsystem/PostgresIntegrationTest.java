@@ -0,0 +1,64 @@
+package com.example.trainingsystem;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.MountableFile;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Базовый класс интеграционных тестов на PostgreSQL.
+ * <p>
+ * БД поднимается в Testcontainers так же, как в docker-compose.yml: схему создаёт скрипт
+ * init-db/01-schema.sql, затем приложение применяет миграции Flyway. Если задано системное свойство
+ * {@code test.postgres.url}, вместо контейнера используется эта БД, подготовленная тем же скриптом
+ * (пользователь и пароль в {@code test.postgres.username} и {@code test.postgres.password}).
+ * Без Docker и без этого свойства тесты пропускаются.
+ * </p>
+ */
+@SpringBootTest
+public abstract class PostgresIntegrationTest {
+    private static final String URL_PROPERTY = "test.postgres.url";
+
+    private static PostgreSQLContainer<?> container;
+
+    @BeforeAll
+    static void requirePostgres() {
+        assumeTrue(System.getProperty(URL_PROPERTY) != null || DockerClientFactory.instance().isDockerAvailable(),
+                "нужен Docker или свойство " + URL_PROPERTY);
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        String url = System.getProperty(URL_PROPERTY);
+        if (url != null) {
+            registry.add("spring.datasource.url", () -> url);
+            registry.add("spring.datasource.username", () -> System.getProperty("test.postgres.username", "postgres"));
+            registry.add("spring.datasource.password", () -> System.getProperty("test.postgres.password", "postgres"));
+            return;
+        }
+        PostgreSQLContainer<?> postgres = container();
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    /**
+     * Один контейнер на все тестовые классы, его останавливает Testcontainers по завершении JVM.
+     */
+    private static synchronized PostgreSQLContainer<?> container() {
+        if (container == null) {
+            container = new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("word_train")
+                    .withUrlParam("reWriteBatchedInserts", "true")
+                    .withCopyFileToContainer(MountableFile.forHostPath("../init-db/01-schema.sql"),
+                            "/docker-entrypoint-initdb.d/01-schema.sql");
+            container.start();
+        }
+        return container;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.trainingsystem.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HibernateCacheConfigTest {
+
+    @Test
+    void contextsDoNotShareRegions() {
+        HibernateCacheConfig config = new HibernateCacheConfig();
+        AppConfig appConfig = new AppConfig();
+        CacheManager first = config.hibernateCacheManager(appConfig);
+        CacheManager second = config.hibernateCacheManager(appConfig);
+        try {
+            first.getCache(HibernateCacheConfig.USERS).put(1L, "first");
+            assertThat(second.getCache(HibernateCacheConfig.USERS).get(1L)).isNull();
+
+            //закрытие одного контекста не затрагивает области другого
+            first.close();
+            Cache<Object, Object> users = second.getCache(HibernateCacheConfig.USERS);
+            users.put(1L, "second");
+            assertThat(users.get(1L)).isEqualTo("second");
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+}
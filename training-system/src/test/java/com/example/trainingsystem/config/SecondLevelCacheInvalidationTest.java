@@ -0,0 +1,178 @@
+package com.example.trainingsystem.config;
+
+import com.example.trainingsystem.PostgresIntegrationTest;
+import com.example.trainingsystem.model.Dictionary;
+import com.example.trainingsystem.model.Settings;
+import com.example.trainingsystem.model.User;
+import com.example.trainingsystem.repository.DictionaryRepository;
+import com.example.trainingsystem.repository.SettingsRepository;
+import com.example.trainingsystem.repository.UserRepository;
+import com.example.trainingsystem.security.UserSecurity;
+import com.example.trainingsystem.service.DictService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Изменения пользователей, словарей и настроек видны при следующем чтении, хотя эти сущности
+ * и запрос настроек пользователя читаются из кеша второго уровня.
+ * <p>
+ * Каждый шаг выполняется в своей транзакции: кеш обновляется при фиксации, поэтому данные теста
+ * записываются в БД и удаляются после теста.
+ * </p>
+ */
+class SecondLevelCacheInvalidationTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SettingsRepository settingsRepository;
+
+    @Autowired
+    private DictionaryRepository dictionaryRepository;
+
+    @Autowired
+    private DictService dictService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        user = inTransaction(() -> userRepository.save(
+                new User(0, "cache-test-" + UUID.randomUUID(), "password", "ROLE_USER")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        String dictionaries = "(select cast(id as varchar) from dictionaries where user_id = ?)";
+        jdbcTemplate.update("delete from acl_entry where acl_object_identity in (select id from acl_object_identity " +
+                "where object_id_identity in " + dictionaries + ")", user.getId());
+        jdbcTemplate.update("delete from acl_object_identity where object_id_identity in " + dictionaries, user.getId());
+        jdbcTemplate.update("delete from acl_sid where principal = 1 and sid = ?", user.getName());
+        jdbcTemplate.update("delete from dictionaries where user_id = ?", user.getId());
+        jdbcTemplate.update("delete from settings where user_id = ?", user.getId());
+        jdbcTemplate.update("delete from users where id = ?", user.getId());
+    }
+
+    @Test
+    void userChangesAreReadFresh() {
+        assertCached(() -> userRepository.findById(user.getId()).orElseThrow());
+
+        //правка пользователя, как в UserController
+        inTransaction(() -> {
+            User edited = userRepository.findById(user.getId()).orElseThrow();
+            edited.setRole("ROLE_ADMIN");
+            return userRepository.save(edited);
+        });
+        assertThat(cached(() -> userRepository.findById(user.getId()).orElseThrow()).getRole()).isEqualTo("ROLE_ADMIN");
+
+        //JPQL-обновление пароля при входе
+        inTransaction(() -> {
+            userRepository.updatePassword(user.getId(), "rehashed");
+            return null;
+        });
+        assertThat(inTransaction(() -> userRepository.findById(user.getId()).orElseThrow()).getPassword()).isEqualTo("rehashed");
+        assertThat(cached(() -> userRepository.findById(user.getId()).orElseThrow()).getPassword()).isEqualTo("rehashed");
+    }
+
+    @Test
+    void settingsChangesAreReadFresh() {
+        //пустой результат запроса тоже кешируется
+        assertThat(inTransaction(() -> settingsRepository.findFirstByUser(user))).isNull();
+        assertThat(cachedQuery(() -> settingsRepository.findFirstByUser(user))).isNull();
+
+        Settings created = inTransaction(() -> settingsRepository.save(new Settings(0, managedUser(), 5, 5, null, null, null)));
+        assertThat(inTransaction(() -> settingsRepository.findFirstByUser(user)).getId()).isEqualTo(created.getId());
+        assertThat(cachedQuery(() -> settingsRepository.findFirstByUser(user)).getNewWordsInTrain()).isEqualTo(5);
+
+        inTransaction(() -> {
+            Settings edited = settingsRepository.findById(created.getId()).orElseThrow();
+            edited.setNewWordsInTrain(7);
+            return settingsRepository.save(edited);
+        });
+        assertThat(cached(() -> settingsRepository.findById(created.getId()).orElseThrow()).getNewWordsInTrain()).isEqualTo(7);
+        assertThat(inTransaction(() -> settingsRepository.findFirstByUser(user)).getNewWordsInTrain()).isEqualTo(7);
+        assertThat(cachedQuery(() -> settingsRepository.findFirstByUser(user)).getNewWordsInTrain()).isEqualTo(7);
+    }
+
+    @Test
+    void addedDictionaryIsReadFresh() {
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                new UserSecurity(user), null, new UserSecurity(user).getAuthorities()));
+        Dictionary dictionary = inTransaction(() -> {
+            Dictionary created = new Dictionary(0, "cache-test", LocalDate.now(), null, managedUser());
+            dictService.add(created);
+            return created;
+        });
+
+        assertCached(() -> dictionaryRepository.findById(dictionary.getId()).orElseThrow());
+        inTransaction(() -> {
+            Dictionary edited = dictionaryRepository.findById(dictionary.getId()).orElseThrow();
+            edited.setName("renamed");
+            return dictionaryRepository.save(edited);
+        });
+        assertThat(cached(() -> dictionaryRepository.findById(dictionary.getId()).orElseThrow()).getName()).isEqualTo("renamed");
+    }
+
+    /**
+     * Читает сущность в новой транзакции и проверяет, что она взята из кеша второго уровня.
+     */
+    private <T> T cached(Supplier<T> read) {
+        statistics.clear();
+        T result = inTransaction(read);
+        assertThat(statistics.getSecondLevelCacheHitCount()).as("second-level cache hits").isPositive();
+        assertThat(statistics.getPrepareStatementCount()).as("statements").isZero();
+        return result;
+    }
+
+    /**
+     * Выполняет кешируемый запрос в новой транзакции и проверяет, что результат взят из кеша запросов.
+     */
+    private <T> T cachedQuery(Supplier<T> query) {
+        statistics.clear();
+        T result = inTransaction(query);
+        assertThat(statistics.getQueryCacheHitCount()).as("query cache hits").isPositive();
+        assertThat(statistics.getPrepareStatementCount()).as("statements").isZero();
+        return result;
+    }
+
+    private void assertCached(Supplier<?> read) {
+        inTransaction(read);
+        cached(read);
+    }
+
+    private User managedUser() {
+        return userRepository.findById(user.getId()).orElseThrow();
+    }
+
+    private <T> T inTransaction(Supplier<T> action) {
+        return transactionTemplate.execute(status -> action.get());
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.trainingsystem.controller;
+
+import com.example.trainingsystem.PostgresIntegrationTest;
+import com.example.trainingsystem.model.Dictionary;
+import com.example.trainingsystem.model.User;
+import com.example.trainingsystem.security.UserSecurity;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.acls.domain.BasePermission;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Доступ к словарю чужих пользователей: импорт разрешён владельцу и пользователям с правом WRITE,
+ * выгрузка — владельцу и пользователям с правом READ, остальные получают 403 и ничего не узнают о словаре.
+ */
+@Transactional
+@AutoConfigureMockMvc
+class DictionaryAccessTest extends PostgresIntegrationTest {
+    private static final String CSV = "name,translation\ncat,кошка\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String suffix = UUID.randomUUID().toString();
+    private User owner;
+    private User writer;
+    private User reader;
+    private User stranger;
+    private Dictionary dictionary;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User(0, "owner-" + suffix, "password", "ROLE_USER");
+        dictionary = new Dictionary(0, "access-test", LocalDate.now(), null, owner);
+        entityManager.persist(dictionary);
+        entityManager.flush();
+        writer = new User(0, "writer-" + suffix, "password", "ROLE_USER");
+        reader = new User(0, "reader-" + suffix, "password", "ROLE_USER");
+        stranger = new User(0, "stranger-" + suffix, "password", "ROLE_USER");
+        grant(BasePermission.WRITE.getMask(), writer);
+        grant(BasePermission.READ.getMask(), reader);
+    }
+
+    @Test
+    void importRequiresOwnershipOrWrite() throws Exception {
+        importCsv(owner, dictionary.getId()).andExpect(status().isOk()).andExpect(jsonPath("$.imported").value(1));
+        importCsv(writer, dictionary.getId()).andExpect(status().isOk()).andExpect(jsonPath("$.duplicates").value(1));
+        importCsv(reader, dictionary.getId()).andExpect(status().isForbidden());
+        importCsv(stranger, dictionary.getId()).andExpect(status().isForbidden());
+        importCsv(owner, dictionary.getId() + 1_000_000).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void formImportRequiresOwnershipOrWrite() throws Exception {
+        importFile(owner).andExpect(status().is3xxRedirection());
+        importFile(writer).andExpect(status().is3xxRedirection());
+        importFile(reader).andExpect(status().isForbidden());
+        importFile(stranger).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void importProgressRequiresOwnershipOrWrite() throws Exception {
+        //импорт не идёт
+        importProgress(owner).andExpect(status().isNotFound());
+        importProgress(writer).andExpect(status().isNotFound());
+        importProgress(reader).andExpect(status().isForbidden());
+        importProgress(stranger).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void exportRequiresOwnershipOrRead() throws Exception {
+        export(owner, dictionary.getId());
+        export(reader, dictionary.getId());
+        mockMvc.perform(exportRequest(writer, dictionary.getId())).andExpect(status().isForbidden());
+        mockMvc.perform(exportRequest(stranger, dictionary.getId())).andExpect(status().isForbidden());
+        mockMvc.perform(exportRequest(owner, dictionary.getId() + 1_000_000)).andExpect(status().isForbidden());
+    }
+
+    private void export(User user, long dictId) throws Exception {
+        MvcResult started = mockMvc.perform(exportRequest(user, dictId)).andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("access-test.csv")));
+    }
+
+    private MockHttpServletRequestBuilder exportRequest(User user, long dictId) {
+        return get("/words/export").param("dictId", String.valueOf(dictId)).with(user(new UserSecurity(user)));
+    }
+
+    private ResultActions importCsv(User user, long dictId) throws Exception {
+        return mockMvc.perform(post("/words/import").param("dictId", String.valueOf(dictId))
+                .contentType("text/csv").content(CSV).with(user(new UserSecurity(user))));
+    }
+
+    private ResultActions importFile(User user) throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "words.csv", "text/csv", CSV.getBytes(StandardCharsets.UTF_8));
+        return mockMvc.perform(multipart("/words/import").file(file).param("dictId", String.valueOf(dictionary.getId()))
+                .with(user(new UserSecurity(user))));
+    }
+
+    private ResultActions importProgress(User user) throws Exception {
+        return mockMvc.perform(get("/words/import-progress").param("dictId", String.valueOf(dictionary.getId()))
+                .with(user(new UserSecurity(user))));
+    }
+
+    private void grant(int mask, User user) {
+        jdbcTemplate.update("insert into acl_class (class) values (?) on conflict do nothing", Dictionary.class.getName());
+        long classId = jdbcTemplate.queryForObject("select id from acl_class where class = ?", Long.class, Dictionary.class.getName());
+        Long objectId = jdbcTemplate.query("select id from acl_object_identity where object_id_class = ? and object_id_identity = ?",
+                rs -> rs.next() ? rs.getLong(1) : null, classId, String.valueOf(dictionary.getId()));
+        if (objectId == null) {
+            objectId = jdbcTemplate.queryForObject("insert into acl_object_identity " +
+                            "(object_id_class, object_id_identity, owner_sid, entries_inheriting) values (?, ?, ?, 1) returning id",
+                    Long.class, classId, String.valueOf(dictionary.getId()), sid(owner));
+        }
+        int order = jdbcTemplate.queryForObject("select count(*) from acl_entry where acl_object_identity = ?", Integer.class, objectId);
+        jdbcTemplate.update("insert into acl_entry (acl_object_identity, ace_order, sid, mask, granting, audit_success, audit_failure) " +
+                "values (?, ?, ?, ?, 1, 0, 0)", objectId, order, sid(user), mask);
+    }
+
+    private long sid(User user) {
+        jdbcTemplate.update("insert into acl_sid (principal, sid) values (1, ?) on conflict do nothing", user.getName());
+        return jdbcTemplate.queryForObject("select id from acl_sid where principal = 1 and sid = ?", Long.class, user.getName());
+    }
+}
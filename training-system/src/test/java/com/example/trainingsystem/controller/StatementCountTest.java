@@ -0,0 +1,207 @@
+package com.example.trainingsystem.controller;
+
+import com.example.trainingsystem.PostgresIntegrationTest;
+import com.example.trainingsystem.config.StatementCounter;
+import com.example.trainingsystem.model.Dictionary;
+import com.example.trainingsystem.model.LearningStage;
+import com.example.trainingsystem.model.Schedule;
+import com.example.trainingsystem.model.Settings;
+import com.example.trainingsystem.model.Training;
+import com.example.trainingsystem.model.User;
+import com.example.trainingsystem.model.Word;
+import com.example.trainingsystem.model.WordStatus;
+import com.example.trainingsystem.security.UserSecurity;
+import com.example.trainingsystem.service.DueCounterService;
+import jakarta.persistence.EntityManager;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.acls.domain.BasePermission;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Число SQL-запросов Hibernate на одну страницу, посчитанное {@link StatementCounter}.
+ * <p>
+ * В словарях теста больше строк, чем показывается на странице, поэтому загрузка связей
+ * по одной строке (N+1) сразу выходит за границу. Тренировки создаются в отдельной транзакции
+ * ({@code REQUIRES_NEW}), поэтому данные теста записываются в БД и удаляются после теста.
+ * </p>
+ */
+@Log4j2
+@AutoConfigureMockMvc
+class StatementCountTest extends PostgresIntegrationTest {
+    private static final int DICTIONARIES = 5;
+    private static final int WORDS = 60;
+    private static final int WORDS_IN_TRAINING = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DueCounterService dueCounterService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private Dictionary dictionary;
+    private Word word;
+    private long sid;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            owner = new User(0, "statements-" + UUID.randomUUID(), "password", "ROLE_USER");
+            entityManager.persist(owner);
+            entityManager.persist(new Settings(0, owner, WORDS_IN_TRAINING, WORDS_IN_TRAINING, null, null, null));
+            List<Dictionary> dictionaries = new ArrayList<>();
+            for (int i = 0; i < DICTIONARIES; i++) {
+                Dictionary created = new Dictionary(0, "statements-" + i, LocalDate.now(), null, owner);
+                entityManager.persist(created);
+                dictionaries.add(created);
+            }
+            dictionary = dictionaries.get(0);
+            for (int i = 0; i < WORDS; i++) {
+                Word created = new Word(0, "word" + i, "translation" + i, dictionary);
+                entityManager.persist(created);
+                Schedule schedule = new Schedule(created);
+                if (i % 2 == 0) {
+                    schedule.setStatus(WordStatus.IS_LEARNING);
+                    schedule.setStage(LearningStage.STAGE2);
+                    schedule.setNextTrainDate(LocalDate.now().minusDays(1 + i));
+                }
+                entityManager.persist(schedule);
+                word = created;
+            }
+            entityManager.flush();
+            grantRead(dictionaries);
+        });
+        //счётчики слов к повторению для расписаний, записанных в обход сервиса
+        dueCounterService.reconcile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        String trainings = "(select id from trainings where user_id = ?)";
+        jdbcTemplate.update("delete from results where training_id in " + trainings, owner.getId());
+        jdbcTemplate.update("delete from trainings_words where training_id in " + trainings, owner.getId());
+        jdbcTemplate.update("delete from trainings where user_id = ?", owner.getId());
+        jdbcTemplate.update("delete from acl_entry where sid = ?", sid);
+        jdbcTemplate.update("delete from acl_object_identity where owner_sid = ?", sid);
+        jdbcTemplate.update("delete from acl_sid where id = ?", sid);
+        jdbcTemplate.update("delete from words where dictionary_id in (select id from dictionaries where user_id = ?)", owner.getId());
+        jdbcTemplate.update("delete from dictionaries where user_id = ?", owner.getId());
+        jdbcTemplate.update("delete from settings where user_id = ?", owner.getId());
+        jdbcTemplate.update("delete from users where id = ?", owner.getId());
+    }
+
+    @Test
+    void dictionaryPages() throws Exception {
+        //видимые словари, счётчики слов к повторению
+        perform(2, get("/dicts/all"));
+        //словарь из кеша второго уровня, строки слов
+        perform(1, get("/words/all").param("dictId", id(dictionary)));
+        perform(1, get("/words/all").param("dictId", id(dictionary)).param("sort", "NAME")
+                .param("status", WordStatus.IS_LEARNING.name()));
+        //строки расписания
+        perform(1, get("/words/schedule").param("dictId", id(dictionary)));
+        perform(1, get("/words/schedule").param("dictId", id(dictionary)).param("sort", "WORD"));
+    }
+
+    @Test
+    void wordPages() throws Exception {
+        perform(0, get("/"));
+        //слово и его словарь
+        perform(2, get("/words/edit").param("id", id(word)));
+        perform(1, get("/words/addWord").param("id", id(dictionary)));
+        perform(1, get("/users/all"), user("admin").roles("ADMIN"));
+    }
+
+    @Test
+    void trainingPages() throws Exception {
+        for (String kind : List.of("new", "repeat")) {
+            //словарь, наличие слов, настройки, слова тренировки, запись тренировки и её слов
+            MvcResult created = perform(6, get("/trainings/" + kind).param("dictId", id(dictionary)));
+            Training training = (Training) created.getModelAndView().getModel().get("training");
+            assertThat(training.getWords()).hasSize(WORDS_IN_TRAINING);
+
+            for (int answered = 0; answered < WORDS_IN_TRAINING; answered++) {
+                MvcResult page = perform(1, get("/trainings/{trainingId}/word", training.getId()));
+                Word shown = (Word) page.getModelAndView().getModel().get("word");
+                perform(1, post("/trainings/{trainingId}/word/{wordId}/answer", training.getId(), shown.getId())
+                        .param("success", String.valueOf(answered % 2 == 0)));
+            }
+            //последний переход завершает тренировку: тренировка, результаты, расписания,
+            //одно изменение счётчиков, пакетное обновление расписаний, слова и итоги тренировки
+            MvcResult finished = perform(7, get("/trainings/{trainingId}/word", training.getId()));
+            assertThat(finished.getModelAndView().getViewName()).isEqualTo("training-result");
+            perform(3, get("/trainings/{trainingId}/result", training.getId()));
+        }
+        //счётчики изменены одним запросом и совпадают с расписанием
+        assertThat(dueCounterService.reconcile()).isZero();
+    }
+
+    /**
+     * Выполняет запрос от имени владельца словарей и проверяет, что он выполнил не больше {@code maxStatements} запросов.
+     */
+    private MvcResult perform(int maxStatements, MockHttpServletRequestBuilder request) throws Exception {
+        return perform(maxStatements, request, user(new UserSecurity(owner)));
+    }
+
+    private MvcResult perform(int maxStatements, MockHttpServletRequestBuilder request, RequestPostProcessor principal)
+            throws Exception {
+        MvcResult result = mockMvc.perform(request.with(principal)).andReturn();
+        String name = result.getRequest().getMethod() + " " + result.getRequest().getRequestURI()
+                + (result.getRequest().getQueryString() != null ? "?" + result.getRequest().getQueryString() : "");
+        Integer statements = (Integer) result.getRequest().getAttribute(StatementCounter.COUNT_ATTRIBUTE);
+        log.info(name + ": " + statements + " statements");
+        assertThat(result.getResponse().getStatus()).as(name).isLessThan(400);
+        assertThat(statements).as(name).isNotNull().isLessThanOrEqualTo(maxStatements);
+        return result;
+    }
+
+    private void grantRead(List<Dictionary> dictionaries) {
+        jdbcTemplate.update("insert into acl_class (class) values (?) on conflict do nothing", Dictionary.class.getName());
+        long classId = jdbcTemplate.queryForObject("select id from acl_class where class = ?", Long.class, Dictionary.class.getName());
+        sid = jdbcTemplate.queryForObject("insert into acl_sid (principal, sid) values (1, ?) returning id", Long.class, owner.getName());
+        for (Dictionary granted : dictionaries) {
+            Long objectId = jdbcTemplate.queryForObject("insert into acl_object_identity " +
+                            "(object_id_class, object_id_identity, owner_sid, entries_inheriting) values (?, ?, ?, 1) returning id",
+                    Long.class, classId, String.valueOf(granted.getId()), sid);
+            jdbcTemplate.update("insert into acl_entry (acl_object_identity, ace_order, sid, mask, granting, audit_success, audit_failure) " +
+                    "values (?, 0, ?, ?, 1, 0, 0)", objectId, sid, BasePermission.READ.getMask());
+        }
+    }
+
+    private static String id(Dictionary dictionary) {
+        return String.valueOf(dictionary.getId());
+    }
+
+    private static String id(Word word) {
+        return String.valueOf(word.getId());
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.trainingsystem.controller;
+
+import com.example.trainingsystem.PostgresIntegrationTest;
+import com.example.trainingsystem.model.User;
+import com.example.trainingsystem.repository.UserRepository;
+import com.example.trainingsystem.security.UserDetailSecurityService;
+import com.example.trainingsystem.security.UserSecurity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * После правки, переименования и удаления пользователя через {@link UserController}
+ * {@link UserDetailSecurityService#loadUserByUsername(String)} не отдаёт устаревшие данные из кеша.
+ * <p>
+ * Запросы выполняются в своих транзакциях, как в приложении: в общей транзакции теста кеш хранил бы
+ * ту же управляемую сущность, что правит контроллер. Поэтому данные теста записываются в БД
+ * и удаляются после теста.
+ * </p>
+ */
+@AutoConfigureMockMvc
+class UserCacheEvictionTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserDetailSecurityService userDetailsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String suffix = UUID.randomUUID().toString();
+    private User admin;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        admin = userRepository.save(new User(0, "admin-" + suffix, "password", "ROLE_ADMIN"));
+        user = userRepository.save(new User(0, "user-" + suffix, passwordEncoder.encode("old"), "ROLE_USER"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from users where name like ?", "%-" + suffix);
+    }
+
+    @Test
+    void editedUserIsLoadedFresh() throws Exception {
+        assertThat(roles(userDetailsService.loadUserByUsername(user.getName()))).containsExactly("ROLE_USER");
+
+        edit(user.getName(), "new", "ROLE_ADMIN");
+
+        UserDetails loaded = userDetailsService.loadUserByUsername(user.getName());
+        assertThat(roles(loaded)).containsExactly("ROLE_ADMIN");
+        assertThat(passwordEncoder.matches("new", loaded.getPassword())).isTrue();
+    }
+
+    @Test
+    void emptyPasswordKeepsPassword() throws Exception {
+        userDetailsService.loadUserByUsername(user.getName());
+
+        edit(user.getName(), "", "ROLE_USER");
+
+        assertThat(passwordEncoder.matches("old", userDetailsService.loadUserByUsername(user.getName()).getPassword())).isTrue();
+    }
+
+    @Test
+    void renamedUserIsLoadedByNewNameOnly() throws Exception {
+        String oldName = user.getName();
+        userDetailsService.loadUserByUsername(oldName);
+
+        String newName = "renamed-" + suffix;
+        edit(newName, "", "ROLE_USER");
+
+        assertThatThrownBy(() -> userDetailsService.loadUserByUsername(oldName)).isInstanceOf(UsernameNotFoundException.class);
+        UserDetails loaded = userDetailsService.loadUserByUsername(newName);
+        assertThat(((UserSecurity) loaded).getUser().getId()).isEqualTo(user.getId());
+    }
+
+    @Test
+    void deletedUserIsNotLoaded() throws Exception {
+        userDetailsService.loadUserByUsername(user.getName());
+
+        mockMvc.perform(get("/users/delete").param("id", String.valueOf(user.getId())).with(user(new UserSecurity(admin))))
+                .andExpect(status().is3xxRedirection());
+
+        assertThatThrownBy(() -> userDetailsService.loadUserByUsername(user.getName())).isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    private void edit(String name, String password, String role) throws Exception {
+        mockMvc.perform(post("/users/edit").param("id", String.valueOf(user.getId())).param("name", name)
+                        .param("password", password).param("role", role).with(user(new UserSecurity(admin))))
+                .andExpect(status().is3xxRedirection());
+    }
+
+    private static Iterable<String> roles(UserDetails userDetails) {
+        return AuthorityUtils.authorityListToSet(userDetails.getAuthorities());
+    }
+}
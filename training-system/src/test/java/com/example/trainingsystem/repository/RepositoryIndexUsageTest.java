@@ -0,0 +1,156 @@
+package com.example.trainingsystem.repository;
+
+import com.example.trainingsystem.PostgresIntegrationTest;
+import com.example.trainingsystem.model.Dictionary;
+import com.example.trainingsystem.model.LearningStage;
+import com.example.trainingsystem.model.Result;
+import com.example.trainingsystem.model.Schedule;
+import com.example.trainingsystem.model.Training;
+import com.example.trainingsystem.model.User;
+import com.example.trainingsystem.model.Word;
+import com.example.trainingsystem.model.WordStatus;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет, что запросы ScheduleRepository, ResultRepository и WordRepository читают таблицы по индексам.
+ * <p>
+ * В тестовой БД мало строк, и планировщик выбрал бы последовательное чтение при любых индексах,
+ * поэтому в транзакции теста оно запрещено ({@code enable_seqscan = off}): тогда PostgreSQL читает
+ * таблицу целиком, только если подходящего индекса нет. Число последовательных чтений каждой таблицы
+ * берётся из pg_stat_xact_user_tables до и после запроса.
+ * </p>
+ */
+@Transactional
+class RepositoryIndexUsageTest extends PostgresIntegrationTest {
+    private static final String SEQ_SCANS_SQL = "select relname, seq_scan from pg_stat_xact_user_tables " +
+            "where relname in ('schedule', 'results', 'words', 'trainings_words', 'trainings', 'dictionaries')";
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private ResultRepository resultRepository;
+
+    @Autowired
+    private WordRepository wordRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Dictionary dictionary;
+    private Training training;
+    private List<Word> words;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User(0, "index-test-" + UUID.randomUUID(), "password", "USER");
+        dictionary = new Dictionary(0, "index-test", LocalDate.now(), null, user);
+        entityManager.persist(dictionary);
+        words = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Word word = new Word(0, "word" + i, "translation" + i, dictionary);
+            entityManager.persist(word);
+            Schedule schedule = new Schedule(word);
+            if (i % 2 == 0) {
+                schedule.setStatus(WordStatus.IS_LEARNING);
+                schedule.setStage(LearningStage.STAGE2);
+                schedule.setNextTrainDate(LocalDate.now().minusDays(i));
+            }
+            entityManager.persist(schedule);
+            words.add(word);
+        }
+        training = new Training(dictionary, user, true, words, LocalDate.now());
+        entityManager.persist(training);
+        words.forEach(word -> entityManager.persist(new Result(training, word, true)));
+        entityManager.flush();
+        entityManager.clear();
+        jdbcTemplate.execute("set local enable_seqscan = off");
+    }
+
+    @Test
+    void scheduleQueriesUseIndexes() {
+        LocalDate today = LocalDate.now();
+        Word word = words.get(0);
+        assertNoSeqScan("findAllByDictionary", () -> scheduleRepository.findAllByDictionary(dictionary));
+        assertNoSeqScan("findWordsForRepeat", () -> scheduleRepository.findWordsForRepeat(dictionary, WordStatus.NEW, today));
+        assertNoSeqScan("findWordsForRepeat(limit)",
+                () -> scheduleRepository.findWordsForRepeat(dictionary, WordStatus.NEW, today, Limit.of(5)));
+        assertNoSeqScan("findWordsForNewTraining",
+                () -> scheduleRepository.findWordsForNewTraining(dictionary, WordStatus.NEW, Limit.of(5)));
+        assertNoSeqScan("findRowsByNextTrainDate", () -> scheduleRepository.findRowsByNextTrainDate(
+                dictionary, null, null, LocalDate.of(1970, 1, 1), 0, Limit.of(5)));
+        assertNoSeqScan("findRowsByNextTrainDate(filter)", () -> scheduleRepository.findRowsByNextTrainDate(
+                dictionary, WordStatus.IS_LEARNING, LearningStage.STAGE2, LocalDate.of(1970, 1, 1), 0, Limit.of(5)));
+        assertNoSeqScan("findRowsByWord",
+                () -> scheduleRepository.findRowsByWord(dictionary, null, null, "", 0, Limit.of(5)));
+        assertNoSeqScan("existsByDictionaryAndStatusNotAndNextTrainDateBefore",
+                () -> scheduleRepository.existsByDictionaryAndStatusNotAndNextTrainDateBefore(dictionary, WordStatus.NEW, today));
+        assertNoSeqScan("existsByDictionaryAndStatus",
+                () -> scheduleRepository.existsByDictionaryAndStatus(dictionary, WordStatus.NEW));
+        assertNoSeqScan("findByWord", () -> scheduleRepository.findByWord(word));
+        assertNoSeqScan("findAllByTrainingResults", () -> scheduleRepository.findAllByTrainingResults(training));
+        assertNoSeqScan("insertMissing", () -> scheduleRepository.insertMissing(word.getId() - 1,
+                words.get(words.size() - 1).getId(), today, LearningStage.STAGE1.ordinal(), WordStatus.NEW.ordinal()));
+    }
+
+    @Test
+    void resultQueriesUseIndexes() {
+        assertNoSeqScan("findAllByTraining", () -> resultRepository.findAllByTraining(training));
+        assertNoSeqScan("findExtendedResultByWords",
+                () -> resultRepository.findExtendedResultByWords(training.getId(), words));
+        assertNoSeqScan("findByTrainingAndWord", () -> resultRepository.findByTrainingAndWord(training, words.get(0)));
+    }
+
+    /**
+     * {@link WordRepository#findAll()} читает всю таблицу и не проверяется.
+     */
+    @Test
+    void wordQueriesUseIndexes() {
+        assertNoSeqScan("findAllByDictionary", () -> wordRepository.findAllByDictionary(dictionary));
+        assertNoSeqScan("findMaxId", () -> wordRepository.findMaxId());
+        assertNoSeqScan("findNamesByDictionaryId", () -> wordRepository.findNamesByDictionaryId(dictionary.getId()));
+        assertNoSeqScan("findRowsById", () -> wordRepository.findRowsById(dictionary, null, null, 0, Limit.of(5)));
+        assertNoSeqScan("findRowsById(filter)",
+                () -> wordRepository.findRowsById(dictionary, WordStatus.NEW, LearningStage.STAGE1, 0, Limit.of(5)));
+        assertNoSeqScan("findRowsByName", () -> wordRepository.findRowsByName(dictionary, null, null, "", 0, Limit.of(5)));
+        assertNoSeqScan("streamExportRows", () -> {
+            try (Stream<?> rows = wordRepository.streamExportRows(dictionary.getId())) {
+                rows.forEach(row -> { });
+            }
+        });
+    }
+
+    private void assertNoSeqScan(String query, Runnable call) {
+        Map<String, Long> before = seqScans();
+        call.run();
+        entityManager.clear();
+        assertThat(seqScans()).as(query).isEqualTo(before);
+    }
+
+    private Map<String, Long> seqScans() {
+        Map<String, Long> scans = new HashMap<>();
+        jdbcTemplate.query(SEQ_SCANS_SQL, rs -> {
+            scans.put(rs.getString("relname"), rs.getLong("seq_scan"));
+        });
+        return scans;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.trainingsystem.security;
+
+import com.example.trainingsystem.model.Dictionary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.acls.domain.AclAuthorizationStrategyImpl;
+import org.springframework.security.acls.domain.AclImpl;
+import org.springframework.security.acls.domain.ConsoleAuditLogger;
+import org.springframework.security.acls.domain.DefaultPermissionGrantingStrategy;
+import org.springframework.security.acls.domain.ObjectIdentityImpl;
+import org.springframework.security.acls.domain.PrincipalSid;
+import org.springframework.security.acls.model.Acl;
+import org.springframework.security.acls.model.MutableAcl;
+import org.springframework.security.acls.model.ObjectIdentity;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EhcacheAclCacheTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<EhcacheAclCache> caches = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        caches.forEach(EhcacheAclCache::destroy);
+    }
+
+    @Test
+    void aclIsFoundByObjectIdentityAndPrimaryKey() {
+        EhcacheAclCache cache = cache(10);
+        MutableAcl acl = acl(1, null);
+
+        cache.putInCache(acl);
+
+        assertThat(cache.getFromCache(acl.getObjectIdentity())).isSameAs(acl);
+        assertThat(cache.getFromCache(1L)).isSameAs(acl);
+        assertThat(cache.getFromCache(2L)).isNull();
+        assertThat(meterRegistry.get("acl.cache.gets").tag("result", "hit").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("acl.cache.gets").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void evictionAtMaxEntriesRemovesIndexEntry() {
+        EhcacheAclCache cache = cache(2);
+        List<MutableAcl> acls = List.of(acl(1, null), acl(2, null), acl(3, null));
+
+        acls.forEach(cache::putInCache);
+
+        //какую запись вытеснить, Ehcache выбирает сам
+        List<MutableAcl> evicted = acls.stream().filter(acl -> cache.getFromCache(acl.getObjectIdentity()) == null).toList();
+        assertThat(evicted).hasSize(1);
+        assertThat(cache.getFromCache(evicted.get(0).getId())).isNull();
+        assertThat(size()).isEqualTo(2);
+        assertThat(meterRegistry.get("acl.cache.evictions").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void evictionByPrimaryKeyRemovesAcl() {
+        EhcacheAclCache cache = cache(10);
+        MutableAcl acl = acl(1, null);
+        MutableAcl other = acl(2, null);
+        cache.putInCache(acl);
+        cache.putInCache(other);
+
+        cache.evictFromCache(1L);
+
+        assertThat(cache.getFromCache(acl.getObjectIdentity())).isNull();
+        assertThat(cache.getFromCache(1L)).isNull();
+        assertThat(cache.getFromCache(2L)).isSameAs(other);
+        assertThat(size()).isEqualTo(1);
+        //явное удаление не считается вытеснением
+        assertThat(meterRegistry.get("acl.cache.evictions").counter().count()).isZero();
+    }
+
+    @Test
+    void evictionByObjectIdentityRemovesIndexEntry() {
+        EhcacheAclCache cache = cache(10);
+        MutableAcl acl = acl(1, null);
+        cache.putInCache(acl);
+
+        cache.evictFromCache(acl.getObjectIdentity());
+
+        assertThat(cache.getFromCache(1L)).isNull();
+        assertThat(size()).isZero();
+    }
+
+    @Test
+    void parentAclIsCachedWithChild() {
+        EhcacheAclCache cache = cache(10);
+        MutableAcl parent = acl(1, null);
+        MutableAcl child = acl(2, parent);
+
+        cache.putInCache(child);
+
+        assertThat(cache.getFromCache(parent.getObjectIdentity())).isSameAs(parent);
+        assertThat(cache.getFromCache(1L)).isSameAs(parent);
+        assertThat(cache.getFromCache(2L)).isSameAs(child);
+        assertThat(size()).isEqualTo(2);
+    }
+
+    @Test
+    void clearCacheRemovesAll() {
+        EhcacheAclCache cache = cache(10);
+        MutableAcl acl = acl(1, null);
+        cache.putInCache(acl(2, acl));
+
+        cache.clearCache();
+
+        assertThat(cache.getFromCache(acl.getObjectIdentity())).isNull();
+        assertThat(cache.getFromCache(1L)).isNull();
+        assertThat(cache.getFromCache(2L)).isNull();
+        assertThat(size()).isZero();
+    }
+
+    private EhcacheAclCache cache(long maxEntries) {
+        EhcacheAclCache cache = new EhcacheAclCache(maxEntries, Duration.ofMinutes(10), meterRegistry);
+        caches.add(cache);
+        return cache;
+    }
+
+    private double size() {
+        return meterRegistry.get("acl.cache.size").gauge().value();
+    }
+
+    private static MutableAcl acl(long id, Acl parent) {
+        ObjectIdentity objectIdentity = new ObjectIdentityImpl(Dictionary.class, id);
+        return new AclImpl(objectIdentity, id, new AclAuthorizationStrategyImpl(new SimpleGrantedAuthority("ROLE_ADMIN")),
+                new DefaultPermissionGrantingStrategy(new ConsoleAuditLogger()), parent, null, true,
+                new PrincipalSid("owner"));
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.trainingsystem.security;
+
+import com.example.trainingsystem.PostgresIntegrationTest;
+import com.example.trainingsystem.config.AppConfig;
+import com.example.trainingsystem.migration.V9__HashUserPasswords;
+import org.flywaydb.core.api.migration.Context;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Хранение паролей: миграция открытых паролей в BCrypt и перехеширование при входе,
+ * если сохранённый хеш слабее настроенного {@code app.passwords.bcrypt-strength}.
+ */
+@Transactional
+class PasswordHashingTest extends PostgresIntegrationTest {
+    @Autowired
+    private AuthenticationManager authenticationManager;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private AppConfig appConfig;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final String suffix = UUID.randomUUID().toString();
+
+    @Test
+    void migrationHashesPlaintextAndKeepsHashes() throws Exception {
+        String hash = new BCryptPasswordEncoder(4).encode("hashed");
+        long plaintext = user("plain-" + suffix, "secret");
+        long hashed = user("hashed-" + suffix, hash);
+        Context context = mock(Context.class);
+        when(context.getConnection()).thenReturn(DataSourceUtils.getConnection(dataSource));
+
+        new V9__HashUserPasswords(appConfig).migrate(context);
+        String migrated = password(plaintext);
+        //повторный запуск ничего не меняет
+        new V9__HashUserPasswords(appConfig).migrate(context);
+
+        assertThat(migrated).startsWith(prefix(appConfig.getPasswords().getBcryptStrength()));
+        assertThat(passwordEncoder.matches("secret", migrated)).isTrue();
+        assertThat(password(plaintext)).isEqualTo(migrated);
+        assertThat(password(hashed)).isEqualTo(hash);
+    }
+
+    @Test
+    void loginRehashesWeakerHash() {
+        String name = "weak-" + suffix;
+        long id = user(name, new BCryptPasswordEncoder(4).encode("secret"));
+
+        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(name, "secret"));
+
+        String rehashed = password(id);
+        assertThat(rehashed).startsWith(prefix(appConfig.getPasswords().getBcryptStrength()));
+        assertThat(passwordEncoder.matches("secret", rehashed)).isTrue();
+        //повторный вход с новым хешем его не меняет
+        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(name, "secret"));
+        assertThat(password(id)).isEqualTo(rehashed);
+    }
+
+    @Test
+    void wrongPasswordIsRejectedAndHashIsKept() {
+        String name = "wrong-" + suffix;
+        String hash = new BCryptPasswordEncoder(4).encode("secret");
+        long id = user(name, hash);
+
+        assertThatThrownBy(() -> authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(name, "other")))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThat(password(id)).isEqualTo(hash);
+    }
+
+    private long user(String name, String password) {
+        return jdbcTemplate.queryForObject("insert into users (name, password, role) values (?, ?, 'USER') returning id",
+                Long.class, name, password);
+    }
+
+    private String password(long id) {
+        return jdbcTemplate.queryForObject("select password from users where id = ?", String.class, id);
+    }
+
+    private static String prefix(int strength) {
+        return String.format("$2a$%02d$", strength);
+    }
+}
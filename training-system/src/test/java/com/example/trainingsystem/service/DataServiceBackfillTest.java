@@ -0,0 +1,123 @@
+package com.example.trainingsystem.service;
+
+import com.example.trainingsystem.PostgresIntegrationTest;
+import com.example.trainingsystem.model.Dictionary;
+import com.example.trainingsystem.model.Schedule;
+import com.example.trainingsystem.model.User;
+import com.example.trainingsystem.model.Word;
+import com.example.trainingsystem.repository.BackfillProgressRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Заполнение расписаний для слов без расписания: продолжение с сохранённого места,
+ * повторный запуск без дублей и ход, который не уменьшается.
+ */
+@Transactional
+@TestPropertySource(properties = {"app.backfill.chunk-size=3", "app.backfill.pause=0s"})
+class DataServiceBackfillTest extends PostgresIntegrationTest {
+    private static final int WORDS = 10;
+
+    @Autowired
+    private DataService dataService;
+
+    @Autowired
+    private BackfillProgressRepository progressRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Word> words = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User user = new User(0, "backfill-test-" + UUID.randomUUID(), "password", "ROLE_USER");
+        Dictionary dictionary = new Dictionary(0, "backfill-test", LocalDate.now(), null, user);
+        entityManager.persist(dictionary);
+        for (int i = 0; i < WORDS; i++) {
+            Word word = new Word(0, "word" + i, "translation" + i, dictionary);
+            entityManager.persist(word);
+            //у каждого третьего слова расписание уже есть
+            if (i % 3 == 0) {
+                entityManager.persist(new Schedule(word));
+            }
+            words.add(word);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void resumesAfterSavedWordAndDeletesProgress() throws InterruptedException {
+        //прерванное заполнение успело обработать первые пять слов теста
+        long resumeAfter = words.get(4).getId();
+        progressRepository.saveProgress(DataService.SCHEDULE_BACKFILL, resumeAfter, LocalDateTime.now());
+
+        long created = dataService.fillScheduleWithNewWords();
+
+        //слова 5, 7, 8 после сохранённого места; слова 1, 2, 4 до него остаются без расписания
+        assertThat(created).isEqualTo(3);
+        for (int i = 0; i < WORDS; i++) {
+            boolean processed = i % 3 == 0 || words.get(i).getId() > resumeAfter;
+            assertThat(schedules(words.get(i))).as("word " + i).isEqualTo(processed ? 1 : 0);
+        }
+        assertThat(progressRepository.existsById(DataService.SCHEDULE_BACKFILL)).isFalse();
+    }
+
+    @Test
+    void rerunCreatesNoDuplicates() throws InterruptedException {
+        assertThat(dataService.fillScheduleWithNewWords()).isEqualTo(6);
+        //повторная обработка уже пройденных диапазонов
+        assertThat(dataService.fillScheduleWithNewWords()).isZero();
+        progressRepository.saveProgress(DataService.SCHEDULE_BACKFILL, words.get(0).getId() - 1, LocalDateTime.now());
+        assertThat(dataService.fillScheduleWithNewWords()).isZero();
+
+        assertThat(words).allSatisfy(word -> assertThat(schedules(word)).isEqualTo(1));
+    }
+
+    @Test
+    void progressNeverMovesBack() {
+        progressRepository.saveProgress(DataService.SCHEDULE_BACKFILL, 100, LocalDateTime.now());
+        progressRepository.saveProgress(DataService.SCHEDULE_BACKFILL, 50, LocalDateTime.now());
+        assertThat(lastId()).isEqualTo(100);
+
+        progressRepository.saveProgress(DataService.SCHEDULE_BACKFILL, 150, LocalDateTime.now());
+        assertThat(lastId()).isEqualTo(150);
+    }
+
+    @Test
+    void wordHasAtMostOneSchedule() {
+        Word word = words.get(0);
+
+        assertThatThrownBy(() -> jdbcTemplate.update("insert into schedule (word_id, dict_id, next_train_date, total_number, stage, status) " +
+                "select word_id, dict_id, next_train_date, total_number, stage, status from schedule where word_id = ?", word.getId()))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    private int schedules(Word word) {
+        return jdbcTemplate.queryForObject("select count(*) from schedule where word_id = ?", Integer.class, word.getId());
+    }
+
+    private long lastId() {
+        return jdbcTemplate.queryForObject("select last_id from backfill_progress where name = ?", Long.class,
+                DataService.SCHEDULE_BACKFILL);
+    }
+}
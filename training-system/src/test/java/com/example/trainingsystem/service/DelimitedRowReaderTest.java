@@ -0,0 +1,110 @@
+package com.example.trainingsystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class DelimitedRowReaderTest {
+    private static final int MAX_FIELD_LENGTH = 10;
+
+    @Test
+    void splitsRowsAndFields() throws IOException {
+        assertThat(readAll("a,b,c\nd,,f\n", ',')).containsExactly(List.of("a", "b", "c"), List.of("d", "", "f"));
+        assertThat(readAll("a\tb,c\n", '\t')).containsExactly(List.of("a", "b,c"));
+        //последняя строка без перевода строки и пустое последнее поле
+        assertThat(readAll("a,b\nc,", ',')).containsExactly(List.of("a", "b"), List.of("c", ""));
+    }
+
+    @Test
+    void quotedFieldKeepsDelimiterAndDoubledQuotes() throws IOException {
+        assertThat(readAll("\"a,b\",c\n\"say \"\"hi\"\"\",\"\"\n", ','))
+                .containsExactly(List.of("a,b", "c"), List.of("say \"hi\"", ""));
+        //кавычка не в начале поля — обычный символ
+        assertThat(readAll("a\"b,c\n", ',')).containsExactly(List.of("a\"b", "c"));
+    }
+
+    @Test
+    void quotedFieldKeepsLineBreaks() throws IOException {
+        DelimitedRowReader reader = reader("\"one\ntwo\",x\n\"a\r\nb\rc\",y\nlast,z\n", ',');
+
+        assertThat(reader.next()).containsExactly("one\ntwo", "x");
+        assertThat(reader.getRowLineNumber()).isEqualTo(1);
+        assertThat(reader.next()).containsExactly("a\r\nb\rc", "y");
+        assertThat(reader.getRowLineNumber()).isEqualTo(3);
+        assertThat(reader.next()).containsExactly("last", "z");
+        assertThat(reader.getRowLineNumber()).isEqualTo(6);
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void crLfAndLoneCrEndRows() throws IOException {
+        DelimitedRowReader reader = reader("a,b\r\nc,d\re,f\r", ',');
+
+        assertThat(reader.next()).containsExactly("a", "b");
+        assertThat(reader.next()).containsExactly("c", "d");
+        assertThat(reader.next()).containsExactly("e", "f");
+        assertThat(reader.getRowLineNumber()).isEqualTo(3);
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void blankLinesAreSkipped() throws IOException {
+        DelimitedRowReader reader = reader("\n\r\na,b\n\n\r\rc,d\n\n", ',');
+
+        assertThat(reader.next()).containsExactly("a", "b");
+        assertThat(reader.getRowLineNumber()).isEqualTo(3);
+        assertThat(reader.next()).containsExactly("c", "d");
+        assertThat(reader.getRowLineNumber()).isEqualTo(7);
+        assertThat(reader.next()).isNull();
+        assertThat(readAll("", ',')).isEmpty();
+    }
+
+    @Test
+    void byteOrderMarkIsDropped() throws IOException {
+        assertThat(readAll("\uFEFF\"name,1\",word\n", ','))
+                .containsExactly(List.of("name,1", "word"));
+        //метка не в начале файла остаётся в поле
+        assertThat(readAll("a\n\uFEFFb\n", ',')).containsExactly(List.of("a"), List.of("\uFEFFb"));
+    }
+
+    @Test
+    void unclosedQuoteFails() throws IOException {
+        DelimitedRowReader reader = reader("a,b\n\"c,d\ne,f\n", ',');
+
+        assertThat(reader.next()).containsExactly("a", "b");
+        assertThatIllegalArgumentException().isThrownBy(reader::next).withMessage("unclosed quote in line 2");
+    }
+
+    @Test
+    void fieldLengthIsCapped() throws IOException {
+        String limit = "x".repeat(MAX_FIELD_LENGTH);
+        assertThat(readAll(limit + ",\"" + limit + "\"\n", ',')).containsExactly(List.of(limit, limit));
+
+        DelimitedRowReader reader = reader("a\nb," + limit + "x\n", ',');
+        reader.next();
+        assertThatIllegalArgumentException().isThrownBy(reader::next).withMessage("field too long in line 2");
+        //незакрытая кавычка в большом файле упирается в тот же предел, а не читает файл до конца
+        assertThatIllegalArgumentException().isThrownBy(() -> readAll("\"" + limit + "\n" + limit + "\n", ','))
+                .withMessage("field too long in line 1");
+    }
+
+    private static DelimitedRowReader reader(String text, char delimiter) {
+        return new DelimitedRowReader(new StringReader(text), delimiter, MAX_FIELD_LENGTH);
+    }
+
+    private static List<List<String>> readAll(String text, char delimiter) throws IOException {
+        DelimitedRowReader reader = reader(text, delimiter);
+        List<List<String>> rows = new ArrayList<>();
+        List<String> row;
+        while ((row = reader.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
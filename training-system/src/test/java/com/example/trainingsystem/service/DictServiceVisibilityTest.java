@@ -0,0 +1,175 @@
+package com.example.trainingsystem.service;
+
+import com.example.trainingsystem.PostgresIntegrationTest;
+import com.example.trainingsystem.model.Dictionary;
+import com.example.trainingsystem.model.User;
+import com.example.trainingsystem.repository.DictionaryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.acls.domain.BasePermission;
+import org.springframework.security.acls.domain.ObjectIdentityImpl;
+import org.springframework.security.acls.domain.SidRetrievalStrategyImpl;
+import org.springframework.security.acls.model.AclService;
+import org.springframework.security.acls.model.NotFoundException;
+import org.springframework.security.acls.model.Sid;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сравнивает словари, видимые по запросу {@link DictionaryRepository#VISIBLE_IDS}, с решением
+ * {@code DefaultPermissionGrantingStrategy} для тех же записей ACL.
+ */
+@Transactional
+class DictServiceVisibilityTest extends PostgresIntegrationTest {
+    private static final int READ = BasePermission.READ.getMask();
+    private static final int WRITE = BasePermission.WRITE.getMask();
+
+    @Autowired
+    private DictService dictService;
+
+    @Autowired
+    private DictionaryRepository dictionaryRepository;
+
+    @Autowired
+    private AclService aclService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String suffix = UUID.randomUUID().toString();
+    private final List<Dictionary> dictionaries = new ArrayList<>();
+    private Authentication authentication;
+    private long classId;
+    private long principal;
+    private long roleUser;
+    private long roleEditor;
+    private long stranger;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        String username = "alice-" + suffix;
+        //роли уникальны для теста, чтобы на результат не влияли записи ACL других тестов
+        String user = "ROLE_USER_" + suffix;
+        String editor = "ROLE_EDITOR_" + suffix;
+        authentication = new UsernamePasswordAuthenticationToken(username, "password",
+                AuthorityUtils.createAuthorityList(user, editor));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        jdbcTemplate.update("insert into acl_class (class) values (?) on conflict do nothing", Dictionary.class.getName());
+        classId = jdbcTemplate.queryForObject("select id from acl_class where class = ?", Long.class, Dictionary.class.getName());
+        principal = sid(true, username);
+        roleUser = sid(false, user);
+        roleEditor = sid(false, editor);
+        stranger = sid(true, "bob-" + suffix);
+        owner = new User(0, username, "password", "USER");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void firstEntryOfFirstSidDecides() {
+        Dictionary principalGrant = dictionary(null, true, ace(principal, READ, true));
+        Dictionary roleGrant = dictionary(null, true, ace(roleUser, READ, true));
+        //запрет роли раньше по ace_order не отменяет разрешение пользователю: пользователь проверяется первым
+        Dictionary roleDenyBeforePrincipalGrant = dictionary(null, true, ace(roleUser, READ, false), ace(principal, READ, true));
+        //роли проверяются в порядке Authentication.getAuthorities()
+        Dictionary firstRoleGrants = dictionary(null, true, ace(roleEditor, READ, false), ace(roleUser, READ, true));
+        Dictionary principalDenyAfterGrant = dictionary(null, true, ace(principal, READ, true), ace(principal, READ, false));
+        //не видны
+        dictionary(null, true, ace(principal, READ, false), ace(roleUser, READ, true));
+        dictionary(null, true, ace(roleEditor, READ, true), ace(roleUser, READ, false));
+        dictionary(null, true, ace(principal, WRITE, true));
+        dictionary(null, true, ace(stranger, READ, true));
+        dictionary(null, true);
+
+        assertMatchesGrantingStrategy(principalGrant, roleGrant, roleDenyBeforePrincipalGrant, firstRoleGrants,
+                principalDenyAfterGrant);
+    }
+
+    @Test
+    void undecidedChildInheritsFromParent() {
+        Dictionary parent = dictionary(null, true, ace(roleUser, READ, true));
+        Dictionary inheriting = dictionary(parent, true);
+        Dictionary grandchild = dictionary(inheriting, true, ace(stranger, READ, false));
+        Dictionary deniedParent = dictionary(null, true, ace(principal, READ, false));
+        Dictionary grantedChildOfDenied = dictionary(deniedParent, true, ace(roleEditor, READ, true));
+        //не видны
+        dictionary(parent, false);
+        Dictionary childDenied = dictionary(parent, true, ace(principal, READ, false));
+        dictionary(childDenied, true);
+        dictionary(deniedParent, true, ace(principal, WRITE, true));
+
+        assertMatchesGrantingStrategy(parent, inheriting, grandchild, grantedChildOfDenied);
+    }
+
+    /**
+     * Проверяет, что запрос и {@code DefaultPermissionGrantingStrategy} видят из словарей теста одни и те же,
+     * и что это ровно {@code expected}.
+     */
+    private void assertMatchesGrantingStrategy(Dictionary... expected) {
+        Set<Long> ids = dictionaries.stream().map(Dictionary::getId).collect(Collectors.toSet());
+        Set<Long> visible = dictService.getVisible(Pageable.unpaged()).stream()
+                .map(Dictionary::getId).filter(ids::contains).collect(Collectors.toSet());
+        List<Sid> sids = new SidRetrievalStrategyImpl().getSids(authentication);
+        Set<Long> granted = dictionaries.stream().filter(dictionary -> isGranted(dictionary, sids))
+                .map(Dictionary::getId).collect(Collectors.toSet());
+
+        assertThat(visible).isEqualTo(granted)
+                .containsExactlyInAnyOrderElementsOf(List.of(expected).stream().map(Dictionary::getId).toList());
+    }
+
+    private boolean isGranted(Dictionary dictionary, List<Sid> sids) {
+        try {
+            return aclService.readAclById(new ObjectIdentityImpl(Dictionary.class, dictionary.getId()), sids)
+                    .isGranted(List.of(BasePermission.READ), sids, false);
+        } catch (NotFoundException e) {
+            return false;
+        }
+    }
+
+    private Dictionary dictionary(Dictionary parent, boolean inheriting, long[]... aces) {
+        Dictionary dictionary = dictionaryRepository.save(new Dictionary(0, "acl-test", LocalDate.now(), null, owner));
+        owner = dictionary.getUser();
+        Long parentId = parent != null
+                ? jdbcTemplate.queryForObject("select id from acl_object_identity where object_id_class = ? and object_id_identity = ?",
+                Long.class, classId, String.valueOf(parent.getId()))
+                : null;
+        Long objectId = jdbcTemplate.queryForObject("insert into acl_object_identity " +
+                        "(object_id_class, object_id_identity, parent_object, owner_sid, entries_inheriting) values (?, ?, ?, ?, ?) returning id",
+                Long.class, classId, String.valueOf(dictionary.getId()), parentId, principal, inheriting ? 1 : 0);
+        for (int order = 0; order < aces.length; order++) {
+            jdbcTemplate.update("insert into acl_entry (acl_object_identity, ace_order, sid, mask, granting, audit_success, audit_failure) " +
+                    "values (?, ?, ?, ?, ?, 0, 0)", objectId, order, aces[order][0], aces[order][1], aces[order][2]);
+        }
+        dictionaries.add(dictionary);
+        return dictionary;
+    }
+
+    private static long[] ace(long sid, int mask, boolean granting) {
+        return new long[]{sid, mask, granting ? 1 : 0};
+    }
+
+    private long sid(boolean principal, String name) {
+        return jdbcTemplate.queryForObject("insert into acl_sid (principal, sid) values (?, ?) returning id",
+                Long.class, principal ? 1 : 0, name);
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.trainingsystem.service;
+
+import com.example.trainingsystem.PostgresIntegrationTest;
+import com.example.trainingsystem.model.Dictionary;
+import com.example.trainingsystem.model.Schedule;
+import com.example.trainingsystem.model.Training;
+import com.example.trainingsystem.model.TrainingSession;
+import com.example.trainingsystem.model.User;
+import com.example.trainingsystem.model.Word;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Завершение тренировки одновременно с фоновой записью ответов {@link ResultWriter#flushAll()}:
+ * расписание строится по всем ответам, даже если фоновая запись их уже забрала из очереди
+ * или не смогла записать. При откате завершения ответы возвращаются в очередь,
+ * и тренировку можно завершить снова.
+ * <p>
+ * Пакетная запись ответов перехватывается, чтобы остановить фоновый поток посреди записи.
+ * Тренировка завершается в своей транзакции, поэтому данные теста записываются в БД и удаляются после теста.
+ * </p>
+ */
+@TestPropertySource(properties = "app.results.flush-interval=1h")
+class FinishTrainingRaceTest extends PostgresIntegrationTest {
+    private static final int WORDS = 6;
+
+    @MockitoSpyBean
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TrainService trainService;
+
+    @Autowired
+    private ResultWriter resultWriter;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+    private Training training;
+    private TrainingSession session;
+
+    /** Поток, запись которого останавливается до {@link #writeReleased} */
+    private volatile Thread blockedWriter;
+    private volatile boolean failBlockedWrite;
+    /** Запись проходит, но затем бросает исключение, и транзакция откатывается */
+    private volatile boolean failAfterWrite;
+    private final CountDownLatch writeStarted = new CountDownLatch(1);
+    private final CountDownLatch writeReleased = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            if (Thread.currentThread() == blockedWriter) {
+                writeStarted.countDown();
+                writeReleased.await(10, TimeUnit.SECONDS);
+                if (failBlockedWrite) {
+                    throw new DataAccessResourceFailureException("write failed");
+                }
+            }
+            Object result = invocation.callRealMethod();
+            if (failAfterWrite) {
+                failAfterWrite = false;
+                throw new DataAccessResourceFailureException("failed after write");
+            }
+            return result;
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            user = new User(0, "finish-race-" + UUID.randomUUID(), "password", "ROLE_USER");
+            Dictionary dictionary = new Dictionary(0, "finish-race", LocalDate.now(), null, user);
+            entityManager.persist(dictionary);
+            List<Word> words = new ArrayList<>();
+            for (int i = 0; i < WORDS; i++) {
+                Word word = new Word(0, "word" + i, "translation" + i, dictionary);
+                entityManager.persist(word);
+                entityManager.persist(new Schedule(word));
+                words.add(word);
+            }
+            training = new Training(dictionary, user, false, words, LocalDate.now());
+            entityManager.persist(training);
+        });
+        session = new TrainingSession(training, user.getId());
+        for (Word word : training.getWords()) {
+            trainService.saveWordResult(session, word.getId(), true);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        //ответы, оставшиеся в очереди после неудачного теста, не должны попасть в БД после удаления данных
+        resultWriter.flush(training.getId());
+        jdbcTemplate.update("delete from results where training_id = ?", training.getId());
+        jdbcTemplate.update("delete from trainings_words where training_id = ?", training.getId());
+        jdbcTemplate.update("delete from trainings where id = ?", training.getId());
+        jdbcTemplate.update("delete from words where dictionary_id in (select id from dictionaries where user_id = ?)", user.getId());
+        jdbcTemplate.update("delete from dictionaries where user_id = ?", user.getId());
+        jdbcTemplate.update("delete from users where id = ?", user.getId());
+    }
+
+    @Test
+    void finishWaitsForBackgroundWrite() throws Exception {
+        CompletableFuture<Void> background = flushAllInBackground();
+        CompletableFuture<Void> finish = CompletableFuture.runAsync(() -> trainService.finishTraining(training, session));
+
+        //завершение ждёт, пока фоновый поток допишет забранные из очереди ответы
+        Thread.sleep(200);
+        assertThat(finish).isNotDone();
+        writeReleased.countDown();
+        background.get(10, TimeUnit.SECONDS);
+        finish.get(10, TimeUnit.SECONDS);
+
+        assertThat(results()).isEqualTo(WORDS);
+        assertThat(trainedSchedules()).isEqualTo(WORDS);
+    }
+
+    @Test
+    void finishWritesAnswersOfFailedBackgroundWrite() throws Exception {
+        failBlockedWrite = true;
+        CompletableFuture<Void> background = flushAllInBackground();
+        CompletableFuture<Void> finish = CompletableFuture.runAsync(() -> trainService.finishTraining(training, session));
+
+        Thread.sleep(200);
+        assertThat(finish).isNotDone();
+        writeReleased.countDown();
+        background.get(10, TimeUnit.SECONDS);
+        finish.get(10, TimeUnit.SECONDS);
+
+        //фоновый поток вернул ответы в очередь, и завершение записало их само
+        assertThat(results()).isEqualTo(WORDS);
+        assertThat(trainedSchedules()).isEqualTo(WORDS);
+        assertThat(resultWriter.getPendingCount()).isZero();
+    }
+
+    @Test
+    void rolledBackFinishRequeuesAnswersAndCanBeRetried() {
+        failAfterWrite = true;
+
+        assertThatThrownBy(() -> trainService.finishTraining(training, session))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        assertThat(results()).isZero();
+        assertThat(trainedSchedules()).isZero();
+        assertThat(resultWriter.getPendingCount()).isEqualTo(WORDS);
+        assertThat(session.isFinished()).isFalse();
+
+        trainService.finishTraining(training, session);
+
+        assertThat(session.isFinished()).isTrue();
+        assertThat(results()).isEqualTo(WORDS);
+        assertThat(trainedSchedules()).isEqualTo(WORDS);
+        //завершённая тренировка повторно не пересчитывается
+        trainService.finishTraining(training, session);
+        assertThat(trainedSchedules()).isEqualTo(WORDS);
+    }
+
+    private CompletableFuture<Void> flushAllInBackground() throws InterruptedException {
+        CompletableFuture<Void> background = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                resultWriter.flushAll();
+                background.complete(null);
+            } catch (RuntimeException e) {
+                background.completeExceptionally(e);
+            }
+        }, "flush-all-test");
+        blockedWriter = thread;
+        thread.start();
+        assertThat(writeStarted.await(10, TimeUnit.SECONDS)).isTrue();
+        return background;
+    }
+
+    private int results() {
+        return jdbcTemplate.queryForObject("select count(*) from results where training_id = ?", Integer.class, training.getId());
+    }
+
+    private int trainedSchedules() {
+        return jdbcTemplate.queryForObject("select count(*) from schedule s join words w on w.id = s.word_id " +
+                "where w.dictionary_id = ? and s.total_number = 1", Integer.class, training.getDictionary().getId());
+    }
+}
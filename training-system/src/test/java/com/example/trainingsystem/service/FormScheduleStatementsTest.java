@@ -0,0 +1,91 @@
+package com.example.trainingsystem.service;
+
+import com.example.trainingsystem.PostgresIntegrationTest;
+import com.example.trainingsystem.model.Dictionary;
+import com.example.trainingsystem.model.Result;
+import com.example.trainingsystem.model.Schedule;
+import com.example.trainingsystem.model.Training;
+import com.example.trainingsystem.model.User;
+import com.example.trainingsystem.model.Word;
+import com.example.trainingsystem.model.WordStatus;
+import jakarta.persistence.EntityManager;
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Число SQL-запросов {@link TrainService#formSchedule(Training)} не зависит от размера тренировки:
+ * расписания читаются одним запросом и записываются одним пакетным обновлением
+ * (hibernate.jdbc.batch_size), которое переиспользует подготовленный запрос.
+ */
+@Log4j2
+@Transactional
+class FormScheduleStatementsTest extends PostgresIntegrationTest {
+    /** Результаты, расписания со словами и словарями, пакетное обновление расписаний, счётчики слов к повторению. */
+    private static final int MAX_STATEMENTS = 4;
+
+    @Autowired
+    private TrainService trainService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @ParameterizedTest
+    @ValueSource(ints = {20, 200, 2000})
+    void statementCountDoesNotGrowWithTrainingSize(int size) {
+        Training training = createTraining(size);
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        long start = System.nanoTime();
+        trainService.formSchedule(training);
+        entityManager.flush();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        long statements = statistics.getPrepareStatementCount();
+        log.info("formSchedule: " + size + " words, " + statements + " statements, " + millis + " ms");
+        assertThat(statements).isLessThanOrEqualTo(MAX_STATEMENTS);
+
+        entityManager.clear();
+        List<Schedule> schedules = entityManager.createQuery("select s from schedule s where s.dictionary = ?1", Schedule.class)
+                .setParameter(1, training.getDictionary())
+                .getResultList();
+        assertThat(schedules).hasSize(size)
+                .allSatisfy(schedule -> {
+                    assertThat(schedule.getStatus()).isEqualTo(WordStatus.IS_LEARNING);
+                    assertThat(schedule.getTotalTrainNumber()).isEqualTo(1);
+                });
+    }
+
+    private Training createTraining(int size) {
+        User user = new User(0, "schedule-test-" + UUID.randomUUID(), "password", "USER");
+        Dictionary dictionary = new Dictionary(0, "schedule-test", LocalDate.now(), null, user);
+        entityManager.persist(dictionary);
+        List<Word> words = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Word word = new Word(0, "word" + i, "translation" + i, dictionary);
+            entityManager.persist(word);
+            entityManager.persist(new Schedule(word));
+            words.add(word);
+        }
+        Training training = new Training(dictionary, user, false, words, LocalDate.now());
+        entityManager.persist(training);
+        for (int i = 0; i < size; i++) {
+            entityManager.persist(new Result(training, words.get(i), i % 3 != 0));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return training;
+    }
+}
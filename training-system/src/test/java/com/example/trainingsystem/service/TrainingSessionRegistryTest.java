@@ -0,0 +1,189 @@
+package com.example.trainingsystem.service;
+
+import com.example.trainingsystem.config.AppConfig;
+import com.example.trainingsystem.exception.NotFoundException;
+import com.example.trainingsystem.model.Training;
+import com.example.trainingsystem.model.TrainingSession;
+import com.example.trainingsystem.model.Word;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrainingSessionRegistryTest {
+    private static final long OWNER = 1;
+    private static final Duration IDLE_TIMEOUT = Duration.ofMillis(200);
+
+    private final AtomicInteger restored = new AtomicInteger();
+
+    @Test
+    void openedSessionIsReused() {
+        TrainingSessionRegistry registry = registry(10, Duration.ofMinutes(30));
+        Training training = training(1);
+
+        TrainingSession session = registry.open(training, OWNER);
+
+        assertThat(registry.getOrOpen(training, OWNER, noResults())).isSameAs(session);
+        assertThat(restored).hasValue(0);
+        assertThat(registry.size()).isEqualTo(1);
+    }
+
+    @Test
+    void missingSessionIsRestoredFromSavedResults() {
+        TrainingSessionRegistry registry = registry(10, Duration.ofMinutes(30));
+        Training training = training(1);
+        long first = training.getWords().get(0).getId();
+
+        TrainingSession session = registry.getOrOpen(training, OWNER, results(Map.of(first, true)));
+
+        assertThat(restored).hasValue(1);
+        assertThat(session.getStats().getTrainedWordsNumber()).isEqualTo(1);
+        assertThat(session.isFinished()).isFalse();
+        assertThat(registry.getOrOpen(training, OWNER, noResults())).isSameAs(session);
+    }
+
+    @Test
+    void sessionWithAllAnswersIsRestoredFinished() {
+        TrainingSessionRegistry registry = registry(10, Duration.ofMinutes(30));
+        Training training = training(1);
+        Map<Long, Boolean> answers = new HashMap<>();
+        training.getWords().forEach(word -> answers.put(word.getId(), false));
+
+        TrainingSession session = registry.getOrOpen(training, OWNER, results(answers));
+
+        assertThat(session.isCompleted()).isTrue();
+        assertThat(session.isFinished()).isTrue();
+        assertThat(session.finish()).isFalse();
+    }
+
+    @Test
+    void otherUserGetsNotFound() {
+        TrainingSessionRegistry registry = registry(10, Duration.ofMinutes(30));
+        Training training = training(1);
+        registry.open(training, OWNER);
+
+        assertThatThrownBy(() -> registry.getOrOpen(training, OWNER + 1, noResults())).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void leastRecentlyUsedSessionIsEvictedAtLimit() throws InterruptedException {
+        TrainingSessionRegistry registry = registry(2, Duration.ofMinutes(30));
+        Training first = training(1);
+        Training second = training(2);
+        TrainingSession firstSession = registry.open(first, OWNER);
+        Thread.sleep(5);
+        TrainingSession secondSession = registry.open(second, OWNER);
+        Thread.sleep(5);
+        //обращение к первой тренировке делает самой давней вторую
+        registry.getOrOpen(first, OWNER, noResults());
+        Thread.sleep(5);
+
+        registry.open(training(3), OWNER);
+
+        assertThat(registry.size()).isEqualTo(2);
+        assertThat(registry.getOrOpen(first, OWNER, noResults())).isSameAs(firstSession);
+        assertThat(restored).hasValue(0);
+        assertThat(registry.getOrOpen(second, OWNER, noResults())).isNotSameAs(secondSession);
+        assertThat(restored).hasValue(1);
+        assertThat(registry.size()).isEqualTo(2);
+    }
+
+    @Test
+    void idleSessionsExpire() throws InterruptedException {
+        TrainingSessionRegistry registry = registry(10, IDLE_TIMEOUT);
+        Training idle = training(1);
+        Training active = training(2);
+        TrainingSession idleSession = registry.open(idle, OWNER);
+        registry.open(active, OWNER);
+
+        Thread.sleep(IDLE_TIMEOUT.toMillis() * 3 / 4);
+        registry.getOrOpen(active, OWNER, noResults());
+        Thread.sleep(IDLE_TIMEOUT.toMillis() * 3 / 4);
+        registry.evictExpired();
+
+        assertThat(registry.size()).isEqualTo(1);
+        assertThat(registry.getOrOpen(idle, OWNER, noResults())).isNotSameAs(idleSession);
+        assertThat(restored).hasValue(1);
+    }
+
+    @Test
+    void expiredSessionIsReplacedOnAccess() throws InterruptedException {
+        TrainingSessionRegistry registry = registry(10, IDLE_TIMEOUT);
+        Training training = training(1);
+        TrainingSession session = registry.open(training, OWNER);
+
+        Thread.sleep(IDLE_TIMEOUT.toMillis() + 50);
+
+        //сессия ещё в хранилище, но просрочена: её заменяет восстановленная из БД
+        assertThat(registry.getOrOpen(training, OWNER, noResults())).isNotSameAs(session);
+        assertThat(restored).hasValue(1);
+        assertThat(registry.size()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredSessionsAreEvictedBeforeRecentOnes() throws InterruptedException {
+        TrainingSessionRegistry registry = registry(2, IDLE_TIMEOUT);
+        registry.open(training(1), OWNER);
+        Thread.sleep(IDLE_TIMEOUT.toMillis() + 50);
+        Training recent = training(2);
+        TrainingSession recentSession = registry.open(recent, OWNER);
+
+        registry.open(training(3), OWNER);
+
+        assertThat(registry.size()).isEqualTo(2);
+        assertThat(registry.getOrOpen(recent, OWNER, noResults())).isSameAs(recentSession);
+    }
+
+    @Test
+    void finishIsRepeatableUntilCommitted() {
+        TrainingSession session = new TrainingSession(training(1), OWNER);
+
+        assertThat(session.finish()).isTrue();
+        //завершение уже идёт в другом запросе
+        assertThat(session.finish()).isFalse();
+        assertThat(session.isFinished()).isFalse();
+        session.finishCompleted(false);
+
+        assertThat(session.finish()).isTrue();
+        session.finishCompleted(true);
+        assertThat(session.isFinished()).isTrue();
+        assertThat(session.finish()).isFalse();
+    }
+
+    private static TrainingSessionRegistry registry(int maxActive, Duration idleTimeout) {
+        AppConfig appConfig = new AppConfig();
+        appConfig.getSessions().setMaxActive(maxActive);
+        appConfig.getSessions().setIdleTimeout(idleTimeout);
+        return new TrainingSessionRegistry(appConfig);
+    }
+
+    private static Training training(long id) {
+        List<Word> words = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            words.add(new Word(id * 10 + i, "word" + i, "translation" + i, null));
+        }
+        Training training = new Training(null, null, false, words, LocalDate.now());
+        training.setId(id);
+        return training;
+    }
+
+    private Supplier<Map<Long, Boolean>> noResults() {
+        return results(Map.of());
+    }
+
+    private Supplier<Map<Long, Boolean>> results(Map<Long, Boolean> saved) {
+        return () -> {
+            restored.incrementAndGet();
+            return saved;
+        };
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.trainingsystem.service;
+
+import com.example.trainingsystem.PostgresIntegrationTest;
+import com.example.trainingsystem.dto.ExportFormat;
+import com.example.trainingsystem.dto.WordImportResultDto;
+import com.example.trainingsystem.model.Dictionary;
+import com.example.trainingsystem.model.Schedule;
+import com.example.trainingsystem.model.User;
+import com.example.trainingsystem.model.Word;
+import com.example.trainingsystem.security.UserSecurity;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Формат выгрузки словаря: экранирование CSV по RFC 4180, по одному объекту JSON на строку в NDJSON,
+ * сжатие gzip и повторная загрузка выгрузки через {@link WordImportService}.
+ * <p>
+ * Выгрузка через контроллер пишется в другом потоке и не видит транзакцию теста,
+ * поэтому данные теста записываются в БД и удаляются после теста.
+ * </p>
+ */
+@AutoConfigureMockMvc
+class WordExportServiceTest extends PostgresIntegrationTest {
+    private static final String CSV_HEADER = "name,translation,context,example,add_date,"
+            + "next_train_date,last_train_date,total_number,stage,status,learnt_date\r\n";
+
+    @Autowired
+    private WordExportService exportService;
+
+    @Autowired
+    private WordImportService importService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Dictionary dictionary;
+    private Dictionary empty;
+    private final List<Word> words = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            user = new User(0, "export-" + UUID.randomUUID(), "password", "ROLE_USER");
+            dictionary = new Dictionary(0, "export-test", LocalDate.now(), null, user);
+            entityManager.persist(dictionary);
+            empty = new Dictionary(0, "export-empty", LocalDate.now(), null, user);
+            entityManager.persist(empty);
+            word("cat, kitten", "кошка", null, "She said \"meow\"");
+            word("dog", "собака", "pet", "first line\nsecond line");
+            word("plain", "простое", null, null);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from schedule where dict_id in (select id from dictionaries where user_id = ?)", user.getId());
+        jdbcTemplate.update("delete from words where dictionary_id in (select id from dictionaries where user_id = ?)", user.getId());
+        jdbcTemplate.update("delete from dictionaries where user_id = ?", user.getId());
+        jdbcTemplate.update("delete from users where id = ?", user.getId());
+    }
+
+    @Test
+    void csvQuotesFieldsPerRfc4180() throws IOException {
+        String csv = export(dictionary, ExportFormat.CSV);
+
+        String schedule = "," + LocalDate.now() + "," + LocalDate.now() + ",,0,STAGE1,NEW,\r\n";
+        assertThat(csv).isEqualTo(CSV_HEADER
+                + "\"cat, kitten\",кошка,,\"She said \"\"meow\"\"\"" + schedule
+                + "dog,собака,pet,\"first line\nsecond line\"" + schedule
+                + "plain,простое,," + schedule);
+
+        List<List<String>> rows = parseCsv(csv);
+        assertThat(rows).hasSize(4);
+        assertThat(rows.get(1).subList(0, 4)).containsExactly("cat, kitten", "кошка", "", "She said \"meow\"");
+        assertThat(rows.get(2).subList(0, 4)).containsExactly("dog", "собака", "pet", "first line\nsecond line");
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerLine() throws IOException {
+        String ndjson = export(dictionary, ExportFormat.NDJSON);
+
+        assertThat(ndjson).endsWith("}\n");
+        String[] lines = ndjson.split("\n");
+        assertThat(lines).hasSize(words.size());
+        for (int i = 0; i < lines.length; i++) {
+            JsonNode row = objectMapper.readTree(lines[i]);
+            assertThat(row.get("name").asText()).isEqualTo(words.get(i).getName());
+            assertThat(row.get("example").isNull() ? null : row.get("example").asText()).isEqualTo(words.get(i).getExample());
+            assertThat(row.get("stage").asText()).isEqualTo("STAGE1");
+        }
+    }
+
+    @Test
+    void emptyDictionaryHasNoRows() throws IOException {
+        assertThat(export(empty, ExportFormat.NDJSON)).isEmpty();
+        assertThat(export(empty, ExportFormat.CSV)).isEqualTo(CSV_HEADER);
+    }
+
+    @Test
+    void gzipDecompressesToSameContent() throws Exception {
+        for (ExportFormat format : ExportFormat.values()) {
+            byte[] plain = download(format, false);
+            byte[] compressed = download(format, true);
+
+            assertThat(plain).isNotEmpty();
+            try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+                assertThat(input.readAllBytes()).as(format.name()).isEqualTo(plain);
+            }
+        }
+    }
+
+    @Test
+    void exportedCsvImportsBack() throws IOException {
+        String csv = export(dictionary, ExportFormat.CSV);
+
+        WordImportResultDto result = importService.importWords(empty.getId(),
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ',');
+
+        assertThat(result.getImported()).isEqualTo(words.size());
+        assertThat(result.getInvalid()).isZero();
+        //слова и поля совпадают, расписание у загруженных слов новое
+        assertThat(export(empty, ExportFormat.CSV)).isEqualTo(csv);
+    }
+
+    private void word(String name, String translation, String context, String example) {
+        Word word = new Word(0, name, translation, dictionary);
+        word.setContext(context);
+        word.setExample(example);
+        word.setAddedDate(LocalDate.now());
+        entityManager.persist(word);
+        entityManager.persist(new Schedule(word));
+        words.add(word);
+    }
+
+    private String export(Dictionary dict, ExportFormat format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        exportService.export(dict.getId(), format, output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private byte[] download(ExportFormat format, boolean gzip) throws Exception {
+        MvcResult started = mockMvc.perform(get("/words/export").param("dictId", String.valueOf(dictionary.getId()))
+                        .param("format", format.name()).param("gzip", String.valueOf(gzip)).with(user(new UserSecurity(user))))
+                .andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn().getResponse().getContentAsByteArray();
+    }
+
+    private static List<List<String>> parseCsv(String csv) throws IOException {
+        DelimitedRowReader reader = new DelimitedRowReader(new StringReader(csv), ',', Integer.MAX_VALUE);
+        List<List<String>> rows = new ArrayList<>();
+        List<String> row;
+        while ((row = reader.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.trainingsystem.service;
+
+import com.example.trainingsystem.PostgresIntegrationTest;
+import com.example.trainingsystem.dto.KeysetPage;
+import com.example.trainingsystem.dto.ScheduleRowDto;
+import com.example.trainingsystem.dto.ScheduleSort;
+import com.example.trainingsystem.dto.WordRowDto;
+import com.example.trainingsystem.dto.WordSort;
+import com.example.trainingsystem.model.Dictionary;
+import com.example.trainingsystem.model.LearningStage;
+import com.example.trainingsystem.model.Schedule;
+import com.example.trainingsystem.model.User;
+import com.example.trainingsystem.model.Word;
+import com.example.trainingsystem.model.WordStatus;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Постраничный вывод по ключу: страницы, пройденные по nextKey/nextId, дают все строки
+ * словаря ровно по одному разу и в порядке сортировки, в том числе при одинаковых значениях ключа.
+ */
+@Transactional
+class WordServiceKeysetTest extends PostgresIntegrationTest {
+    private static final int WORDS = 23;
+    private static final int PAGE_SIZE = 5;
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 17);
+
+    @Autowired
+    private WordService wordService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Dictionary dictionary;
+    private final List<Schedule> schedules = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User user = new User(0, "keyset-test-" + UUID.randomUUID(), "password", "ROLE_USER");
+        dictionary = new Dictionary(0, "keyset-test", LocalDate.now(), null, user);
+        entityManager.persist(dictionary);
+        for (int i = 0; i < WORDS; i++) {
+            //повторяющиеся названия и даты: порядок внутри них задаёт идентификатор
+            Word word = new Word(0, "word" + (char) ('a' + i % 7), "translation" + i, dictionary);
+            entityManager.persist(word);
+            Schedule schedule = new Schedule(word);
+            schedule.setNextTrainDate(TODAY.plusDays(i % 4));
+            if (i % 3 == 0) {
+                schedule.setStatus(WordStatus.IS_LEARNING);
+                schedule.setStage(LearningStage.STAGE2);
+            }
+            entityManager.persist(schedule);
+            schedules.add(schedule);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void wordPagesCoverDictionaryInOrder() {
+        Comparator<Schedule> byId = Comparator.comparing(schedule -> schedule.getWord().getId());
+        Comparator<Schedule> byName = Comparator.<Schedule, String>comparing(schedule -> schedule.getWord().getName())
+                .thenComparing(byId);
+
+        assertThat(wordPages(WordSort.ID, null)).containsExactlyElementsOf(expectedWordIds(null, byId));
+        assertThat(wordPages(WordSort.NAME, null)).containsExactlyElementsOf(expectedWordIds(null, byName));
+        assertThat(wordPages(WordSort.NAME, WordStatus.IS_LEARNING))
+                .containsExactlyElementsOf(expectedWordIds(WordStatus.IS_LEARNING, byName));
+    }
+
+    @Test
+    void schedulePagesCoverDictionaryInOrder() {
+        Comparator<Schedule> byDate = Comparator.comparing(Schedule::getNextTrainDate).thenComparing(Schedule::getId);
+        Comparator<Schedule> byWord = Comparator.<Schedule, String>comparing(schedule -> schedule.getWord().getName())
+                .thenComparing(Schedule::getId);
+
+        assertThat(schedulePages(ScheduleSort.NEXT_TRAIN_DATE, null)).containsExactlyElementsOf(expectedScheduleIds(null, byDate));
+        assertThat(schedulePages(ScheduleSort.WORD, null)).containsExactlyElementsOf(expectedScheduleIds(null, byWord));
+        assertThat(schedulePages(ScheduleSort.NEXT_TRAIN_DATE, WordStatus.NEW))
+                .containsExactlyElementsOf(expectedScheduleIds(WordStatus.NEW, byDate));
+    }
+
+    @Test
+    void lastPageHasNoNext() {
+        KeysetPage<WordRowDto> page = wordService.getWordRows(dictionary, null, null, WordSort.ID, null, 0, WORDS);
+
+        assertThat(page.getRows()).hasSize(WORDS);
+        assertThat(page.isHasNext()).isFalse();
+    }
+
+    @Test
+    void invalidDateKeyIsBadRequest() {
+        assertThatThrownBy(() -> wordService.getScheduleRows(dictionary, null, null, ScheduleSort.NEXT_TRAIN_DATE,
+                "not-a-date", 1, PAGE_SIZE))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    private List<Long> wordPages(WordSort sort, WordStatus status) {
+        List<Long> ids = new ArrayList<>();
+        KeysetPage<WordRowDto> page = wordService.getWordRows(dictionary, status, null, sort, null, 0, PAGE_SIZE);
+        page.getRows().forEach(row -> ids.add(row.getId()));
+        while (page.isHasNext()) {
+            assertThat(page.getRows()).hasSize(PAGE_SIZE);
+            page = wordService.getWordRows(dictionary, status, null, sort, page.getNextKey(), page.getNextId(), PAGE_SIZE);
+            page.getRows().forEach(row -> ids.add(row.getId()));
+        }
+        return ids;
+    }
+
+    private List<Long> schedulePages(ScheduleSort sort, WordStatus status) {
+        List<Long> ids = new ArrayList<>();
+        KeysetPage<ScheduleRowDto> page = wordService.getScheduleRows(dictionary, status, null, sort, null, 0, PAGE_SIZE);
+        page.getRows().forEach(row -> ids.add(row.getId()));
+        while (page.isHasNext()) {
+            assertThat(page.getRows()).hasSize(PAGE_SIZE);
+            page = wordService.getScheduleRows(dictionary, status, null, sort, page.getNextKey(), page.getNextId(), PAGE_SIZE);
+            page.getRows().forEach(row -> ids.add(row.getId()));
+        }
+        return ids;
+    }
+
+    private List<Long> expectedWordIds(WordStatus status, Comparator<Schedule> order) {
+        return schedules.stream().filter(schedule -> status == null || schedule.getStatus() == status)
+                .sorted(order).map(schedule -> schedule.getWord().getId()).toList();
+    }
+
+    private List<Long> expectedScheduleIds(WordStatus status, Comparator<Schedule> order) {
+        return schedules.stream().filter(schedule -> status == null || schedule.getStatus() == status)
+                .sorted(order).map(Schedule::getId).toList();
+    }
+}